@@ -47,4 +47,24 @@ export const getSalesTrends = async (period = "MONTH", warehouse = "ALL") => {
     console.error('Error fetching sales trends:', error);
     throw error;
   }
-};
\ No newline at end of file
+};
+// Live dashboard deltas pushed by the server (Server-Sent Events).
+// Returns a function that closes the stream.
+export const subscribeToDashboardStream = (onDelta) => {
+  const token = getAuthToken();
+  const source = new EventSource(`${BASE_URL}/stream?token=${encodeURIComponent(token)}`);
+
+  source.addEventListener("stock-movement", (event) => {
+    try {
+      onDelta(JSON.parse(event.data));
+    } catch (error) {
+      console.error('Error parsing dashboard delta:', error);
+    }
+  });
+
+  source.onerror = (error) => {
+    console.error('Dashboard stream error:', error);
+  };
+
+  return () => source.close();
+};
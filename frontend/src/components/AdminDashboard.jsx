@@ -1,6 +1,6 @@
 // src/components/AdminDashboard.jsx
 import React, { useEffect, useState } from "react";
-import { getDashboardData } from "../api/analyticsApi";
+import { getDashboardData, subscribeToDashboardStream } from "../api/analyticsApi";
 import "./AdminDashboard.css";
 
 export default function AdminDashboard() {
@@ -11,6 +11,18 @@ export default function AdminDashboard() {
     loadDashboardData();
   }, []);
 
+  useEffect(() => {
+    // Apply pushed deltas instead of re-fetching the whole dashboard
+    return subscribeToDashboardStream((delta) => {
+      setDashboardData((current) => current && {
+        ...current,
+        totalInventoryValue: (current.totalInventoryValue || 0) + delta.inventoryValueDelta,
+        totalLowStockItems: delta.lowStockProducts,
+        totalOutOfStockItems: delta.outOfStockProducts,
+      });
+    });
+  }, []);
+
   const loadDashboardData = async () => {
     try {
       const data = await getDashboardData();
@@ -1,6 +1,6 @@
 // src/components/StoreManagerDashboard.jsx
 import React, { useEffect, useState } from "react";
-import { getDashboardData } from "../api/analyticsApi";
+import { getDashboardData, subscribeToDashboardStream } from "../api/analyticsApi";
 import "./StoreManagerDashboard.css";
 
 export default function StoreManagerDashboard() {
@@ -11,6 +11,20 @@ export default function StoreManagerDashboard() {
     loadDashboardData();
   }, []);
 
+  useEffect(() => {
+    // Apply pushed deltas instead of re-fetching the whole dashboard
+    return subscribeToDashboardStream((delta) => {
+      setDashboardData((current) => current && {
+        ...current,
+        dailyTurnover: (current.dailyTurnover || 0) + delta.turnoverDelta,
+        totalItemsSoldToday: (current.totalItemsSoldToday || 0) + delta.itemsSoldDelta,
+        todaySalesCount: (current.todaySalesCount || 0) + delta.salesCountDelta,
+        totalInventoryValue: (current.totalInventoryValue || 0) + delta.inventoryValueDelta,
+        lowStockAlerts: delta.lowStockAlerts,
+      });
+    });
+  }, []);
+
   const loadDashboardData = async () => {
     try {
       const data = await getDashboardData();
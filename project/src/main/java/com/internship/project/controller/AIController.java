@@ -1,10 +1,14 @@
 package com.internship.project.controller;
 
+import com.internship.project.service.GeminiAIService;
+import com.internship.project.service.ReplenishmentJobService;
 import com.internship.project.service.SmartReplenishmentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -15,6 +19,12 @@ public class AIController {
     @Autowired
     private SmartReplenishmentService smartReplenishmentService;
 
+    @Autowired
+    private GeminiAIService geminiAIService;
+
+    @Autowired
+    private ReplenishmentJobService replenishmentJobService;
+
     @GetMapping("/replenishment-recommendation/{productId}")
     public ResponseEntity<?> getReplenishmentRecommendation(@PathVariable Long productId) {
         try {
@@ -24,4 +34,124 @@ public class AIController {
             return ResponseEntity.badRequest().body("Error getting AI recommendation: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The local reorder policy's decision for one product (no Gemini call, no order placed).
+     */
+    @GetMapping("/replenishment/policy/{productId}")
+    public ResponseEntity<?> getPolicyDecision(@PathVariable Long productId) {
+        try {
+            return ResponseEntity.ok(smartReplenishmentService.getPolicyDecision(productId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error evaluating replenishment policy: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Check every low-stock product and return all recommendations when done.
+     * batchSize overrides how many products share one Gemini request (1 = one request per product).
+     */
+    @PostMapping("/replenishment/check-all")
+    public ResponseEntity<?> checkAllProducts(@RequestParam(required = false) Integer batchSize) {
+        try {
+            return ResponseEntity.ok(batchSize != null
+                    ? smartReplenishmentService.checkAllProductsForReplenishment(batchSize)
+                    : smartReplenishmentService.checkAllProductsForReplenishment());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error checking products for replenishment: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Same check, streamed over Server-Sent Events as each recommendation completes.
+     */
+    @GetMapping("/replenishment/check-all/stream")
+    public SseEmitter streamCheckAllProducts() {
+        return smartReplenishmentService.streamReplenishmentCheck();
+    }
+
+    /**
+     * Start a background sweep (all products, or only productIds) and return its job id immediately.
+     */
+    @PostMapping("/replenishment/jobs")
+    public ResponseEntity<?> submitReplenishmentJob(@RequestParam(required = false) Integer batchSize,
+                                                    @RequestParam(required = false) List<Long> productIds) {
+        try {
+            return ResponseEntity.accepted().body(replenishmentJobService.submit(batchSize, productIds));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error submitting replenishment job: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/replenishment/jobs")
+    public ResponseEntity<?> listReplenishmentJobs(@RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(replenishmentJobService.listJobs(page, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error listing replenishment jobs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Status and progress of a job, for polling.
+     */
+    @GetMapping("/replenishment/jobs/{jobId}")
+    public ResponseEntity<?> getReplenishmentJob(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(replenishmentJobService.getJob(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting replenishment job: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/replenishment/jobs/{jobId}/results")
+    public ResponseEntity<?> getReplenishmentJobResults(@PathVariable Long jobId,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(replenishmentJobService.getResults(jobId, page, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error getting replenishment job results: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Progress and results of a job as Server-Sent Events.
+     */
+    @GetMapping("/replenishment/jobs/{jobId}/events")
+    public SseEmitter streamReplenishmentJob(@PathVariable Long jobId) {
+        return replenishmentJobService.subscribe(jobId);
+    }
+
+    @PostMapping("/replenishment/jobs/{jobId}/cancel")
+    public ResponseEntity<?> cancelReplenishmentJob(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(replenishmentJobService.cancel(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error cancelling replenishment job: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hit rate and size of the feature-keyed recommendation cache.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(geminiAIService.getCacheStats());
+    }
+
+    /**
+     * Circuit breaker state, latency histogram and retry/hedge counters of the Gemini client.
+     */
+    @GetMapping("/client/stats")
+    public ResponseEntity<?> getClientStats() {
+        return ResponseEntity.ok(geminiAIService.getClientStats());
+    }
+
+    @DeleteMapping("/cache")
+    public ResponseEntity<?> clearCache() {
+        geminiAIService.clearCache();
+        return ResponseEntity.ok(Map.of("message", "Recommendation cache cleared"));
+    }
+}
@@ -1,15 +1,24 @@
 // AnalyticsController.java
 package com.internship.project.controller;
 
+import com.internship.project.dto.CompactSeries;
+import com.internship.project.dto.DashboardResponse;
 import com.internship.project.entity.User;
 import com.internship.project.service.AnalyticsService;
+import com.internship.project.service.DashboardStreamService;
+import com.internship.project.service.PayloadCacheService;
 import com.internship.project.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -19,11 +28,21 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private DashboardStreamService dashboardStreamService;
+
+    @Autowired
+    private PayloadCacheService payloadCacheService;
+
+    private static final Duration TRENDS_CACHE_TTL = Duration.ofSeconds(60);
+
     @Autowired
     private UserRepository userRepository;
 
     @GetMapping("/dashboard")
-    public ResponseEntity<?> getDashboardData(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getDashboardData(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String sections) {
 
         try {
             // Extract user from token
@@ -35,43 +54,114 @@ public class AnalyticsController {
             }
 
             User user = userOpt.get();
-            Map<String, Object> dashboardData;
+            Set<String> requestedSections = AnalyticsService.parseSections(sections);
+            Object dashboardData;
 
             // Role-based dashboard data
             switch (user.getRole()) {
                 case ADMIN:
-                    dashboardData = analyticsService.getAdminDashboardData();
+                    dashboardData = analyticsService.getAdminDashboardData(requestedSections);
                     break;
                 case STORE_MANAGER:
                     dashboardData = analyticsService.getStoreManagerDashboardData(
-                            user.getAssignedWarehouse() != null ? user.getAssignedWarehouse() : "Main Warehouse");
+                            user.getAssignedWarehouse() != null ? user.getAssignedWarehouse() : "Main Warehouse",
+                            requestedSections);
                     break;
                 case BUYER:
                     dashboardData = analyticsService.getBuyerDashboardData(userId);
                     break;
                 case USER:
                 default:
-                    dashboardData = analyticsService.getUserDashboardData(userId);
+                    dashboardData = analyticsService.getUserDashboardData(userId, requestedSections);
                     break;
             }
 
             // Add user info to response
-            dashboardData.put("userRole", user.getRole().toString());
-            dashboardData.put("userName", user.getFullName());
-            dashboardData.put("assignedWarehouse", user.getAssignedWarehouse());
-
-            return ResponseEntity.ok(dashboardData);
+            return ResponseEntity.ok(new DashboardResponse(user.getRole().toString(), user.getFullName(),
+                    user.getAssignedWarehouse(), dashboardData));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching dashboard data: " + e.getMessage());
         }
     }
 
+    /**
+     * Sales trends. The series is a compact float-array form by default (encoding=RAW or DELTA);
+     * encoding=POINTS returns one object per bucket.
+     */
     @GetMapping("/sales-trends")
     public ResponseEntity<?> getSalesTrends(
             @RequestHeader("Authorization") String token,
             @RequestParam(defaultValue = "MONTH") String period,
-            @RequestParam(defaultValue = "ALL") String warehouse) {
+            @RequestParam(defaultValue = "ALL") String warehouse,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(defaultValue = "120") int maxPoints,
+            @RequestParam(required = false) String sections,
+            @RequestParam(defaultValue = CompactSeries.RAW) String encoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            String trendsWarehouse = resolveTrendsWarehouse(token, warehouse);
+
+            // Trends are the same for every user with the same parameters, so cache the serialized payload
+            String cacheKey = PayloadCacheService.TRENDS_PREFIX + period.toUpperCase() + "|" + trendsWarehouse + "|" +
+                    granularity + "|" + maxPoints + "|" + sections + "|" + encoding.toUpperCase();
+            return payloadCacheService.getOrCompute(cacheKey, TRENDS_CACHE_TTL,
+                    () -> analyticsService.getSalesTrends(period, trendsWarehouse, granularity, maxPoints,
+                            AnalyticsService.parseSections(sections), encoding))
+                    .toResponse(acceptEncoding);
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error fetching sales trends: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Binary form of the trend series, selected with Accept: application/vnd.smartshelf.series.
+     */
+    @GetMapping(value = "/sales-trends", produces = CompactSeries.BINARY_MEDIA_TYPE)
+    public ResponseEntity<?> getSalesTrendsBinary(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(defaultValue = "MONTH") String period,
+            @RequestParam(defaultValue = "ALL") String warehouse,
+            @RequestParam(required = false) String granularity,
+            @RequestParam(defaultValue = "120") int maxPoints,
+            @RequestParam(defaultValue = CompactSeries.RAW) String encoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            String trendsWarehouse = resolveTrendsWarehouse(token, warehouse);
+
+            String cacheKey = PayloadCacheService.TRENDS_PREFIX + "binary|" + period.toUpperCase() + "|" +
+                    trendsWarehouse + "|" + granularity + "|" + maxPoints + "|" + encoding.toUpperCase();
+            return payloadCacheService.getOrComputeBytes(cacheKey, TRENDS_CACHE_TTL,
+                    MediaType.parseMediaType(CompactSeries.BINARY_MEDIA_TYPE),
+                    () -> analyticsService.getTrendSeries(period, trendsWarehouse, granularity, maxPoints, encoding)
+                            .toBinary())
+                    .toResponse(acceptEncoding);
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN)
+                    .body("Error fetching sales trends: " + e.getMessage());
+        }
+    }
+
+    // Store managers only see their assigned warehouse
+    private String resolveTrendsWarehouse(String token, String warehouse) {
+        Long userId = extractUserIdFromToken(token);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        if (user.getRole() == User.Role.STORE_MANAGER && user.getAssignedWarehouse() != null) {
+            return user.getAssignedWarehouse();
+        }
+        return warehouse;
+    }
+
+    /**
+     * Live dashboard deltas over Server-Sent Events.
+     * EventSource cannot set headers, so the token is passed as a query parameter.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamDashboard(@RequestParam String token) {
         try {
             Long userId = extractUserIdFromToken(token);
             Optional<User> userOpt = userRepository.findById(userId);
@@ -82,16 +172,17 @@ public class AnalyticsController {
 
             User user = userOpt.get();
 
-            // Role-based warehouse filtering
-            if (user.getRole() == User.Role.STORE_MANAGER && user.getAssignedWarehouse() != null) {
-                warehouse = user.getAssignedWarehouse();
+            // Store managers only see their own warehouse, everyone else gets the global channel
+            String warehouse = DashboardStreamService.ALL_WAREHOUSES;
+            if (user.getRole() == User.Role.STORE_MANAGER) {
+                warehouse = user.getAssignedWarehouse() != null ? user.getAssignedWarehouse() : "Main Warehouse";
             }
 
-            Map<String, Object> trendsData = analyticsService.getSalesTrends(period, warehouse);
-            return ResponseEntity.ok(trendsData);
+            SseEmitter emitter = dashboardStreamService.subscribe(warehouse);
+            return ResponseEntity.ok(emitter);
 
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error fetching sales trends: " + e.getMessage());
+            return ResponseEntity.badRequest().body("Error opening dashboard stream: " + e.getMessage());
         }
     }
 
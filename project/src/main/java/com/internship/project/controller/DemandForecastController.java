@@ -1,10 +1,19 @@
 package com.internship.project.controller;
 
+import com.internship.project.dto.CompactSeries;
 import com.internship.project.service.DemandForecastingService;
+import com.internship.project.service.DemandStateService;
+import com.internship.project.service.ForecastModelService;
+import com.internship.project.service.ForecastSnapshotService;
+import com.internship.project.service.PayloadCacheService;
+import com.internship.project.service.StockoutRiskIndexService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.Map;
 
 @RestController
@@ -15,17 +24,70 @@ public class DemandForecastController {
     @Autowired
     private DemandForecastingService demandForecastingService;
 
+    @Autowired
+    private PayloadCacheService payloadCacheService;
+
+    @Autowired
+    private DemandStateService demandStateService;
+
+    @Autowired
+    private ForecastModelService forecastModelService;
+
+    @Autowired
+    private ForecastSnapshotService forecastSnapshotService;
+
+    @Autowired
+    private StockoutRiskIndexService stockoutRiskIndexService;
+
+    // Forecasts read current stock, but dropping them on every movement would leave nothing cached under
+    // steady sales; they are served up to this stale instead, and dropped at once on refit or state rebuild
+    private static final Duration FORECAST_CACHE_TTL = Duration.ofSeconds(60);
+    // Each backtested day is a double per product held in memory, so the replayed span is capped
+    private static final int MAX_BACKTEST_DAYS = 730;
+
+    /**
+     * Demand forecast for all products, or from one warehouse's sales with warehouse=.
+     * Chart series are float arrays, optionally delta-encoded (encoding=DELTA).
+     */
     @GetMapping("/demand")
     public ResponseEntity<?> getDemandForecast(
-            @RequestParam(defaultValue = "30") int days) {
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) String warehouse,
+            @RequestParam(defaultValue = CompactSeries.RAW) String encoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            Map<String, Object> forecastData = demandForecastingService.getDemandForecast(days);
-            return ResponseEntity.ok(forecastData);
+            return payloadCacheService.getOrCompute(
+                            PayloadCacheService.FORECAST_PREFIX + "demand:" + days + ":" + warehouse + ":" + encoding.toUpperCase(),
+                            FORECAST_CACHE_TTL,
+                            () -> demandForecastingService.getDemandForecast(days, encoding, warehouse))
+                    .toResponse(acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error generating forecast: " + e.getMessage());
         }
     }
 
+    /**
+     * Binary form of the forecast chart series, selected with Accept: application/vnd.smartshelf.series.
+     */
+    @GetMapping(value = "/demand", produces = CompactSeries.BINARY_MEDIA_TYPE)
+    public ResponseEntity<?> getDemandForecastBinary(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) String warehouse,
+            @RequestParam(defaultValue = CompactSeries.RAW) String encoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            return payloadCacheService.getOrComputeBytes(
+                            PayloadCacheService.FORECAST_PREFIX + "demand-binary:" + days + ":" + warehouse + ":" + encoding.toUpperCase(),
+                            FORECAST_CACHE_TTL,
+                            MediaType.parseMediaType(CompactSeries.BINARY_MEDIA_TYPE),
+                            () -> demandForecastingService.getDemandForecast(days, encoding, warehouse).toSeriesBinary())
+                    .toResponse(acceptEncoding);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN)
+                    .body("Error generating forecast: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/fast-moving")
     public ResponseEntity<?> getFastMovingProducts(
             @RequestParam(defaultValue = "30") int days) {
@@ -36,23 +98,109 @@ public class DemandForecastController {
         }
     }
 
+    /**
+     * CRITICAL and HIGH risk products from the stockout risk index, optionally for one warehouse.
+     */
     @GetMapping("/stockout-risk")
-    public ResponseEntity<?> getStockoutRisk() {
-        try {
-            Map<String, Object> forecastData = demandForecastingService.getDemandForecast(14);
-            // Filter only high and critical risk products
-            forecastData.put("highRiskProducts",
-                    ((java.util.List<?>) forecastData.get("productForecasts")).stream()
-                            .filter(p -> {
-                                Map<?, ?> product = (Map<?, ?>) p;
-                                String risk = (String) product.get("riskLevel");
-                                return "HIGH".equals(risk) || "CRITICAL".equals(risk);
-                            })
-                            .collect(java.util.stream.Collectors.toList())
-            );
-            return ResponseEntity.ok(forecastData);
+    public ResponseEntity<?> getStockoutRisk(
+            @RequestParam(required = false) String warehouse,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(stockoutRiskIndexService.getHighRiskReport(warehouse, limit));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error analyzing stockout risk: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The N products with the fewest days of cover, optionally for one warehouse.
+     */
+    @GetMapping("/stockout-risk/top")
+    public ResponseEntity<?> getTopStockoutRisks(
+            @RequestParam(defaultValue = "10") int n,
+            @RequestParam(required = false) String warehouse) {
+        try {
+            return ResponseEntity.ok(stockoutRiskIndexService.getTopAtRisk(n, warehouse));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error loading top stockout risks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Precomputed forecasts for a standard horizon (7, 14, 30 or 90 days), paginated and most urgent first.
+     */
+    @GetMapping("/demand/precomputed")
+    public ResponseEntity<?> getPrecomputedForecast(
+            @RequestParam(defaultValue = "30") int horizon,
+            @RequestParam(required = false) String warehouse,
+            @RequestParam(required = false) String riskLevel,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(forecastSnapshotService.getForecastPage(
+                    horizon, warehouse, riskLevel, productId, page, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error loading precomputed forecast: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Regenerate the precomputed forecast table now instead of waiting for the nightly job.
+     */
+    @PostMapping("/demand/precomputed/generate")
+    public ResponseEntity<?> generatePrecomputedForecast() {
+        try {
+            return ResponseEntity.ok(forecastSnapshotService.generateSnapshot());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error generating forecast snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the per-product demand state from sales history (e.g. after changing smoothing settings).
+     */
+    @PostMapping("/demand-state/rebuild")
+    public ResponseEntity<?> rebuildDemandState() {
+        try {
+            int states = demandStateService.rebuildFromSales();
+            payloadCacheService.invalidate(PayloadCacheService.FORECAST_PREFIX);
+            return ResponseEntity.ok(Map.of("rebuiltStates", states));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error rebuilding demand state: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Refit the per-product forecasting models now instead of waiting for the nightly run.
+     */
+    @PostMapping("/models/refit")
+    public ResponseEntity<?> refitModels() {
+        try {
+            Map<String, Object> summary = forecastModelService.refitAll();
+            payloadCacheService.invalidate(PayloadCacheService.FORECAST_PREFIX);
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error refitting forecast models: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Backtest the forecast models in rolling windows over recorded sales.
+     * The synthetic-dataset backtest is a development tool (DevTools backtest), not an endpoint.
+     */
+    @GetMapping("/backtest")
+    public ResponseEntity<?> backtest(
+            @RequestParam(defaultValue = "180") int days,
+            @RequestParam(defaultValue = "90") int trainDays,
+            @RequestParam(defaultValue = "14") int windowDays) {
+        try {
+            if (days < 1 || days > MAX_BACKTEST_DAYS) {
+                throw new IllegalArgumentException("days must be between 1 and " + MAX_BACKTEST_DAYS);
+            }
+            return ResponseEntity.ok(forecastModelService.backtestHistory(days, trainDays, windowDays));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error running forecast backtest: " + e.getMessage());
+        }
+    }
+}
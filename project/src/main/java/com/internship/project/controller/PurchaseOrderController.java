@@ -1,11 +1,14 @@
 package com.internship.project.controller;
 
 import com.internship.project.entity.PurchaseOrder;
+import com.internship.project.service.AutoReplenishmentService;
 import com.internship.project.service.PurchaseOrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,6 +19,9 @@ public class PurchaseOrderController {
     @Autowired
     private PurchaseOrderService purchaseOrderService;
 
+    @Autowired
+    private AutoReplenishmentService autoReplenishmentService;
+
     @PostMapping("/manual")
     public ResponseEntity<?> createManualOrder(
             @RequestParam Long productId,
@@ -60,8 +66,62 @@ public class PurchaseOrderController {
         }
     }
 
+    @PostMapping("/{orderId}/cancel")
+    public ResponseEntity<?> cancelOrder(@PathVariable Long orderId) {
+        try {
+            PurchaseOrder order = purchaseOrderService.cancelOrder(orderId);
+            return ResponseEntity.ok(order);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Approve many orders in one transaction. The body is a JSON array of order ids; without one,
+     * every PENDING order matching the filter parameters is approved.
+     */
+    @PostMapping("/bulk/approve")
+    public ResponseEntity<?> bulkApprove(
+            @RequestBody(required = false) List<Long> orderIds,
+            @RequestParam(required = false) Long buyerId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Boolean autoTriggered,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime orderedBefore) {
+        try {
+            return ResponseEntity.ok(purchaseOrderService.bulkApprove(orderIds, buyerId, productId, autoTriggered, orderedBefore));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error approving orders: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Complete many orders in one transaction, by id list or by filter over APPROVED orders.
+     */
+    @PostMapping("/bulk/complete")
+    public ResponseEntity<?> bulkComplete(
+            @RequestBody(required = false) List<Long> orderIds,
+            @RequestParam(required = false) Long buyerId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Boolean autoTriggered,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime orderedBefore) {
+        try {
+            return ResponseEntity.ok(purchaseOrderService.bulkComplete(orderIds, buyerId, productId, autoTriggered, orderedBefore));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error completing orders: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/auto-triggered")
     public List<PurchaseOrder> getAutoTriggeredOrders() {
         return purchaseOrderService.getAutoTriggeredOrders();
     }
+
+    /**
+     * How auto-replenishment triggers were resolved (CREATED, COVERED, IN_FLIGHT, DEBOUNCED, NO_BUYER),
+     * plus the debounce window, triggers in flight and whether the open auto order index exists (openOrderIndex).
+     */
+    @GetMapping("/auto-triggered/stats")
+    public ResponseEntity<?> getAutoReplenishmentStats() {
+        return ResponseEntity.ok(autoReplenishmentService.getStats());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.internship.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * System-wide dashboard for admins; unrequested sections are null and left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AdminDashboard(@JsonUnwrapped Summary summary, @JsonUnwrapped WarehouseAnalysis warehouseAnalysis,
+                             Map<String, Double> categoryPerformance, List<TopProduct> topProducts,
+                             List<String> sections, Map<String, Long> sectionTimings) {
+
+    public record Summary(long totalProducts, double totalInventoryValue, long totalLowStockItems,
+                          long totalOutOfStockItems) {
+    }
+
+    // Last 30 days per warehouse, with the totals across them
+    public record WarehouseAnalysis(List<WarehouseSummary> warehouseAnalysis, double totalRevenueLastMonth,
+                                    long totalTransactionsLastMonth) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.internship.project.dto;
+
+import com.internship.project.entity.PurchaseOrder;
+
+import java.util.List;
+
+public record BuyerDashboard(long totalOrders, long pendingOrders, long completedOrders, double totalSpent,
+                             List<PurchaseOrder> recentOrders) {
+}
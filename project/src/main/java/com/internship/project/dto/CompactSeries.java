@@ -0,0 +1,74 @@
+package com.internship.project.dto;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Evenly spaced series stored as one float array instead of one object per point.
+ * Point i is at start + i * step. With DELTA encoding each value is the difference from the previous one.
+ */
+public record CompactSeries(int start, int step, String encoding, float[] values) {
+
+    public static final String RAW = "RAW";
+    public static final String DELTA = "DELTA";
+
+    // Binary form of series responses, selected through the Accept header
+    public static final String BINARY_MEDIA_TYPE = "application/vnd.smartshelf.series";
+    private static final int BINARY_VERSION = 1;
+
+    /**
+     * Encode values rounded to two decimals.
+     */
+    public static CompactSeries of(double[] values, int start, int step, String encoding) {
+        boolean delta = isDelta(encoding);
+        float[] encoded = new float[values.length];
+        double previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            double rounded = Math.round(values[i] * 100.0) / 100.0;
+            encoded[i] = (float) (delta ? rounded - previous : rounded);
+            previous = rounded;
+        }
+        return new CompactSeries(start, step, delta ? DELTA : RAW, encoded);
+    }
+
+    /**
+     * Canonical RAW or DELTA for a requested encoding (null means RAW); rejects anything else.
+     */
+    public static String validateEncoding(String encoding) {
+        if (encoding == null || RAW.equalsIgnoreCase(encoding)) return RAW;
+        if (DELTA.equalsIgnoreCase(encoding)) return DELTA;
+        throw new IllegalArgumentException("Unsupported series encoding: " + encoding + ". Use RAW or DELTA");
+    }
+
+    public static boolean isDelta(String encoding) {
+        return DELTA.equals(validateEncoding(encoding));
+    }
+
+    /**
+     * Absolute values, undoing delta encoding.
+     */
+    public float[] decode() {
+        if (!DELTA.equals(encoding)) return values.clone();
+        float[] decoded = new float[values.length];
+        float running = 0;
+        for (int i = 0; i < values.length; i++) {
+            running += values[i];
+            decoded[i] = running;
+        }
+        return decoded;
+    }
+
+    /**
+     * Binary layout (big-endian): version byte, start int, step int, delta flag byte, count int, count floats.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeByte(BINARY_VERSION);
+        out.writeInt(start);
+        out.writeInt(step);
+        out.writeByte(DELTA.equals(encoding) ? 1 : 0);
+        out.writeInt(values.length);
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+}
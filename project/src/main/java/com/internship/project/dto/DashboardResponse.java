@@ -0,0 +1,10 @@
+package com.internship.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A role's dashboard with the user's details alongside its fields.
+ */
+public record DashboardResponse(String userRole, String userName, String assignedWarehouse,
+                                @JsonUnwrapped Object dashboard) {
+}
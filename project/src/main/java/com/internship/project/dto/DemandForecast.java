@@ -0,0 +1,35 @@
+package com.internship.project.dto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DemandForecast(
+        List<ProductForecast> productForecasts,
+        String forecastPeriod,
+        String warehouse,
+        LocalDateTime generatedAt,
+        int totalProducts,
+        long highRiskCount,
+        long mediumRiskCount) {
+
+    /**
+     * Binary form of the chart series only: product count, then product id and series for each product.
+     */
+    public byte[] toSeriesBinary() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(productForecasts.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(productForecasts.size());
+            for (ProductForecast forecast : productForecasts) {
+                out.writeLong(forecast.productId());
+                forecast.forecastChart().projectedSales().writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,4 @@
+package com.internship.project.dto;
+
+public record FastMovingProduct(Long productId, String productName, int unitsSold, int currentStock, double revenue) {
+}
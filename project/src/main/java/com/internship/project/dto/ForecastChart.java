@@ -0,0 +1,5 @@
+package com.internship.project.dto;
+
+// Projected daily sales for forecast days 1..N
+public record ForecastChart(CompactSeries projectedSales, double trend) {
+}
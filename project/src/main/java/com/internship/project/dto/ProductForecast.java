@@ -0,0 +1,17 @@
+package com.internship.project.dto;
+
+public record ProductForecast(
+        Long productId,
+        String productName,
+        int currentStock,
+        int reorderThreshold,
+        double avgDailySales,
+        double salesTrend,
+        int daysOfStockLeft,
+        int forecastedDemand,
+        String riskLevel,
+        String recommendedAction,
+        double demandStdDev,
+        String model,
+        ForecastChart forecastChart) {
+}
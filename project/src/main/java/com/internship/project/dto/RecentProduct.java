@@ -0,0 +1,4 @@
+package com.internship.project.dto;
+
+public record RecentProduct(Long id, String name, int quantity, double price, String imageFileName) {
+}
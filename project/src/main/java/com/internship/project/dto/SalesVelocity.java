@@ -0,0 +1,28 @@
+package com.internship.project.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * SALE units of one product over the last 7, 30 and 90 days, with the number of days it sold
+ * in the 90-day window and its latest sale.
+ */
+public record SalesVelocity(long units7, long units30, long units90, long activeDays90, LocalDateTime lastSale) {
+
+    public static final SalesVelocity NONE = new SalesVelocity(0, 0, 0, 0, null);
+
+    public double avgDaily7() {
+        return units7 / 7.0;
+    }
+
+    public double avgDaily30() {
+        return units30 / 30.0;
+    }
+
+    public double avgDaily90() {
+        return units90 / 90.0;
+    }
+
+    public boolean hasSales() {
+        return units90 > 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.internship.project.dto;
+
+public record StockoutRiskEntry(
+        Long productId,
+        String productName,
+        int currentStock,
+        int reorderThreshold,
+        double avgDailySales,
+        int daysOfStockLeft,
+        int forecastedDemand,
+        String riskLevel,
+        String recommendedAction) {
+
+    public static StockoutRiskEntry of(ProductForecast forecast) {
+        return new StockoutRiskEntry(
+                forecast.productId(),
+                forecast.productName(),
+                forecast.currentStock(),
+                forecast.reorderThreshold(),
+                forecast.avgDailySales(),
+                forecast.daysOfStockLeft(),
+                forecast.forecastedDemand(),
+                forecast.riskLevel(),
+                forecast.recommendedAction());
+    }
+}
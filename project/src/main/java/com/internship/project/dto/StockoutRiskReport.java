@@ -0,0 +1,12 @@
+package com.internship.project.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record StockoutRiskReport(
+        String warehouse,
+        long criticalCount,
+        long highRiskCount,
+        List<StockoutRiskEntry> highRiskProducts,
+        LocalDateTime generatedAt) {
+}
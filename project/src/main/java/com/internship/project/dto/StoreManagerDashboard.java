@@ -0,0 +1,22 @@
+package com.internship.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard for a store manager's warehouse; unrequested sections are null and left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StoreManagerDashboard(String warehouse, @JsonUnwrapped Summary summary,
+                                    @JsonUnwrapped TodaySales todaySales, List<TopProduct> fastMovingProducts,
+                                    List<String> sections, Map<String, Long> sectionTimings) {
+
+    public record Summary(long totalProducts, long lowStockAlerts, double totalInventoryValue) {
+    }
+
+    public record TodaySales(double dailyTurnover, int todaySalesCount, int totalItemsSoldToday) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.internship.project.dto;
+
+public record TopProduct(String name, int sales, double revenue, int currentStock, String warehouse) {
+}
@@ -0,0 +1,6 @@
+package com.internship.project.dto;
+
+import java.time.LocalDateTime;
+
+public record TrendPoint(LocalDateTime bucketStart, double revenue, long unitsSold, long saleCount) {
+}
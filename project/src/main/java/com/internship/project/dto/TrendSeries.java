@@ -0,0 +1,36 @@
+package com.internship.project.dto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Dense bucket series: point i covers step buckets of the granularity starting at start + i * step buckets
+public record TrendSeries(
+        LocalDateTime start,
+        String granularity,
+        int step,
+        CompactSeries revenue,
+        CompactSeries unitsSold,
+        CompactSeries saleCount) {
+
+    /**
+     * Binary form: start as epoch seconds (UTC wall clock), granularity, step, then the three series.
+     */
+    public byte[] toBinary() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(start.toEpochSecond(ZoneOffset.UTC));
+            out.writeUTF(granularity);
+            out.writeInt(step);
+            revenue.writeTo(out);
+            unitsSold.writeTo(out);
+            saleCount.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,19 @@
+package com.internship.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard for plain users. Sections that were not requested are null and left out of the JSON;
+ * the fields of unwrapped sections appear at the top level, as they did when this was a map.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserDashboard(@JsonUnwrapped Summary summary, List<RecentProduct> recentProducts,
+                            List<String> sections, Map<String, Long> sectionTimings) {
+
+    public record Summary(long totalProducts, long lowStockProducts, long outOfStockProducts) {
+    }
+}
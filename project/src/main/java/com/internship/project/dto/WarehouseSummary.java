@@ -0,0 +1,4 @@
+package com.internship.project.dto;
+
+public record WarehouseSummary(String warehouse, double totalRevenue, long totalTransactions, long productCount) {
+}
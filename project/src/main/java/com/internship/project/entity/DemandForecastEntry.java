@@ -0,0 +1,70 @@
+package com.internship.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed forecast for one product, warehouse and horizon, written in bulk by the nightly batch job.
+ */
+@Entity
+@Table(name = "demand_forecasts",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"generation_id", "horizon_days", "product_id", "warehouse_location"}),
+        indexes = @Index(name = "idx_demand_forecasts_lookup", columnList = "generation_id, horizon_days, days_of_stock_left"))
+@Getter
+@Setter
+public class DemandForecastEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "generation_id", nullable = false)
+    private Long generationId;
+
+    @Column(name = "horizon_days", nullable = false)
+    private int horizonDays;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "warehouse_location", nullable = false)
+    private String warehouseLocation;
+
+    @Column(name = "current_stock", nullable = false)
+    private int currentStock;
+
+    @Column(name = "reorder_threshold", nullable = false)
+    private int reorderThreshold;
+
+    @Column(name = "avg_daily_sales", nullable = false)
+    private double avgDailySales;
+
+    @Column(name = "sales_trend", nullable = false)
+    private double salesTrend;
+
+    @Column(name = "days_of_stock_left", nullable = false)
+    private int daysOfStockLeft;
+
+    @Column(name = "forecasted_demand", nullable = false)
+    private int forecastedDemand;
+
+    @Column(name = "risk_level", nullable = false, length = 10)
+    private String riskLevel;
+
+    @Column(name = "recommended_action")
+    private String recommendedAction;
+
+    @Column(name = "demand_std_dev", nullable = false)
+    private double demandStdDev;
+
+    @Column(length = 20)
+    private String model;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+}
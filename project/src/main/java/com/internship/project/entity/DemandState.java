@@ -0,0 +1,56 @@
+package com.internship.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Online demand state for one product in one warehouse (Holt's linear smoothing over daily sales).
+ * Sales for the current day accumulate in pendingUnits and are folded into level/trend when the day closes.
+ */
+@Entity
+@Table(name = "demand_states",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "warehouse_location"}))
+@Getter
+@Setter
+public class DemandState {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "warehouse_location", nullable = false)
+    private String warehouseLocation;
+
+    @Column(nullable = false)
+    private double level;
+
+    @Column(nullable = false)
+    private double trend;
+
+    // Exponentially weighted variance of the one-day-ahead forecast error
+    @Column(nullable = false)
+    private double variance;
+
+    @Column(name = "observed_days", nullable = false)
+    private long observedDays;
+
+    @Column(name = "current_day", nullable = false)
+    private LocalDate currentDay;
+
+    @Column(name = "pending_units", nullable = false)
+    private double pendingUnits;
+
+    public DemandState() {
+    }
+
+    public DemandState(Long productId, String warehouseLocation, LocalDate currentDay) {
+        this.productId = productId;
+        this.warehouseLocation = warehouseLocation;
+        this.currentDay = currentDay;
+    }
+}
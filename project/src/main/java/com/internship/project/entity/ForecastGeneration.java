@@ -0,0 +1,41 @@
+package com.internship.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One batch run of precomputed forecasts. Rows in demand_forecasts belong to a generation;
+ * readers only see the ACTIVE one, so a new run becomes visible all at once.
+ */
+@Entity
+@Table(name = "forecast_generations")
+@Getter
+@Setter
+public class ForecastGeneration {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 10)
+    private String status; // BUILDING, ACTIVE, RETIRED, FAILED
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "activated_at")
+    private LocalDateTime activatedAt;
+
+    @Column(name = "row_count", nullable = false)
+    private long rowCount;
+
+    public ForecastGeneration() {
+    }
+
+    public ForecastGeneration(String status, LocalDateTime createdAt) {
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+}
@@ -4,12 +4,22 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
 @Table(name = "purchase_orders")
 @Getter
 @Setter
 public class PurchaseOrder {
+
+    // Allowed status moves; COMPLETED and CANCELLED are final
+    public static final Map<String, Set<String>> TRANSITIONS = Map.of(
+            "PENDING", Set.of("APPROVED", "CANCELLED"),
+            "APPROVED", Set.of("COMPLETED", "CANCELLED"),
+            "COMPLETED", Set.of(),
+            "CANCELLED", Set.of());
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -47,6 +57,11 @@ public class PurchaseOrder {
     // Automatically triggered flag
     private boolean autoTriggered = false;
 
+    // Optimistic lock; status changes made with conditional updates bump it as well
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     public PurchaseOrder() {
         this.orderDate = LocalDateTime.now();
         this.status = "PENDING";
@@ -64,4 +79,15 @@ public class PurchaseOrder {
                 "Automatically generated purchase order for low stock replenishment" :
                 "Manual purchase order";
     }
+
+    public static boolean canTransition(String from, String to) {
+        return TRANSITIONS.getOrDefault(from, Set.of()).contains(to);
+    }
+
+    /**
+     * Error for a move TRANSITIONS does not allow; controllers answer it with 400.
+     */
+    public static IllegalArgumentException illegalTransition(Long orderId, String from, String to) {
+        return new IllegalArgumentException("Order " + orderId + " is " + from + " and cannot be " + to);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.internship.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A replenishment sweep submitted through the job API. Per-product outcomes are stored in
+ * replenishment_job_results as they complete.
+ */
+@Entity
+@Table(name = "replenishment_jobs")
+@Getter
+@Setter
+public class ReplenishmentJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 10)
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+
+    @Column(name = "batch_size", nullable = false)
+    private int batchSize;
+
+    // Comma-separated product ids for a targeted run; null sweeps the whole catalog
+    @Column(name = "product_ids", length = 2000)
+    private String productIds;
+
+    @Column(name = "total_products", nullable = false)
+    private int totalProducts;
+
+    @Column(name = "processed_products", nullable = false)
+    private int processedProducts;
+
+    @Column(name = "failed_products", nullable = false)
+    private int failedProducts;
+
+    @Column(name = "auto_triggered", nullable = false)
+    private int autoTriggered;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Instance running the job; only that instance holds its live progress and can cancel it
+    @Column(length = 100)
+    private String owner;
+
+    // Refreshed by the owner while the job is unfinished; a stale one means the owner has stopped
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    public ReplenishmentJob() {
+    }
+
+    public ReplenishmentJob(int batchSize, String productIds, String owner) {
+        this.status = "QUEUED";
+        this.batchSize = batchSize;
+        this.productIds = productIds;
+        this.owner = owner;
+        this.createdAt = LocalDateTime.now();
+        this.heartbeatAt = this.createdAt;
+    }
+
+    public boolean isUnfinished() {
+        return "QUEUED".equals(status) || "RUNNING".equals(status);
+    }
+}
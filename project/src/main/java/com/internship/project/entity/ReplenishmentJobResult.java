@@ -0,0 +1,78 @@
+package com.internship.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Recommendation (or error) for one product in a replenishment job.
+ */
+@Entity
+@Table(name = "replenishment_job_results",
+        indexes = @Index(name = "idx_replenishment_job_results_job", columnList = "job_id, id"))
+@Getter
+@Setter
+public class ReplenishmentJobResult {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(length = 10)
+    private String source; // POLICY, AI
+
+    @Column(name = "recommended_quantity")
+    private Integer recommendedQuantity;
+
+    @Column(name = "urgency_level", length = 10)
+    private String urgencyLevel;
+
+    @Column(length = 1000)
+    private String reasoning;
+
+    @Column(length = 30)
+    private String escalation;
+
+    @Column(name = "auto_triggered", nullable = false)
+    private boolean autoTriggered;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public ReplenishmentJobResult() {
+    }
+
+    public static ReplenishmentJobResult of(Long jobId, Map<String, Object> recommendation) {
+        ReplenishmentJobResult result = new ReplenishmentJobResult();
+        result.setJobId(jobId);
+        result.setProductId((Long) recommendation.get("productId"));
+        result.setProductName((String) recommendation.get("productName"));
+        result.setSource((String) recommendation.get("source"));
+        result.setRecommendedQuantity((Integer) recommendation.get("recommendedQuantity"));
+        result.setUrgencyLevel((String) recommendation.get("urgencyLevel"));
+        result.setReasoning(truncate((String) recommendation.get("reasoning"), 1000));
+        result.setEscalation((String) recommendation.get("escalation"));
+        result.setAutoTriggered(Boolean.TRUE.equals(recommendation.get("autoTriggered")));
+        result.setError(truncate((String) recommendation.get("error"), 500));
+        result.setCreatedAt(LocalDateTime.now());
+        return result;
+    }
+
+    private static String truncate(String text, int maxLength) {
+        return text != null && text.length() > maxLength ? text.substring(0, maxLength) : text;
+    }
+}
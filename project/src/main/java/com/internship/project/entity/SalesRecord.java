@@ -12,7 +12,8 @@ import org.springframework.web.bind.annotation.RestController;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "sales_records")
+@Table(name = "sales_records",
+        indexes = @Index(name = "idx_sales_records_product_date", columnList = "product_id, sale_date"))
 @Getter
 @Setter
 @RestController
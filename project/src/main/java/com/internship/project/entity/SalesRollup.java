@@ -0,0 +1,41 @@
+package com.internship.project.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated sales for one time bucket and warehouse.
+ * HOUR buckets are written as sales happen; DAY, WEEK and MONTH are rolled up from the finer tier.
+ */
+@Entity
+@Table(name = "sales_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"granularity", "bucket_start", "warehouse_location"}),
+        indexes = @Index(name = "idx_sales_rollups_lookup", columnList = "granularity, bucket_start"))
+@Getter
+@Setter
+public class SalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 10)
+    private String granularity; // HOUR, DAY, WEEK, MONTH
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "warehouse_location", nullable = false)
+    private String warehouseLocation;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    @Column(name = "units_sold", nullable = false)
+    private long unitsSold;
+
+    @Column(name = "sale_count", nullable = false)
+    private long saleCount;
+}
@@ -0,0 +1,26 @@
+package com.internship.project.event;
+
+import com.internship.project.entity.Product;
+import com.internship.project.entity.SalesRecord;
+
+/**
+ * Published whenever a transaction moves stock (sale, shipment, return).
+ * Carries the saved record together with the product quantity before and
+ * after the movement so listeners never need to re-read the product.
+ * It is published after the movement commits, so listeners catch and log
+ * their own failures instead of failing a request whose change already stands.
+ */
+public record StockMovementEvent(SalesRecord record, int quantityBefore, int quantityAfter) {
+
+    public Product product() {
+        return record.getProduct();
+    }
+
+    public String warehouse() {
+        return record.getWarehouseLocation();
+    }
+
+    public int stockDelta() {
+        return quantityAfter - quantityBefore;
+    }
+}
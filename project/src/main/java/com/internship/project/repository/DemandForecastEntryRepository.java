@@ -0,0 +1,39 @@
+package com.internship.project.repository;
+
+import com.internship.project.entity.DemandForecastEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface DemandForecastEntryRepository extends JpaRepository<DemandForecastEntry, Long> {
+
+    // Most urgent first; null filters match everything
+    @Query("SELECT f FROM DemandForecastEntry f " +
+            "WHERE f.generationId = :generationId AND f.horizonDays = :horizon " +
+            "AND (:warehouse IS NULL OR f.warehouseLocation = :warehouse) " +
+            "AND (:riskLevel IS NULL OR f.riskLevel = :riskLevel) " +
+            "AND (:productId IS NULL OR f.productId = :productId) " +
+            "ORDER BY f.daysOfStockLeft ASC, f.forecastedDemand DESC, f.productId ASC")
+    Page<DemandForecastEntry> findPage(@Param("generationId") Long generationId,
+                                       @Param("horizon") int horizon,
+                                       @Param("warehouse") String warehouse,
+                                       @Param("riskLevel") String riskLevel,
+                                       @Param("productId") Long productId,
+                                       Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM DemandForecastEntry f WHERE f.generationId = :generationId AND f.productId IN :productIds")
+    int deleteByGenerationAndProducts(@Param("generationId") Long generationId,
+                                      @Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query("DELETE FROM DemandForecastEntry f WHERE f.generationId IN :generationIds")
+    int deleteByGenerations(@Param("generationIds") Collection<Long> generationIds);
+}
@@ -0,0 +1,34 @@
+package com.internship.project.repository;
+
+import com.internship.project.entity.DemandState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Repository
+public interface DemandStateRepository extends JpaRepository<DemandState, Long> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO demand_states (product_id, warehouse_location, level, trend, variance, " +
+            "observed_days, current_day, pending_units) " +
+            "VALUES (:productId, :warehouse, :level, :trend, :variance, :observedDays, :currentDay, :pendingUnits) " +
+            "ON CONFLICT (product_id, warehouse_location) DO UPDATE SET " +
+            "level = EXCLUDED.level, trend = EXCLUDED.trend, variance = EXCLUDED.variance, " +
+            "observed_days = EXCLUDED.observed_days, current_day = EXCLUDED.current_day, " +
+            "pending_units = EXCLUDED.pending_units",
+            nativeQuery = true)
+    void upsert(@Param("productId") Long productId,
+                @Param("warehouse") String warehouse,
+                @Param("level") double level,
+                @Param("trend") double trend,
+                @Param("variance") double variance,
+                @Param("observedDays") long observedDays,
+                @Param("currentDay") LocalDate currentDay,
+                @Param("pendingUnits") double pendingUnits);
+}
@@ -0,0 +1,37 @@
+package com.internship.project.repository;
+
+import com.internship.project.entity.ForecastGeneration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ForecastGenerationRepository extends JpaRepository<ForecastGeneration, Long> {
+
+    Optional<ForecastGeneration> findFirstByStatusOrderByIdDesc(String status);
+
+    // Retire every other active generation (part of the switch-over transaction)
+    @Modifying
+    @Query("UPDATE ForecastGeneration g SET g.status = 'RETIRED' WHERE g.status = 'ACTIVE' AND g.id <> :id")
+    int retireAllExcept(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE ForecastGeneration g SET g.status = 'ACTIVE', g.activatedAt = :activatedAt, g.rowCount = :rowCount " +
+            "WHERE g.id = :id")
+    int activate(@Param("id") Long id, @Param("activatedAt") LocalDateTime activatedAt, @Param("rowCount") long rowCount);
+
+    // Builds that never finished (their node died) stop blocking new ones
+    @Modifying
+    @Query("UPDATE ForecastGeneration g SET g.status = 'FAILED' WHERE g.status = 'BUILDING' AND g.createdAt < :before")
+    int failBuildsStartedBefore(@Param("before") LocalDateTime before);
+
+    // Generations whose rows can be dropped: everything older than the given one that is not active
+    @Query("SELECT g.id FROM ForecastGeneration g WHERE g.id < :keepFrom AND g.status <> 'ACTIVE'")
+    List<Long> findPurgeable(@Param("keepFrom") Long keepFrom);
+}
@@ -2,6 +2,15 @@ package com.internship.project.repository;
 
 import com.internship.project.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product,Long> {
+
+    // [id, quantity, reorderThreshold, price] for every product, for reconciling the running inventory metrics
+    @Query("SELECT p.id, p.quantity, p.reorderThreshold, p.price FROM Product p")
+    List<Object[]> findStockLevels();
+
+    List<Product> findTop5ByOrderByIdDesc();
 }
@@ -2,9 +2,15 @@ package com.internship.project.repository;
 
 import com.internship.project.entity.PurchaseOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,4 +21,29 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
 
     @Query("SELECT po FROM PurchaseOrder po WHERE po.product.id = :productId AND po.status IN ('PENDING', 'APPROVED')")
     List<PurchaseOrder> findActiveOrdersByProductId(Long productId);
+
+    // Moves the order only while it is still in status from; 0 means another writer got there first
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE PurchaseOrder po SET po.status = :to, po.version = po.version + 1 " +
+            "WHERE po.id = :id AND po.status = :from")
+    int transition(@Param("id") Long id, @Param("from") String from, @Param("to") String to);
+
+    // Orders in one status matching a bulk filter, oldest first; null filters match everything
+    @Query("SELECT po.id FROM PurchaseOrder po WHERE po.status = :status " +
+            "AND (:buyerId IS NULL OR po.buyer.id = :buyerId) " +
+            "AND (:productId IS NULL OR po.product.id = :productId) " +
+            "AND (:autoTriggered IS NULL OR po.autoTriggered = :autoTriggered) " +
+            "AND (:orderedBefore IS NULL OR po.orderDate < :orderedBefore) " +
+            "ORDER BY po.id")
+    List<Long> findIdsForBulk(@Param("status") String status,
+                              @Param("buyerId") Long buyerId,
+                              @Param("productId") Long productId,
+                              @Param("autoTriggered") Boolean autoTriggered,
+                              @Param("orderedBefore") LocalDateTime orderedBefore,
+                              Pageable pageable);
+
+    // [id, status] pairs, without loading the orders
+    @Query("SELECT po.id, po.status FROM PurchaseOrder po WHERE po.id IN :ids")
+    List<Object[]> findStatusesByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
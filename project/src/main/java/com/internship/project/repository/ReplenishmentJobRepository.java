@@ -0,0 +1,30 @@
+package com.internship.project.repository;
+
+import com.internship.project.entity.ReplenishmentJob;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ReplenishmentJobRepository extends JpaRepository<ReplenishmentJob, Long> {
+
+    Page<ReplenishmentJob> findAllByOrderByIdDesc(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ReplenishmentJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.owner = :owner")
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // Unfinished jobs whose owner stopped sending heartbeats (rows without one predate owners)
+    @Modifying
+    @Query("UPDATE ReplenishmentJob j SET j.status = 'FAILED', j.error = :error, j.finishedAt = :finishedAt " +
+            "WHERE j.status IN ('QUEUED', 'RUNNING') AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    int failStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("error") String error,
+                  @Param("finishedAt") LocalDateTime finishedAt);
+}
@@ -0,0 +1,13 @@
+package com.internship.project.repository;
+
+import com.internship.project.entity.ReplenishmentJobResult;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReplenishmentJobResultRepository extends JpaRepository<ReplenishmentJobResult, Long> {
+
+    Page<ReplenishmentJobResult> findByJobIdOrderByIdAsc(Long jobId, Pageable pageable);
+}
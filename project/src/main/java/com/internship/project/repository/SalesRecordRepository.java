@@ -2,14 +2,20 @@
 package com.internship.project.repository;
 
 import com.internship.project.entity.SalesRecord;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface SalesRecordRepository extends JpaRepository<SalesRecord, Long> {
@@ -76,4 +82,35 @@ public interface SalesRecordRepository extends JpaRepository<SalesRecord, Long>
     // Add to SalesRecordRepository.java
     List<SalesRecord> findByProductIdAndSaleDateAfter(Long productId, LocalDateTime date);
     List<SalesRecord> findBySaleDateAfterAndTransactionType(LocalDateTime date, String transactionType);
+
+    // 7/30/90-day SALE units, active days and last sale per product: one row per product with sales since since90
+    @Query("SELECT s.product.id, " +
+            "SUM(CASE WHEN s.saleDate >= :since7 THEN s.quantitySold ELSE 0 END), " +
+            "SUM(CASE WHEN s.saleDate >= :since30 THEN s.quantitySold ELSE 0 END), " +
+            "SUM(s.quantitySold), COUNT(DISTINCT CAST(s.saleDate AS LocalDate)), MAX(s.saleDate) " +
+            "FROM SalesRecord s " +
+            "WHERE s.product.id IN :productIds AND s.transactionType = 'SALE' AND s.saleDate >= :since90 " +
+            "GROUP BY s.product.id")
+    List<Object[]> findSalesVelocity(@Param("productIds") Collection<Long> productIds,
+                                     @Param("since7") LocalDateTime since7,
+                                     @Param("since30") LocalDateTime since30,
+                                     @Param("since90") LocalDateTime since90);
+
+    // Per-product daily SALE units since startDate, ordered by product and day (one row per product-day)
+    @Query("SELECT s.product.id, CAST(s.saleDate AS LocalDate), SUM(s.quantitySold) " +
+            "FROM SalesRecord s " +
+            "WHERE s.saleDate >= :startDate AND s.transactionType = 'SALE' " +
+            "GROUP BY s.product.id, CAST(s.saleDate AS LocalDate) " +
+            "ORDER BY s.product.id, CAST(s.saleDate AS LocalDate)")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamDailySalesByProduct(@Param("startDate") LocalDateTime startDate);
+
+    // Per-product, per-warehouse daily SALE units since startDate, in replay order
+    @Query("SELECT s.product.id, s.warehouseLocation, CAST(s.saleDate AS LocalDate), SUM(s.quantitySold) " +
+            "FROM SalesRecord s " +
+            "WHERE s.saleDate >= :startDate AND s.transactionType = 'SALE' " +
+            "GROUP BY s.product.id, s.warehouseLocation, CAST(s.saleDate AS LocalDate) " +
+            "ORDER BY s.product.id, s.warehouseLocation, CAST(s.saleDate AS LocalDate)")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamDailySalesByProductAndWarehouse(@Param("startDate") LocalDateTime startDate);
 }
@@ -0,0 +1,107 @@
+package com.internship.project.repository;
+
+import com.internship.project.dto.TrendPoint;
+import com.internship.project.entity.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    // Add one sale to a bucket, creating it if needed
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO sales_rollups (granularity, bucket_start, warehouse_location, revenue, units_sold, sale_count) " +
+            "VALUES (:granularity, :bucketStart, :warehouse, :revenue, :unitsSold, :saleCount) " +
+            "ON CONFLICT (granularity, bucket_start, warehouse_location) DO UPDATE SET " +
+            "revenue = sales_rollups.revenue + EXCLUDED.revenue, " +
+            "units_sold = sales_rollups.units_sold + EXCLUDED.units_sold, " +
+            "sale_count = sales_rollups.sale_count + EXCLUDED.sale_count",
+            nativeQuery = true)
+    void increment(@Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart,
+                   @Param("warehouse") String warehouse,
+                   @Param("revenue") double revenue,
+                   @Param("unitsSold") long unitsSold,
+                   @Param("saleCount") long saleCount);
+
+    // Rebuild coarse buckets from a finer tier (unit is a PostgreSQL date_trunc unit: day, week, month)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO sales_rollups (granularity, bucket_start, warehouse_location, revenue, units_sold, sale_count) " +
+            "SELECT :target, date_trunc(:unit, r.bucket_start), r.warehouse_location, " +
+            "SUM(r.revenue), SUM(r.units_sold), SUM(r.sale_count) " +
+            "FROM sales_rollups r " +
+            "WHERE r.granularity = :source AND r.bucket_start >= :fromDate AND r.bucket_start < :toDate " +
+            "GROUP BY 2, 3 " +
+            "ON CONFLICT (granularity, bucket_start, warehouse_location) DO UPDATE SET " +
+            "revenue = EXCLUDED.revenue, units_sold = EXCLUDED.units_sold, sale_count = EXCLUDED.sale_count",
+            nativeQuery = true)
+    int rollUp(@Param("source") String source,
+               @Param("target") String target,
+               @Param("unit") String unit,
+               @Param("fromDate") LocalDateTime fromDate,
+               @Param("toDate") LocalDateTime toDate);
+
+    // Build the HOUR tier straight from sales_records (initial backfill / full rebuild)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO sales_rollups (granularity, bucket_start, warehouse_location, revenue, units_sold, sale_count) " +
+            "SELECT 'HOUR', date_trunc('hour', s.sale_date), COALESCE(s.warehouse_location, 'Unassigned'), " +
+            "SUM(s.total_amount), SUM(s.quantity_sold), COUNT(*) " +
+            "FROM sales_records s " +
+            "WHERE s.transaction_type = 'SALE' " +
+            "GROUP BY 2, 3 " +
+            "ON CONFLICT (granularity, bucket_start, warehouse_location) DO UPDATE SET " +
+            "revenue = EXCLUDED.revenue, units_sold = EXCLUDED.units_sold, sale_count = EXCLUDED.sale_count",
+            nativeQuery = true)
+    int backfillHourlyFromSales();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") String granularity, @Param("before") LocalDateTime before);
+
+    // Series for all warehouses combined
+    @Query("SELECT new com.internship.project.dto.TrendPoint(r.bucketStart, SUM(r.revenue), " +
+            "SUM(r.unitsSold), SUM(r.saleCount)) " +
+            "FROM SalesRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :startDate AND r.bucketStart < :endDate " +
+            "GROUP BY r.bucketStart " +
+            "ORDER BY r.bucketStart")
+    List<TrendPoint> findSeries(@Param("granularity") String granularity,
+                                         @Param("startDate") LocalDateTime startDate,
+                                         @Param("endDate") LocalDateTime endDate);
+
+    // Series for one warehouse
+    @Query("SELECT new com.internship.project.dto.TrendPoint(r.bucketStart, SUM(r.revenue), " +
+            "SUM(r.unitsSold), SUM(r.saleCount)) " +
+            "FROM SalesRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :startDate AND r.bucketStart < :endDate " +
+            "AND r.warehouseLocation = :warehouse " +
+            "GROUP BY r.bucketStart " +
+            "ORDER BY r.bucketStart")
+    List<TrendPoint> findSeriesByWarehouse(@Param("granularity") String granularity,
+                                                    @Param("startDate") LocalDateTime startDate,
+                                                    @Param("endDate") LocalDateTime endDate,
+                                                    @Param("warehouse") String warehouse);
+
+    // Range totals for one tier ("ALL" combines every warehouse)
+    @Query("SELECT new map(COALESCE(SUM(r.revenue), 0.0) as totalRevenue, " +
+            "COALESCE(SUM(r.unitsSold), 0) as totalUnitsSold, COALESCE(SUM(r.saleCount), 0) as totalSales) " +
+            "FROM SalesRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :startDate AND r.bucketStart < :endDate " +
+            "AND (:warehouse = 'ALL' OR r.warehouseLocation = :warehouse)")
+    List<Map<String, Object>> findTotals(@Param("granularity") String granularity,
+                                         @Param("startDate") LocalDateTime startDate,
+                                         @Param("endDate") LocalDateTime endDate,
+                                         @Param("warehouse") String warehouse);
+}
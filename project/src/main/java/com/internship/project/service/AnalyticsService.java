@@ -1,6 +1,15 @@
 // AnalyticsService.java - Fixed version
 package com.internship.project.service;
 
+import com.internship.project.dto.AdminDashboard;
+import com.internship.project.dto.BuyerDashboard;
+import com.internship.project.dto.CompactSeries;
+import com.internship.project.dto.RecentProduct;
+import com.internship.project.dto.StoreManagerDashboard;
+import com.internship.project.dto.TopProduct;
+import com.internship.project.dto.TrendSeries;
+import com.internship.project.dto.UserDashboard;
+import com.internship.project.dto.WarehouseSummary;
 import com.internship.project.entity.Product;
 import com.internship.project.entity.PurchaseOrder;
 import com.internship.project.entity.SalesRecord;
@@ -14,11 +23,23 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService {
 
+    private static final int DEFAULT_TREND_POINTS = 120;
+    public static final String TREND_POINTS_ENCODING = "POINTS";
+
+    // Dashboard sections are mostly blocking DB calls, a good fit for virtual threads
+    private final ExecutorService sectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     @Autowired
     private ProductRepository productRepository;
 
@@ -27,143 +48,172 @@ public class AnalyticsService {
     @Autowired
     private PurchaseOrderRepository purchaseOrderRepository;
 
-    public Map<String, Object> getUserDashboardData(Long userId) {
-        Map<String, Object> dashboard = new HashMap<>();
+    @Autowired
+    private SalesRollupService salesRollupService;
 
-        List<Product> products = productRepository.findAll();
+    @Autowired
+    private InventoryMetricsService inventoryMetricsService;
 
-        // Real data calculations
-        long totalProducts = products.size();
-        long lowStockProducts = products.stream()
-                .filter(p -> p.getQuantity() <= p.getReorderThreshold() && p.getQuantity() > 0)
-                .count();
-        long outOfStockProducts = products.stream()
-                .filter(p -> p.getQuantity() == 0)
-                .count();
+    public UserDashboard getUserDashboardData(Long userId) {
+        return getUserDashboardData(userId, null);
+    }
 
-        dashboard.put("totalProducts", totalProducts);
-        dashboard.put("lowStockProducts", lowStockProducts);
-        dashboard.put("outOfStockProducts", outOfStockProducts);
+    public UserDashboard getUserDashboardData(Long userId, Set<String> sections) {
+        Map<String, Supplier<?>> available = new LinkedHashMap<>();
 
-        // Recent products added
-        List<Map<String, Object>> recentProducts = products.stream()
-                .sorted((p1, p2) -> p2.getId().compareTo(p1.getId())) // Sort by ID descending (newest first)
-                .limit(5)
-                .map(p -> {
-                    Map<String, Object> productMap = new HashMap<>();
-                    productMap.put("id", p.getId());
-                    productMap.put("name", p.getName());
-                    productMap.put("quantity", p.getQuantity());
-                    productMap.put("price", p.getPrice());
-                    productMap.put("imageFileName", p.getImageFileName());
-                    return productMap;
-                })
-                .collect(Collectors.toList());
+        // Running stock-health counters (no product scan)
+        available.put("summary", () -> new UserDashboard.Summary(
+                inventoryMetricsService.getTotalProducts(),
+                inventoryMetricsService.getLowStockProducts(),
+                inventoryMetricsService.getOutOfStockProducts()));
 
-        dashboard.put("recentProducts", recentProducts);
+        // Recent products added (newest first)
+        available.put("recentProducts", () -> productRepository.findTop5ByOrderByIdDesc().stream()
+                .map(p -> new RecentProduct(p.getId(), p.getName(), p.getQuantity(), p.getPrice(), p.getImageFileName()))
+                .collect(Collectors.toList()));
 
-        return dashboard;
+        ComputedSections computed = computeSections(available, sections);
+        return new UserDashboard(computed.get("summary"), computed.get("recentProducts"),
+                computed.selected(), computed.timings());
     }
 
-    public Map<String, Object> getStoreManagerDashboardData(String warehouse) {
-        Map<String, Object> dashboard = new HashMap<>();
+    public StoreManagerDashboard getStoreManagerDashboardData(String warehouse) {
+        return getStoreManagerDashboardData(warehouse, null);
+    }
 
-        List<Product> products = productRepository.findAll();
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
+    public StoreManagerDashboard getStoreManagerDashboardData(String warehouse, Set<String> sections) {
+        Map<String, Supplier<?>> available = new LinkedHashMap<>();
 
-        dashboard.put("warehouse", warehouse);
-        dashboard.put("totalProducts", products.size());
+        // Real stock alerts and warehouse performance metrics
+        available.put("summary", () -> new StoreManagerDashboard.Summary(
+                inventoryMetricsService.getTotalProducts(),
+                inventoryMetricsService.getLowStockAlerts(),
+                inventoryMetricsService.getTotalInventoryValue()));
 
         // Real daily turnover from sales records
-        List<SalesRecord> todaySales = salesRecordRepository.findByWarehouseLocationAndSaleDateBetween(
-                warehouse, startOfDay, endOfDay);
-
-        double dailyTurnover = todaySales.stream()
-                .filter(sale -> "SALE".equals(sale.getTransactionType()))
-                .mapToDouble(SalesRecord::getTotalAmount)
-                .sum();
-        dashboard.put("dailyTurnover", dailyTurnover);
-
-        // Real stock alerts
-        long lowStockAlerts = products.stream()
-                .filter(p -> p.getQuantity() <= p.getReorderThreshold())
-                .count();
-        dashboard.put("lowStockAlerts", lowStockAlerts);
+        available.put("todaySales", () -> {
+            LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+            LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
+            List<SalesRecord> todaySales = salesRecordRepository.findByWarehouseLocationAndSaleDateBetween(
+                    warehouse, startOfDay, endOfDay);
+
+            return new StoreManagerDashboard.TodaySales(
+                    todaySales.stream()
+                            .filter(sale -> "SALE".equals(sale.getTransactionType()))
+                            .mapToDouble(SalesRecord::getTotalAmount)
+                            .sum(),
+                    todaySales.size(),
+                    todaySales.stream()
+                            .filter(sale -> "SALE".equals(sale.getTransactionType()))
+                            .mapToInt(SalesRecord::getQuantitySold)
+                            .sum());
+        });
 
         // Fast moving products (last 7 days)
-        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-        List<Map<String, Object>> fastMovingProducts = getFastMovingProducts(weekAgo, warehouse);
-        dashboard.put("fastMovingProducts", fastMovingProducts);
-
-        // Additional real metrics
-        dashboard.put("todaySalesCount", todaySales.size());
-        dashboard.put("totalItemsSoldToday", todaySales.stream()
-                .filter(sale -> "SALE".equals(sale.getTransactionType()))
-                .mapToInt(SalesRecord::getQuantitySold)
-                .sum());
+        available.put("fastMovingProducts", () -> getFastMovingProducts(LocalDateTime.now().minusDays(7), warehouse));
 
-        // Warehouse performance metrics
-        double totalInventoryValue = products.stream()
-                .mapToDouble(p -> p.getPrice() * p.getQuantity())
-                .sum();
-        dashboard.put("totalInventoryValue", totalInventoryValue);
-
-        return dashboard;
+        ComputedSections computed = computeSections(available, sections);
+        return new StoreManagerDashboard(warehouse, computed.get("summary"), computed.get("todaySales"),
+                computed.get("fastMovingProducts"), computed.selected(), computed.timings());
     }
 
-    public Map<String, Object> getAdminDashboardData() {
-        Map<String, Object> dashboard = new HashMap<>();
+    public AdminDashboard getAdminDashboardData() {
+        return getAdminDashboardData(null);
+    }
 
-        List<Product> products = productRepository.findAll();
+    public AdminDashboard getAdminDashboardData(Set<String> sections) {
+        Map<String, Supplier<?>> available = new LinkedHashMap<>();
         LocalDateTime monthAgo = LocalDateTime.now().minusDays(30);
 
-        // Overall analytics with real data
-        dashboard.put("totalProducts", products.size());
-
-        double totalInventoryValue = products.stream()
-                .mapToDouble(p -> p.getPrice() * p.getQuantity())
-                .sum();
-        dashboard.put("totalInventoryValue", totalInventoryValue);
-
-        // Real warehouse analysis
-        List<Map<String, Object>> warehouseAnalysis = getWarehouseAnalysis(monthAgo);
-        dashboard.put("warehouseAnalysis", warehouseAnalysis);
+        // Overall analytics and system overview
+        available.put("summary", () -> new AdminDashboard.Summary(
+                inventoryMetricsService.getTotalProducts(),
+                inventoryMetricsService.getTotalInventoryValue(),
+                inventoryMetricsService.getLowStockProducts(),
+                inventoryMetricsService.getOutOfStockProducts()));
+
+        // Real warehouse analysis plus the monthly totals derived from it
+        available.put("warehouseAnalysis", () -> {
+            List<WarehouseSummary> warehouseAnalysis = getWarehouseAnalysis(monthAgo);
+            return new AdminDashboard.WarehouseAnalysis(warehouseAnalysis,
+                    warehouseAnalysis.stream().mapToDouble(WarehouseSummary::totalRevenue).sum(),
+                    warehouseAnalysis.stream().mapToLong(WarehouseSummary::totalTransactions).sum());
+        });
 
         // Real category performance
-        Map<String, Double> categoryPerformance = getCategoryPerformance(monthAgo);
-        dashboard.put("categoryPerformance", categoryPerformance);
+        available.put("categoryPerformance", () -> getCategoryPerformance(monthAgo));
 
         // Real top products (last 30 days)
-        List<Map<String, Object>> topProducts = getFastMovingProducts(monthAgo, "ALL");
-        List<Map<String, Object>> top10Products = topProducts.stream()
+        available.put("topProducts", () -> getFastMovingProducts(monthAgo, "ALL").stream()
                 .limit(10)
-                .collect(Collectors.toList());
-        dashboard.put("topProducts", top10Products);
+                .collect(Collectors.toList()));
 
-        // Additional admin metrics
-        double totalRevenueLastMonth = warehouseAnalysis.stream()
-                .mapToDouble(w -> (Double) w.get("totalRevenue"))
-                .sum();
-        dashboard.put("totalRevenueLastMonth", totalRevenueLastMonth);
+        ComputedSections computed = computeSections(available, sections);
+        return new AdminDashboard(computed.get("summary"), computed.get("warehouseAnalysis"),
+                computed.get("categoryPerformance"), computed.get("topProducts"),
+                computed.selected(), computed.timings());
+    }
 
-        long totalTransactionsLastMonth = warehouseAnalysis.stream()
-                .mapToLong(w -> (Long) w.get("totalTransactions"))
-                .sum();
-        dashboard.put("totalTransactionsLastMonth", totalTransactionsLastMonth);
+    /**
+     * Parse a comma separated sections parameter; null means every section.
+     */
+    public static Set<String> parseSections(String sections) {
+        if (sections == null || sections.isBlank()) return null;
+        return Arrays.stream(sections.split(","))
+                .map(String::trim)
+                .filter(section -> !section.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
 
-        // System overview
-        dashboard.put("totalLowStockItems", products.stream()
-                .filter(p -> p.getQuantity() <= p.getReorderThreshold() && p.getQuantity() > 0)
-                .count());
-        dashboard.put("totalOutOfStockItems", products.stream()
-                .filter(p -> p.getQuantity() == 0)
-                .count());
+    /**
+     * Section results by name (absent when not requested), the sections that ran and their timings in ms.
+     */
+    private record ComputedSections(Map<String, Object> values, List<String> selected, Map<String, Long> timings) {
 
-        return dashboard;
+        @SuppressWarnings("unchecked")
+        <T> T get(String section) {
+            return (T) values.get(section);
+        }
     }
 
-    private List<Map<String, Object>> getFastMovingProducts(LocalDateTime startDate, String warehouse) {
+    /**
+     * Run only the requested dashboard sections, concurrently on virtual threads, with per-section timings.
+     */
+    private ComputedSections computeSections(Map<String, Supplier<?>> available, Set<String> requested) {
+        Set<String> selected = requested == null ? available.keySet() : requested;
+        for (String section : selected) {
+            if (!available.containsKey(section)) {
+                throw new IllegalArgumentException("Unknown section: " + section + ". Available: " + available.keySet());
+            }
+        }
+
+        Map<String, CompletableFuture<?>> running = new LinkedHashMap<>();
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        for (String section : selected) {
+            Supplier<?> supplier = available.get(section);
+            running.put(section, CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return supplier.get();
+                } finally {
+                    timings.put(section, (System.nanoTime() - start) / 1_000_000);
+                }
+            }, sectionExecutor));
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<String, CompletableFuture<?>> entry : running.entrySet()) {
+            try {
+                values.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                throw new IllegalStateException("Section " + entry.getKey() + " failed: " + cause.getMessage(), cause);
+            }
+        }
+        return new ComputedSections(values, new ArrayList<>(selected), new TreeMap<>(timings));
+    }
+
+    private List<TopProduct> getFastMovingProducts(LocalDateTime startDate, String warehouse) {
         List<SalesRecord> salesData;
         if ("ALL".equals(warehouse)) {
             salesData = salesRecordRepository.findBySaleDateBetween(startDate, LocalDateTime.now());
@@ -188,19 +238,12 @@ public class AnalyticsService {
                     int sales = entry.getValue();
                     double revenue = sales * product.getPrice();
 
-                    Map<String, Object> productMap = new HashMap<>();
-                    productMap.put("name", product.getName());
-                    productMap.put("sales", sales);
-                    productMap.put("revenue", revenue);
-                    productMap.put("currentStock", product.getQuantity());
-                    productMap.put("warehouse", "Multiple");
-
-                    return productMap;
+                    return new TopProduct(product.getName(), sales, revenue, product.getQuantity(), "Multiple");
                 })
                 .collect(Collectors.toList());
     }
 
-    private List<Map<String, Object>> getWarehouseAnalysis(LocalDateTime startDate) {
+    private List<WarehouseSummary> getWarehouseAnalysis(LocalDateTime startDate) {
         List<SalesRecord> salesData = salesRecordRepository.findBySaleDateBetween(startDate, LocalDateTime.now());
 
         // Group by warehouse
@@ -208,7 +251,7 @@ public class AnalyticsService {
                 .filter(sale -> "SALE".equals(sale.getTransactionType()))
                 .collect(Collectors.groupingBy(SalesRecord::getWarehouseLocation));
 
-        List<Map<String, Object>> warehouseAnalysis = new ArrayList<>();
+        List<WarehouseSummary> warehouseAnalysis = new ArrayList<>();
 
         for (Map.Entry<String, List<SalesRecord>> entry : salesByWarehouse.entrySet()) {
             String warehouse = entry.getKey();
@@ -221,38 +264,17 @@ public class AnalyticsService {
             long totalTransactions = warehouseSales.size();
 
             // Count products in this warehouse
-            long productCount = productRepository.findAll().size(); // Simplified
+            long productCount = inventoryMetricsService.getTotalProducts(); // Simplified
 
-            Map<String, Object> warehouseData = new HashMap<>();
-            warehouseData.put("warehouse", warehouse);
-            warehouseData.put("totalRevenue", totalRevenue);
-            warehouseData.put("totalTransactions", totalTransactions);
-            warehouseData.put("productCount", productCount);
-
-            warehouseAnalysis.add(warehouseData);
+            warehouseAnalysis.add(new WarehouseSummary(warehouse, totalRevenue, totalTransactions, productCount));
         }
 
         // If no warehouse data, return default warehouses
         if (warehouseAnalysis.isEmpty()) {
-            Map<String, Object> mainWarehouse = new HashMap<>();
-            mainWarehouse.put("warehouse", "Main Warehouse");
-            mainWarehouse.put("totalRevenue", 0.0);
-            mainWarehouse.put("totalTransactions", 0L);
-            mainWarehouse.put("productCount", 0L);
-
-            Map<String, Object> eastWarehouse = new HashMap<>();
-            eastWarehouse.put("warehouse", "East Warehouse");
-            eastWarehouse.put("totalRevenue", 0.0);
-            eastWarehouse.put("totalTransactions", 0L);
-            eastWarehouse.put("productCount", 0L);
-
-            Map<String, Object> westWarehouse = new HashMap<>();
-            westWarehouse.put("warehouse", "West Warehouse");
-            westWarehouse.put("totalRevenue", 0.0);
-            westWarehouse.put("totalTransactions", 0L);
-            westWarehouse.put("productCount", 0L);
-
-            return Arrays.asList(mainWarehouse, eastWarehouse, westWarehouse);
+            return Arrays.asList(
+                    new WarehouseSummary("Main Warehouse", 0.0, 0L, 0L),
+                    new WarehouseSummary("East Warehouse", 0.0, 0L, 0L),
+                    new WarehouseSummary("West Warehouse", 0.0, 0L, 0L));
         }
 
         return warehouseAnalysis;
@@ -300,49 +322,83 @@ public class AnalyticsService {
 
     // Helper method to get sales trends
     public Map<String, Object> getSalesTrends(String period, String warehouse) {
-        Map<String, Object> trends = new HashMap<>();
-        LocalDateTime startDate = getStartDateForPeriod(period);
+        return getSalesTrends(period, warehouse, null, DEFAULT_TREND_POINTS, null, CompactSeries.RAW);
+    }
 
-        List<SalesRecord> salesData = getSalesData(startDate, warehouse);
+    /**
+     * Sales trends read from the pre-aggregated rollup tiers.
+     * When no granularity is given the finest tier that fits in maxPoints is used.
+     * Sections: "series" (bucketed values), "totals" (range sums) and "dailyRevenue" (revenue per date,
+     * the map this endpoint has always returned and the frontend charts read). Both count whole hours from
+     * the period start and totalRevenue is the sum of dailyRevenue. totalSales now counts SALE transactions
+     * only; the old per-record scan also counted shipments and returns.
+     * The series is a compact float-array form (RAW or DELTA encoding), or a list of points with POINTS.
+     */
+    public Map<String, Object> getSalesTrends(String period, String warehouse, String granularity,
+                                              int maxPoints, Set<String> sections, String seriesEncoding) {
+        LocalDateTime startDate = getStartDateForPeriod(period);
+        String bucket = resolveGranularity(granularity, startDate, maxPoints);
+        boolean points = TREND_POINTS_ENCODING.equalsIgnoreCase(seriesEncoding);
+        if (!points) {
+            CompactSeries.validateEncoding(seriesEncoding);
+        }
 
-        // Daily revenue trend
-        Map<LocalDate, Double> dailyRevenue = salesData.stream()
-                .filter(sale -> "SALE".equals(sale.getTransactionType()))
-                .collect(Collectors.groupingBy(
-                        sale -> sale.getSaleDate().toLocalDate(),
-                        Collectors.summingDouble(SalesRecord::getTotalAmount)
-                ));
+        Map<String, Supplier<?>> available = new LinkedHashMap<>();
+        available.put("series", () -> Map.of("series", points
+                ? salesRollupService.getSeries(bucket, startDate, warehouse, maxPoints)
+                : salesRollupService.getCompactSeries(bucket, startDate, warehouse, maxPoints, seriesEncoding)));
+        available.put("totals", () -> salesRollupService.getTotals(startDate, warehouse));
+        available.put("dailyRevenue", () -> Map.of("dailyRevenue", salesRollupService.getDailyRevenue(startDate, warehouse)));
 
-        trends.put("dailyRevenue", dailyRevenue);
-        trends.put("totalSales", salesData.size());
-        trends.put("totalRevenue", dailyRevenue.values().stream().mapToDouble(Double::doubleValue).sum());
+        ComputedSections computed = computeSections(available, sections);
+        Map<String, Object> trends = new HashMap<>();
+        for (String section : computed.selected()) {
+            trends.putAll(computed.<Map<String, Object>>get(section));
+        }
+        trends.put("sections", computed.selected());
+        trends.put("sectionTimings", computed.timings());
+        trends.put("period", period.toUpperCase());
+        trends.put("granularity", bucket);
 
         return trends;
     }
 
+    /**
+     * Just the compact trend series, for the binary response form.
+     */
+    public TrendSeries getTrendSeries(String period, String warehouse, String granularity,
+                                      int maxPoints, String seriesEncoding) {
+        LocalDateTime startDate = getStartDateForPeriod(period);
+        return salesRollupService.getCompactSeries(resolveGranularity(granularity, startDate, maxPoints),
+                startDate, warehouse, maxPoints, seriesEncoding);
+    }
+
+    private String resolveGranularity(String granularity, LocalDateTime startDate, int maxPoints) {
+        String bucket = granularity != null ? granularity.toUpperCase() : salesRollupService.chooseGranularity(startDate, maxPoints);
+        if (!salesRollupService.isSupportedGranularity(bucket)) {
+            throw new IllegalArgumentException("Unsupported granularity: " + granularity);
+        }
+        if (SalesRollupService.HOUR.equals(bucket) && !salesRollupService.isWithinHourlyRetention(startDate)) {
+            throw new IllegalArgumentException("HOUR granularity only covers the last "
+                    + salesRollupService.getHourlyRetentionDays() + " days; use DAY or a shorter period");
+        }
+        return bucket;
+    }
+
     private LocalDateTime getStartDateForPeriod(String period) {
         switch (period.toUpperCase()) {
+            case "DAY": return LocalDateTime.now().minusDays(1);
             case "WEEK": return LocalDateTime.now().minusDays(7);
             case "MONTH": return LocalDateTime.now().minusDays(30);
             case "QUARTER": return LocalDateTime.now().minusDays(90);
+            case "YEAR": return LocalDateTime.now().minusDays(365);
             default: return LocalDateTime.now().minusDays(30);
         }
     }
 
-    private List<SalesRecord> getSalesData(LocalDateTime startDate, String warehouse) {
-        if ("ALL".equals(warehouse)) {
-            return salesRecordRepository.findBySaleDateBetween(startDate, LocalDateTime.now());
-        } else {
-            return salesRecordRepository.findByWarehouseLocationAndSaleDateBetween(
-                    warehouse, startDate, LocalDateTime.now());
-        }
-    }
-    public Map<String, Object> getBuyerDashboardData(Long buyerId) {
-        Map<String, Object> dashboard = new HashMap<>();
-
+    public BuyerDashboard getBuyerDashboardData(Long buyerId) {
         List<PurchaseOrder> buyerOrders = purchaseOrderRepository.findByBuyerId(buyerId);
 
-        long totalOrders = buyerOrders.size();
         long pendingOrders = buyerOrders.stream().filter(o -> "PENDING".equals(o.getStatus())).count();
         long completedOrders = buyerOrders.stream().filter(o -> "COMPLETED".equals(o.getStatus())).count();
 
@@ -351,15 +407,10 @@ public class AnalyticsService {
                 .mapToDouble(PurchaseOrder::getTotalAmount)
                 .sum();
 
-        dashboard.put("totalOrders", totalOrders);
-        dashboard.put("pendingOrders", pendingOrders);
-        dashboard.put("completedOrders", completedOrders);
-        dashboard.put("totalSpent", totalSpent);
-        dashboard.put("recentOrders", buyerOrders.stream()
-                .sorted((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()))
-                .limit(5)
-                .collect(Collectors.toList()));
-
-        return dashboard;
+        return new BuyerDashboard(buyerOrders.size(), pendingOrders, completedOrders, totalSpent,
+                buyerOrders.stream()
+                        .sorted((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()))
+                        .limit(5)
+                        .collect(Collectors.toList()));
     }
 }
\ No newline at end of file
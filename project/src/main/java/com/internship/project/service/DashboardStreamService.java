@@ -0,0 +1,158 @@
+package com.internship.project.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.project.entity.Product;
+import com.internship.project.entity.SalesRecord;
+import com.internship.project.event.StockMovementEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Pushes small dashboard deltas to subscribed clients over Server-Sent Events.
+ * Each stock movement is turned into one delta payload which is then broadcast
+ * to every subscriber of that warehouse and to the "ALL" (admin) channel.
+ */
+@Service
+public class DashboardStreamService {
+
+    public static final String ALL_WAREHOUSES = "ALL";
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    @Autowired
+    private InventoryMetricsService inventoryMetricsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // warehouse -> subscribed clients
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    // Broadcasting happens off the request thread so recording a sale never waits on slow clients
+    private final ExecutorService broadcaster = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "dashboard-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Register a client for the given warehouse channel ("ALL" receives every warehouse).
+     */
+    public SseEmitter subscribe(String warehouse) {
+        String channel = warehouse == null ? ALL_WAREHOUSES : warehouse;
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        List<SseEmitter> channelSubscribers = subscribers.computeIfAbsent(channel, k -> new CopyOnWriteArrayList<>());
+        channelSubscribers.add(emitter);
+
+        emitter.onCompletion(() -> channelSubscribers.remove(emitter));
+        emitter.onTimeout(() -> channelSubscribers.remove(emitter));
+        emitter.onError(e -> channelSubscribers.remove(emitter));
+
+        try {
+            emitter.send(SseEmitter.event().name("connected").data(Map.of("warehouse", channel)));
+        } catch (IOException e) {
+            channelSubscribers.remove(emitter);
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onStockMovement(StockMovementEvent event) {
+        if (subscribers.values().stream().allMatch(List::isEmpty)) {
+            return; // Nobody listening - skip computing the delta
+        }
+
+        // Serialize once; every subscriber receives the same JSON string
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(buildDelta(event));
+        } catch (JsonProcessingException | RuntimeException e) {
+            System.err.println("Could not build dashboard delta: " + e.getMessage());
+            return;
+        }
+        String warehouse = event.warehouse();
+
+        broadcaster.execute(() -> {
+            broadcast(warehouse, payload);
+            if (!ALL_WAREHOUSES.equals(warehouse)) {
+                broadcast(ALL_WAREHOUSES, payload);
+            }
+        });
+    }
+
+    /**
+     * Keep idle connections alive and drop clients that have gone away.
+     */
+    @Scheduled(fixedRate = 25000)
+    public void heartbeat() {
+        subscribers.keySet().forEach(channel ->
+                broadcaster.execute(() -> send(channel, () -> SseEmitter.event().comment("heartbeat"))));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    private Map<String, Object> buildDelta(StockMovementEvent event) {
+        SalesRecord record = event.record();
+        Product product = event.product();
+        boolean isSale = "SALE".equals(record.getTransactionType());
+
+        Map<String, Object> delta = new HashMap<>();
+        delta.put("transactionId", record.getId());
+        delta.put("transactionType", record.getTransactionType());
+        delta.put("warehouse", record.getWarehouseLocation());
+        delta.put("productId", product.getId());
+        delta.put("productName", product.getName());
+        delta.put("quantity", record.getQuantitySold());
+        delta.put("amount", record.getTotalAmount());
+        delta.put("currentStock", event.quantityAfter());
+
+        // Increments the dashboards apply to their current totals
+        delta.put("turnoverDelta", isSale ? record.getTotalAmount() : 0.0);
+        delta.put("itemsSoldDelta", isSale ? record.getQuantitySold() : 0);
+        delta.put("salesCountDelta", 1);
+        delta.put("inventoryValueDelta", event.stockDelta() * product.getPrice());
+
+        // Absolute stock-health counts, already updated by InventoryMetricsService
+        delta.put("lowStockAlerts", inventoryMetricsService.getLowStockAlerts());
+        delta.put("lowStockProducts", inventoryMetricsService.getLowStockProducts());
+        delta.put("outOfStockProducts", inventoryMetricsService.getOutOfStockProducts());
+        delta.put("timestamp", LocalDateTime.now());
+        return delta;
+    }
+
+    private void broadcast(String channel, String payload) {
+        send(channel, () -> SseEmitter.event().name("stock-movement").data(payload, MediaType.APPLICATION_JSON));
+    }
+
+    // Event builders are single-use, so a fresh one is built per emitter
+    private void send(String channel, Supplier<SseEmitter.SseEventBuilder> event) {
+        List<SseEmitter> channelSubscribers = subscribers.get(channel);
+        if (channelSubscribers == null) return;
+
+        for (SseEmitter emitter : channelSubscribers) {
+            try {
+                emitter.send(event.get());
+            } catch (Exception e) {
+                channelSubscribers.remove(emitter);
+            }
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.internship.project.service;
 
+import com.internship.project.dto.CompactSeries;
+import com.internship.project.dto.DemandForecast;
+import com.internship.project.dto.FastMovingProduct;
+import com.internship.project.dto.ForecastChart;
+import com.internship.project.dto.ProductForecast;
 import com.internship.project.entity.Product;
 import com.internship.project.entity.SalesRecord;
 import com.internship.project.repository.ProductRepository;
 import com.internship.project.repository.SalesRecordRepository;
+import com.internship.project.service.forecast.ForecastModelSelector;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,120 +26,165 @@ public class DemandForecastingService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private DemandStateService demandStateService;
+
+    @Autowired
+    private ForecastModelService forecastModelService;
+
     /**
      * Get demand forecast for all products
      */
-    public Map<String, Object> getDemandForecast(int daysToForecast) {
-        Map<String, Object> forecastData = new HashMap<>();
+    public DemandForecast getDemandForecast(int daysToForecast) {
+        return getDemandForecast(daysToForecast, CompactSeries.RAW);
+    }
 
-        List<Product> products = productRepository.findAll();
-        List<Map<String, Object>> productForecasts = new ArrayList<>();
+    /**
+     * Get demand forecast for all products, with chart series in the given encoding (RAW or DELTA)
+     */
+    public DemandForecast getDemandForecast(int daysToForecast, String seriesEncoding) {
+        return getDemandForecast(daysToForecast, seriesEncoding, null);
+    }
 
-        for (Product product : products) {
-            Map<String, Object> productForecast = forecastProductDemand(product, daysToForecast);
-            productForecasts.add(productForecast);
+    /**
+     * Get demand forecast from one warehouse's sales (products sold there), or the whole catalog
+     * when warehouse is null or ALL
+     */
+    public DemandForecast getDemandForecast(int daysToForecast, String seriesEncoding, String warehouse) {
+        if (daysToForecast < 1) {
+            throw new IllegalArgumentException("Forecast period must be at least 1 day");
+        }
+        CompactSeries.validateEncoding(seriesEncoding);
+
+        String partition = isAllWarehouses(warehouse) ? null : warehouse;
+        List<Product> products;
+        if (partition == null) {
+            products = productRepository.findAll();
+        } else {
+            Set<Long> productIds = new HashSet<>(demandStateService.getWarehouseEstimates(partition).keySet());
+            productIds.addAll(forecastModelService.getFittedProducts(partition));
+            products = productRepository.findAllById(productIds);
         }
+        List<ProductForecast> productForecasts = forecastProducts(products, daysToForecast, seriesEncoding, partition);
 
         // Sort by risk level (HIGH -> MEDIUM -> LOW)
-        productForecasts.sort((a, b) -> {
-            String riskA = (String) a.get("riskLevel");
-            String riskB = (String) b.get("riskLevel");
-            return getRiskPriority(riskB) - getRiskPriority(riskA);
-        });
-
-        forecastData.put("productForecasts", productForecasts);
-        forecastData.put("forecastPeriod", daysToForecast + " days");
-        forecastData.put("generatedAt", LocalDateTime.now());
-        forecastData.put("totalProducts", products.size());
-        forecastData.put("highRiskCount", productForecasts.stream()
-                .filter(p -> "HIGH".equals(p.get("riskLevel")))
-                .count());
-        forecastData.put("mediumRiskCount", productForecasts.stream()
-                .filter(p -> "MEDIUM".equals(p.get("riskLevel")))
-                .count());
-
-        return forecastData;
+        productForecasts.sort((a, b) -> getRiskPriority(b.riskLevel()) - getRiskPriority(a.riskLevel()));
+
+        return new DemandForecast(
+                productForecasts,
+                daysToForecast + " days",
+                partition == null ? ForecastSnapshotService.ALL_WAREHOUSES : partition,
+                LocalDateTime.now(),
+                products.size(),
+                productForecasts.stream().filter(p -> "HIGH".equals(p.riskLevel())).count(),
+                productForecasts.stream().filter(p -> "MEDIUM".equals(p.riskLevel())).count());
     }
 
     /**
-     * Forecast demand for a single product
+     * Forecast the given products over the horizon, in parallel (unsorted).
      */
-    private Map<String, Object> forecastProductDemand(Product product, int daysToForecast) {
-        Map<String, Object> forecast = new HashMap<>();
-
-        // Get sales data for the last 90 days
-        LocalDateTime startDate = LocalDateTime.now().minusDays(90);
-        List<SalesRecord> salesHistory = salesRecordRepository.findByProductIdAndSaleDateAfter(
-                product.getId(), startDate);
+    public List<ProductForecast> forecastProducts(List<Product> products, int daysToForecast) {
+        return forecastProducts(products, daysToForecast, CompactSeries.RAW, null);
+    }
 
-        // Calculate metrics
-        double avgDailySales = calculateAverageDailySales(salesHistory);
-        double salesTrend = calculateSalesTrend(salesHistory);
-        int daysOfStockLeft = calculateDaysOfStockLeft(product, avgDailySales);
-        int forecastedDemand = calculateForecastedDemand(avgDailySales, salesTrend, daysToForecast);
-        String riskLevel = assessStockoutRisk(product, daysOfStockLeft, forecastedDemand);
-        String recommendedAction = getRecommendedAction(riskLevel, forecastedDemand, product);
+    /**
+     * Forecast the given products from their sales at one warehouse, in parallel (unsorted).
+     */
+    public List<ProductForecast> forecastProducts(List<Product> products, int daysToForecast, String warehouse) {
+        return forecastProducts(products, daysToForecast, CompactSeries.RAW, warehouse);
+    }
 
-        forecast.put("productId", product.getId());
-        forecast.put("productName", product.getName());
-        forecast.put("currentStock", product.getQuantity());
-        forecast.put("reorderThreshold", product.getReorderThreshold());
-        forecast.put("avgDailySales", Math.round(avgDailySales * 100.0) / 100.0);
-        forecast.put("salesTrend", Math.round(salesTrend * 100.0) / 100.0);
-        forecast.put("daysOfStockLeft", daysOfStockLeft);
-        forecast.put("forecastedDemand", forecastedDemand);
-        forecast.put("riskLevel", riskLevel);
-        forecast.put("recommendedAction", recommendedAction);
-        forecast.put("forecastChart", generateForecastChartData(avgDailySales, salesTrend, daysToForecast));
+    private List<ProductForecast> forecastProducts(List<Product> products, int daysToForecast,
+                                                   String seriesEncoding, String warehouse) {
+        // Read fitted models and online demand state instead of scanning sales history
+        Map<Long, DemandStateService.DemandEstimate> estimates = warehouse == null
+                ? demandStateService.getProductEstimates()
+                : demandStateService.getWarehouseEstimates(warehouse);
+
+        return products.parallelStream()
+                .map(product -> forecastProductDemand(product,
+                        estimates.getOrDefault(product.getId(), DemandStateService.DemandEstimate.NONE),
+                        warehouse == null
+                                ? forecastModelService.getFit(product.getId())
+                                : forecastModelService.getFit(product.getId(), warehouse),
+                        daysToForecast, seriesEncoding))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
 
-        return forecast;
+    private boolean isAllWarehouses(String warehouse) {
+        return warehouse == null || warehouse.isBlank() || ForecastSnapshotService.ALL_WAREHOUSES.equalsIgnoreCase(warehouse);
     }
 
     /**
-     * Calculate average daily sales
+     * Forecast one product from its current demand state and fitted model.
      */
-    private double calculateAverageDailySales(List<SalesRecord> salesHistory) {
-        if (salesHistory.isEmpty()) return 0.0;
-
-        // Filter only sales (not returns or shipments)
-        List<SalesRecord> salesOnly = salesHistory.stream()
-                .filter(s -> "SALE".equals(s.getTransactionType()))
-                .collect(Collectors.toList());
+    public ProductForecast forecastProduct(Product product, int daysToForecast) {
+        return forecastProductDemand(product, demandStateService.getEstimate(product.getId()),
+                forecastModelService.getFit(product.getId()), daysToForecast, CompactSeries.RAW);
+    }
 
-        if (salesOnly.isEmpty()) return 0.0;
+    /**
+     * Forecast demand for a single product
+     */
+    private ProductForecast forecastProductDemand(Product product, DemandStateService.DemandEstimate estimate,
+                                                  ForecastModelSelector.Fit fit, int daysToForecast,
+                                                  String seriesEncoding) {
+        // Daily projection from the fitted model, or from the online Holt state if the product has no fit yet
+        double[] projection = fit != null
+                ? extendProjection(fit.projection(), daysToForecast)
+                : projectFromState(estimate, daysToForecast);
+        String model = fit != null ? fit.model() : "HOLT_ONLINE";
+
+        double totalDemand = 0;
+        for (double dailySales : projection) totalDemand += dailySales;
+
+        double avgDailySales = totalDemand / daysToForecast;
+        double salesTrend = calculateSalesTrend(projection);
+        int daysOfStockLeft = calculateDaysOfStockLeft(product, avgDailySales);
+        int forecastedDemand = (int) Math.ceil(totalDemand);
+        String riskLevel = assessStockoutRisk(product, daysOfStockLeft, forecastedDemand);
+        String recommendedAction = getRecommendedAction(riskLevel, forecastedDemand, product);
 
-        int totalSold = salesOnly.stream()
-                .mapToInt(SalesRecord::getQuantitySold)
-                .sum();
+        return new ProductForecast(
+                product.getId(),
+                product.getName(),
+                product.getQuantity(),
+                product.getReorderThreshold(),
+                Math.round(avgDailySales * 100.0) / 100.0,
+                Math.round(salesTrend * 100.0) / 100.0,
+                daysOfStockLeft,
+                forecastedDemand,
+                riskLevel,
+                recommendedAction,
+                Math.round(Math.sqrt(estimate.variance()) * 100.0) / 100.0,
+                model,
+                generateForecastChartData(projection, salesTrend, seriesEncoding));
+    }
 
-        // Calculate days between first and last sale
-        long daysBetween = ChronoUnit.DAYS.between(
-                salesOnly.get(salesOnly.size() - 1).getSaleDate().toLocalDate(),
-                salesOnly.get(0).getSaleDate().toLocalDate()
-        );
+    private double[] projectFromState(DemandStateService.DemandEstimate estimate, int daysToForecast) {
+        double[] projection = new double[daysToForecast];
+        for (int day = 1; day <= daysToForecast; day++) {
+            projection[day - 1] = Math.max(estimate.level() + estimate.trend() * day, 0.0);
+        }
+        return projection;
+    }
 
-        return daysBetween > 0 ? (double) totalSold / daysBetween : totalSold;
+    // Fits cover MAX_HORIZON days; longer requests repeat the last projected day
+    private double[] extendProjection(double[] fitted, int daysToForecast) {
+        double[] projection = Arrays.copyOf(fitted, daysToForecast);
+        for (int day = fitted.length; day < daysToForecast; day++) {
+            projection[day] = fitted.length > 0 ? fitted[fitted.length - 1] : 0.0;
+        }
+        return projection;
     }
 
     /**
-     * Calculate sales trend (positive = increasing, negative = decreasing)
+     * Projected change in daily sales from the first to the last forecast day, in percent
      */
-    private double calculateSalesTrend(List<SalesRecord> salesHistory) {
-        if (salesHistory.size() < 2) return 0.0;
-
-        // Split data into two periods and compare
-        int midPoint = salesHistory.size() / 2;
-        double firstPeriodAvg = salesHistory.subList(0, midPoint).stream()
-                .filter(s -> "SALE".equals(s.getTransactionType()))
-                .mapToInt(SalesRecord::getQuantitySold)
-                .average().orElse(0.0);
-
-        double secondPeriodAvg = salesHistory.subList(midPoint, salesHistory.size()).stream()
-                .filter(s -> "SALE".equals(s.getTransactionType()))
-                .mapToInt(SalesRecord::getQuantitySold)
-                .average().orElse(0.0);
-
-        return firstPeriodAvg > 0 ? ((secondPeriodAvg - firstPeriodAvg) / firstPeriodAvg) * 100 : 0.0;
+    private double calculateSalesTrend(double[] projection) {
+        double first = projection[0];
+        double last = projection[projection.length - 1];
+        return first > 0 ? ((last - first) / first) * 100 : 0.0;
     }
 
     /**
@@ -146,17 +195,6 @@ public class DemandForecastingService {
         return (int) (product.getQuantity() / avgDailySales);
     }
 
-    /**
-     * Calculate forecasted demand
-     */
-    private int calculateForecastedDemand(double avgDailySales, double salesTrend, int daysToForecast) {
-        // Apply trend to forecast
-        double trendFactor = 1 + (salesTrend / 100.0);
-        double forecastedDailySales = avgDailySales * trendFactor;
-
-        return (int) Math.ceil(forecastedDailySales * daysToForecast);
-    }
-
     /**
      * Assess stockout risk
      */
@@ -189,24 +227,9 @@ public class DemandForecastingService {
     /**
      * Generate chart data for forecast visualization
      */
-    private Map<String, Object> generateForecastChartData(double avgDailySales, double salesTrend, int daysToForecast) {
-        Map<String, Object> chartData = new HashMap<>();
-        List<Map<String, Object>> dataPoints = new ArrayList<>();
-
-        double dailySales = avgDailySales;
-        for (int day = 1; day <= daysToForecast; day++) {
-            Map<String, Object> point = new HashMap<>();
-            point.put("day", day);
-            point.put("projectedSales", Math.round(dailySales * 100.0) / 100.0);
-            dataPoints.add(point);
-
-            // Apply trend for next day
-            dailySales *= (1 + (salesTrend / 100.0 / daysToForecast));
-        }
-
-        chartData.put("dataPoints", dataPoints);
-        chartData.put("trend", salesTrend);
-        return chartData;
+    private ForecastChart generateForecastChartData(double[] projection, double salesTrend, String seriesEncoding) {
+        // One float per forecast day instead of a {day, projectedSales} object per point
+        return new ForecastChart(CompactSeries.of(projection, 1, 1, seriesEncoding), salesTrend);
     }
 
     private int getRiskPriority(String riskLevel) {
@@ -222,7 +245,7 @@ public class DemandForecastingService {
     /**
      * Get fast-moving products (best sellers)
      */
-    public List<Map<String, Object>> getFastMovingProducts(int days) {
+    public List<FastMovingProduct> getFastMovingProducts(int days) {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
         List<SalesRecord> recentSales = salesRecordRepository.findBySaleDateAfterAndTransactionType(
                 startDate, "SALE");
@@ -238,14 +261,13 @@ public class DemandForecastingService {
                 .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
                 .limit(10)
                 .map(entry -> {
-                    Map<String, Object> productData = new HashMap<>();
                     Product product = entry.getKey();
-                    productData.put("productId", product.getId());
-                    productData.put("productName", product.getName());
-                    productData.put("unitsSold", entry.getValue());
-                    productData.put("currentStock", product.getQuantity());
-                    productData.put("revenue", entry.getValue() * product.getPrice());
-                    return productData;
+                    return new FastMovingProduct(
+                            product.getId(),
+                            product.getName(),
+                            entry.getValue(),
+                            product.getQuantity(),
+                            entry.getValue() * product.getPrice());
                 })
                 .collect(Collectors.toList());
     }
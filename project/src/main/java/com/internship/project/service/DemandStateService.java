@@ -0,0 +1,330 @@
+package com.internship.project.service;
+
+import com.internship.project.entity.DemandState;
+import com.internship.project.entity.SalesRecord;
+import com.internship.project.event.StockMovementEvent;
+import com.internship.project.repository.DemandStateRepository;
+import com.internship.project.repository.SalesRecordRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps an online demand estimate (Holt level + trend and error variance) per product and warehouse.
+ * Each SALE updates the state in O(1); forecasts read the state instead of scanning sales history.
+ * States live in memory, are written behind to demand_states, and can be rebuilt from sales_records.
+ */
+@Service
+public class DemandStateService {
+
+    // Longest run of empty days replayed when a state catches up; beyond this the level has decayed to ~0 anyway
+    private static final int MAX_GAP_DAYS = 3650;
+
+    @Autowired
+    private DemandStateRepository demandStateRepository;
+
+    @Autowired
+    private SalesRecordRepository salesRecordRepository;
+
+    @Autowired
+    private SalesHistoryService salesHistoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${forecast.state.alpha:0.3}")
+    private double alpha;
+
+    @Value("${forecast.state.beta:0.1}")
+    private double beta;
+
+    @Value("${forecast.state.variance-alpha:0.1}")
+    private double varianceAlpha;
+
+    @Value("${forecast.state.rebuild-days:180}")
+    private int rebuildDays;
+
+    /**
+     * Smoothed demand for a product (optionally summed over warehouses) as of the last closed day.
+     */
+    public record DemandEstimate(double level, double trend, double variance) {
+
+        public static final DemandEstimate NONE = new DemandEstimate(0.0, 0.0, 0.0);
+
+        DemandEstimate plus(DemandEstimate other) {
+            return new DemandEstimate(level + other.level, trend + other.trend, variance + other.variance);
+        }
+    }
+
+    private record StateKey(long productId, String warehouse) {
+    }
+
+    // Both maps are replaced whole by a rebuild, so readers see either the old or the rebuilt states
+    private volatile Map<StateKey, DemandState> states = new ConcurrentHashMap<>();
+    private final Set<StateKey> dirty = ConcurrentHashMap.newKeySet();
+    // Warehouses with a state for each product, so per-product lookups do not scan all states
+    private volatile Map<Long, Set<String>> warehousesByProduct = new ConcurrentHashMap<>();
+
+    // Observations and flushes share the read side; a rebuild takes the write side
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    // Before other startup listeners that forecast from the loaded state
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        try {
+            for (DemandState state : demandStateRepository.findAll()) {
+                states.put(new StateKey(state.getProductId(), state.getWarehouseLocation()), state);
+                indexWarehouse(warehousesByProduct, state.getProductId(), state.getWarehouseLocation());
+            }
+            if (states.isEmpty() && salesRecordRepository.count() > 0) {
+                rebuildFromSales();
+            }
+            System.out.println("Loaded " + states.size() + " demand states");
+        } catch (Exception e) {
+            System.err.println("Could not load demand states: " + e.getMessage());
+        }
+    }
+
+    // Runs before stock-movement listeners that read the updated estimates
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onStockMovement(StockMovementEvent event) {
+        SalesRecord record = event.record();
+        if (!"SALE".equals(record.getTransactionType())) return;
+
+        try {
+            observe(record.getProduct().getId(),
+                    SalesRollupService.warehouseKey(record.getWarehouseLocation()),
+                    record.getSaleDate().toLocalDate(),
+                    record.getQuantitySold());
+        } catch (Exception e) {
+            // The sale is already committed; the next rebuild from sales picks it up
+            System.err.println("Could not update demand state for sale " + record.getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Add units sold on a given day to the product/warehouse state.
+     */
+    public void observe(long productId, String warehouse, LocalDate day, double units) {
+        StateKey key = new StateKey(productId, warehouse);
+        rebuildLock.readLock().lock();
+        try {
+            DemandState state = states.computeIfAbsent(key, k -> {
+                indexWarehouse(warehousesByProduct, productId, warehouse);
+                return new DemandState(productId, warehouse, day);
+            });
+
+            synchronized (state) {
+                if (day.isAfter(state.getCurrentDay())) {
+                    closeDaysUntil(state, day);
+                }
+                // Late sales for an already closed day are folded into the current day
+                state.setPendingUnits(state.getPendingUnits() + units);
+            }
+            dirty.add(key);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimate for one product across all warehouses.
+     */
+    public DemandEstimate getEstimate(long productId) {
+        LocalDate today = LocalDate.now();
+        DemandEstimate total = DemandEstimate.NONE;
+        for (String warehouse : getWarehouses(productId)) {
+            DemandState state = states.get(new StateKey(productId, warehouse));
+            if (state != null) {
+                total = total.plus(estimateAsOf(state, today));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Estimate for one product at one warehouse.
+     */
+    public DemandEstimate getEstimate(long productId, String warehouse) {
+        DemandState state = states.get(new StateKey(productId, warehouse));
+        return state != null ? estimateAsOf(state, LocalDate.now()) : DemandEstimate.NONE;
+    }
+
+    /**
+     * Estimates for every product sold at the warehouse.
+     */
+    public Map<Long, DemandEstimate> getWarehouseEstimates(String warehouse) {
+        LocalDate today = LocalDate.now();
+        Map<Long, DemandEstimate> estimates = new HashMap<>();
+        for (Map.Entry<StateKey, DemandState> entry : states.entrySet()) {
+            if (entry.getKey().warehouse().equals(warehouse)) {
+                estimates.put(entry.getKey().productId(), estimateAsOf(entry.getValue(), today));
+            }
+        }
+        return estimates;
+    }
+
+    /**
+     * Warehouses that have recorded sales of the product.
+     */
+    public Set<String> getWarehouses(long productId) {
+        return warehousesByProduct.getOrDefault(productId, Set.of());
+    }
+
+    /**
+     * Estimates for every product, summed over warehouses.
+     */
+    public Map<Long, DemandEstimate> getProductEstimates() {
+        LocalDate today = LocalDate.now();
+        Map<Long, DemandEstimate> estimates = new HashMap<>();
+        for (Map.Entry<StateKey, DemandState> entry : states.entrySet()) {
+            estimates.merge(entry.getKey().productId(), estimateAsOf(entry.getValue(), today), DemandEstimate::plus);
+        }
+        return estimates;
+    }
+
+    /**
+     * Replay daily sales from sales_records into fresh states and persist them.
+     * Sales arriving meanwhile wait for the rebuild and are then applied to the rebuilt states,
+     * and demand_states is replaced in a single transaction.
+     */
+    public int rebuildFromSales() {
+        rebuildLock.writeLock().lock();
+        try {
+            Map<StateKey, DemandState> rebuilt = new ConcurrentHashMap<>();
+            Map<Long, Set<String>> rebuiltWarehouses = new ConcurrentHashMap<>();
+            salesHistoryService.forEachDailySale(LocalDate.now().minusDays(rebuildDays), (productId, warehouse, day, units) -> {
+                DemandState state = rebuilt.computeIfAbsent(new StateKey(productId, warehouse), k -> {
+                    indexWarehouse(rebuiltWarehouses, productId, warehouse);
+                    return new DemandState(productId, warehouse, day);
+                });
+                if (day.isAfter(state.getCurrentDay())) {
+                    closeDaysUntil(state, day);
+                }
+                state.setPendingUnits(state.getPendingUnits() + units);
+            });
+
+            transactionTemplate.executeWithoutResult(status -> {
+                demandStateRepository.deleteAllInBatch();
+                rebuilt.values().forEach(this::persist);
+            });
+            states = rebuilt;
+            warehousesByProduct = rebuiltWarehouses;
+            dirty.clear();
+
+            System.out.println("Rebuilt " + rebuilt.size() + " demand states from sales history");
+            return rebuilt.size();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write changed states to demand_states.
+     */
+    @Scheduled(fixedDelayString = "${forecast.state.flush-interval-ms:30000}")
+    public void flush() {
+        // Holding the read side keeps a rebuild from replacing rows while states are written
+        rebuildLock.readLock().lock();
+        try {
+            List<StateKey> keys = new ArrayList<>(dirty);
+            for (StateKey key : keys) {
+                dirty.remove(key);
+                DemandState state = states.get(key);
+                if (state == null) continue;
+                try {
+                    persist(state);
+                } catch (Exception e) {
+                    dirty.add(key);
+                    System.err.println("Could not persist demand state " + key + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void persist(DemandState state) {
+        synchronized (state) {
+            demandStateRepository.upsert(state.getProductId(), state.getWarehouseLocation(),
+                    state.getLevel(), state.getTrend(), state.getVariance(),
+                    state.getObservedDays(), state.getCurrentDay(), state.getPendingUnits());
+        }
+    }
+
+    private static void indexWarehouse(Map<Long, Set<String>> index, long productId, String warehouse) {
+        index.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(warehouse);
+    }
+
+    // Fold the pending day and any following empty days into level/trend, ending with currentDay = day
+    private void closeDaysUntil(DemandState state, LocalDate day) {
+        long gap = ChronoUnit.DAYS.between(state.getCurrentDay(), day);
+        applyDay(state, state.getPendingUnits());
+        for (long i = 1; i < Math.min(gap, MAX_GAP_DAYS); i++) {
+            applyDay(state, 0.0);
+        }
+        state.setPendingUnits(0.0);
+        state.setCurrentDay(day);
+    }
+
+    private void applyDay(DemandState state, double units) {
+        if (state.getObservedDays() == 0) {
+            state.setLevel(units);
+            state.setTrend(0.0);
+            state.setVariance(0.0);
+        } else {
+            double forecast = state.getLevel() + state.getTrend();
+            double error = units - forecast;
+            double level = alpha * units + (1 - alpha) * forecast;
+            double trend = beta * (level - state.getLevel()) + (1 - beta) * state.getTrend();
+
+            state.setVariance((1 - varianceAlpha) * state.getVariance() + varianceAlpha * error * error);
+            state.setLevel(level);
+            state.setTrend(trend);
+        }
+        state.setObservedDays(state.getObservedDays() + 1);
+    }
+
+    // Read-only view of the state caught up to today (today's partial sales are not yet folded in)
+    private DemandEstimate estimateAsOf(DemandState state, LocalDate today) {
+        synchronized (state) {
+            if (!today.isAfter(state.getCurrentDay())) {
+                return new DemandEstimate(state.getLevel(), state.getTrend(), state.getVariance());
+            }
+
+            DemandState copy = new DemandState(state.getProductId(), state.getWarehouseLocation(), state.getCurrentDay());
+            copy.setLevel(state.getLevel());
+            copy.setTrend(state.getTrend());
+            copy.setVariance(state.getVariance());
+            copy.setObservedDays(state.getObservedDays());
+            copy.setPendingUnits(state.getPendingUnits());
+            closeDaysUntil(copy, today);
+            return new DemandEstimate(copy.getLevel(), copy.getTrend(), copy.getVariance());
+        }
+    }
+}
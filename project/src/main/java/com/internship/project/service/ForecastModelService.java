@@ -0,0 +1,164 @@
+package com.internship.project.service;
+
+import com.internship.project.entity.Product;
+import com.internship.project.repository.ProductRepository;
+import com.internship.project.service.forecast.CrostonSba;
+import com.internship.project.service.forecast.ForecastBacktest;
+import com.internship.project.service.forecast.ForecastModelSelector;
+import com.internship.project.service.forecast.HoltWintersWeekly;
+import com.internship.project.service.forecast.SimpleExponentialSmoothing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fits a forecasting model per product from daily sales buckets and keeps the projections in memory.
+ * The whole catalog is refitted nightly; the model for each SKU is picked automatically on a holdout.
+ */
+@Service
+public class ForecastModelService {
+
+    public static final int HISTORY_DAYS = 120;
+    public static final int MAX_HORIZON = 90;
+    private static final int HOLDOUT_DAYS = 14;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SalesHistoryService salesHistoryService;
+
+    private final ForecastModelSelector selector = createSelector();
+
+    private volatile Map<Long, ForecastModelSelector.Fit> fits = Map.of();
+    private volatile Map<String, Map<Long, ForecastModelSelector.Fit>> warehouseFits = Map.of();
+    private volatile LocalDateTime lastRefit;
+
+    /**
+     * Candidate models used for the nightly refit and for backtests.
+     */
+    public static ForecastModelSelector createSelector() {
+        return new ForecastModelSelector(List.of(
+                new SimpleExponentialSmoothing(0.3),
+                new HoltWintersWeekly(0.2, 0.05, 0.1),
+                new CrostonSba(0.1)), HOLDOUT_DAYS);
+    }
+
+    // One series to fit: a product at one warehouse, or across the catalog when warehouse is null
+    private record Partition(long productId, String warehouse, double[] sales) {
+    }
+
+    // Before other startup listeners that forecast from the fitted models
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void initialize() {
+        try {
+            refitAll();
+        } catch (Exception e) {
+            System.err.println("Could not fit forecast models: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Refit every product, catalog-wide and per warehouse, and swap in the new projections in one step.
+     * History is loaded once grouped by warehouse; catalog series are the sum over warehouses.
+     */
+    @Scheduled(cron = "${forecast.models.refit-cron:0 30 2 * * *}")
+    public synchronized Map<String, Object> refitAll() {
+        long start = System.currentTimeMillis();
+
+        List<Product> products = productRepository.findAll();
+        Map<String, Map<Long, double[]>> warehouseHistory = salesHistoryService.loadDailySalesByWarehouse(
+                LocalDate.now().minusDays(HISTORY_DAYS), HISTORY_DAYS);
+
+        Map<Long, double[]> history = new HashMap<>();
+        List<Partition> partitions = new ArrayList<>();
+        warehouseHistory.forEach((warehouse, series) -> series.forEach((productId, sales) -> {
+            double[] total = history.computeIfAbsent(productId, id -> new double[HISTORY_DAYS]);
+            for (int day = 0; day < HISTORY_DAYS; day++) total[day] += sales[day];
+            partitions.add(new Partition(productId, warehouse, sales));
+        }));
+        int warehousePartitions = partitions.size();
+        double[] noSales = new double[HISTORY_DAYS];
+        for (Product product : products) {
+            partitions.add(new Partition(product.getId(), null, history.getOrDefault(product.getId(), noSales)));
+        }
+
+        // Every series is independent, so catalog and warehouse partitions are fitted in one parallel pass
+        Map<Long, ForecastModelSelector.Fit> refitted = new ConcurrentHashMap<>();
+        Map<String, Map<Long, ForecastModelSelector.Fit>> refittedByWarehouse = new ConcurrentHashMap<>();
+        partitions.parallelStream().forEach(partition -> {
+            ForecastModelSelector.Fit fit = selector.select(partition.sales(), MAX_HORIZON);
+            if (partition.warehouse() == null) {
+                refitted.put(partition.productId(), fit);
+            } else {
+                refittedByWarehouse.computeIfAbsent(partition.warehouse(), w -> new ConcurrentHashMap<>())
+                        .put(partition.productId(), fit);
+            }
+        });
+
+        fits = refitted;
+        warehouseFits = refittedByWarehouse;
+        lastRefit = LocalDateTime.now();
+
+        Map<String, Long> modelCounts = new HashMap<>();
+        refitted.values().forEach(fit -> modelCounts.merge(fit.model(), 1L, Long::sum));
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("fittedProducts", refitted.size());
+        summary.put("fittedWarehousePartitions", warehousePartitions);
+        summary.put("warehouses", refittedByWarehouse.size());
+        summary.put("modelCounts", modelCounts);
+        summary.put("durationMs", System.currentTimeMillis() - start);
+        summary.put("refittedAt", lastRefit);
+        System.out.println("Forecast models refitted: " + summary);
+        return summary;
+    }
+
+    /**
+     * Fitted model for a product, or null if it has not been fitted yet.
+     */
+    public ForecastModelSelector.Fit getFit(Long productId) {
+        return fits.get(productId);
+    }
+
+    /**
+     * Fitted model for a product's sales at one warehouse, or null if it has none.
+     */
+    public ForecastModelSelector.Fit getFit(Long productId, String warehouse) {
+        return warehouseFits.getOrDefault(warehouse, Map.of()).get(productId);
+    }
+
+    /**
+     * Products with a fitted model at the warehouse.
+     */
+    public Set<Long> getFittedProducts(String warehouse) {
+        return warehouseFits.getOrDefault(warehouse, Map.of()).keySet();
+    }
+
+    public Set<String> getWarehouses() {
+        return warehouseFits.keySet();
+    }
+
+    /**
+     * Replay the last historyDays of recorded sales in rolling windows and score the forecasts.
+     */
+    public ForecastBacktest.Result backtestHistory(int historyDays, int trainDays, int windowDays) {
+        Map<Long, double[]> history = salesHistoryService.loadDailySales(
+                LocalDate.now().minusDays(historyDays), historyDays);
+        return new ForecastBacktest(selector, trainDays, windowDays).run(new ArrayList<>(history.values()));
+    }
+}
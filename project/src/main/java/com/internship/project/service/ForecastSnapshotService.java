@@ -0,0 +1,330 @@
+package com.internship.project.service;
+
+import com.internship.project.dto.ProductForecast;
+import com.internship.project.entity.DemandForecastEntry;
+import com.internship.project.entity.ForecastGeneration;
+import com.internship.project.entity.Product;
+import com.internship.project.repository.DemandForecastEntryRepository;
+import com.internship.project.repository.ForecastGenerationRepository;
+import com.internship.project.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputes forecasts for the standard horizons into demand_forecasts so the API serves rows
+ * instead of forecasting on the request thread. A nightly job writes a complete new generation and
+ * switches it active in one transaction; during the day only products with stock movements are refreshed.
+ * Rows are written for the whole catalog (warehouse ALL) and for each warehouse's own sales.
+ * Every node runs the jobs, so the database decides: the ACTIVE generation is read from it, only one
+ * generation can be BUILDING at a time, and refreshes pick up movements recorded on any node.
+ */
+@Service
+public class ForecastSnapshotService {
+
+    public static final List<Integer> HORIZONS = List.of(7, 14, 30, 90);
+    public static final String ALL_WAREHOUSES = "ALL";
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO demand_forecasts (generation_id, horizon_days, product_id, " +
+            "product_name, warehouse_location, current_stock, reorder_threshold, avg_daily_sales, sales_trend, " +
+            "days_of_stock_left, forecasted_demand, risk_level, recommended_action, demand_std_dev, model, generated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // At most one BUILDING generation; a node whose insert hits it leaves the build to the other
+    private static final String SINGLE_BUILD_INDEX_SQL = "CREATE UNIQUE INDEX IF NOT EXISTS " +
+            "ux_forecast_generations_building ON forecast_generations (status) WHERE status = 'BUILDING'";
+
+    // Products with a stock movement (on any node) after their rows in the generation were written
+    private static final String CHANGED_PRODUCTS_SQL = "SELECT s.product_id FROM sales_records s " +
+            "WHERE s.sale_date >= ? GROUP BY s.product_id " +
+            "HAVING MAX(s.sale_date) > COALESCE((SELECT MAX(f.generated_at) FROM demand_forecasts f " +
+            "WHERE f.generation_id = ? AND f.product_id = s.product_id), '-infinity'::timestamp)";
+
+    // Serializes row swaps in one generation across nodes
+    private static final String LOCK_GENERATION_SQL = "SELECT id FROM forecast_generations WHERE id = ? FOR UPDATE";
+
+    @Autowired
+    private DemandForecastingService demandForecastingService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DemandStateService demandStateService;
+
+    @Autowired
+    private ForecastModelService forecastModelService;
+
+    @Autowired
+    private ForecastGenerationRepository forecastGenerationRepository;
+
+    @Autowired
+    private DemandForecastEntryRepository demandForecastEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // How long a node keeps using the ACTIVE generation it read before asking the database again
+    @Value("${forecast.snapshot.active-cache-ms:5000}")
+    private long activeCacheMs;
+
+    // A BUILDING generation older than this is taken to be from a node that died mid-build
+    @Value("${forecast.snapshot.max-build-minutes:120}")
+    private long maxBuildMinutes;
+
+    private record ActiveGeneration(ForecastGeneration generation, long readAt) {
+    }
+
+    private volatile ActiveGeneration active;
+
+    @PostConstruct
+    public void createSingleBuildIndex() {
+        try {
+            jdbcTemplate.execute(SINGLE_BUILD_INDEX_SQL);
+        } catch (Exception e) {
+            System.err.println("Could not create single-build index on forecast generations, nodes may build "
+                    + "concurrently: " + e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            if (activeGeneration() == null) {
+                generateSnapshot();
+            }
+        } catch (Exception e) {
+            System.err.println("Could not initialize forecast snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compute every horizon for the whole catalog into a new generation and switch readers over to it.
+     * Runs after the nightly model refit. Skipped when another node is already building one.
+     */
+    @Scheduled(cron = "${forecast.snapshot.cron:0 0 3 * * *}")
+    public synchronized Map<String, Object> generateSnapshot() {
+        long start = System.currentTimeMillis();
+        Map<String, Object> summary = new HashMap<>();
+
+        // Movements from createdAt on are newer than the rows and picked up by the next intraday refresh
+        ForecastGeneration generation;
+        try {
+            generation = transactionTemplate.execute(status -> {
+                forecastGenerationRepository.failBuildsStartedBefore(LocalDateTime.now().minusMinutes(maxBuildMinutes));
+                return forecastGenerationRepository.save(new ForecastGeneration("BUILDING", LocalDateTime.now()));
+            });
+        } catch (DataIntegrityViolationException e) {
+            summary.put("skipped", "Another node is building a forecast generation");
+            System.out.println("Forecast snapshot skipped: another node is building one");
+            return summary;
+        }
+
+        try {
+            List<Product> products = productRepository.findAll();
+            Map<String, List<Product>> productsByWarehouse = productsByWarehouse(products);
+            long rowCount = 0;
+            for (int horizon : HORIZONS) {
+                rowCount += insertRows(generation.getId(), horizon, ALL_WAREHOUSES,
+                        demandForecastingService.forecastProducts(products, horizon), generation.getCreatedAt());
+                for (Map.Entry<String, List<Product>> warehouse : productsByWarehouse.entrySet()) {
+                    rowCount += insertRows(generation.getId(), horizon, warehouse.getKey(),
+                            demandForecastingService.forecastProducts(warehouse.getValue(), horizon, warehouse.getKey()),
+                            generation.getCreatedAt());
+                }
+            }
+
+            long rows = rowCount;
+            LocalDateTime activatedAt = LocalDateTime.now();
+            ForecastGeneration previous = transactionTemplate.execute(status -> {
+                ForecastGeneration replaced = forecastGenerationRepository.findFirstByStatusOrderByIdDesc("ACTIVE").orElse(null);
+                forecastGenerationRepository.retireAllExcept(generation.getId());
+                forecastGenerationRepository.activate(generation.getId(), activatedAt, rows);
+                return replaced;
+            });
+            generation.setStatus("ACTIVE");
+            generation.setActivatedAt(activatedAt);
+            generation.setRowCount(rows);
+            active = new ActiveGeneration(generation, System.currentTimeMillis());
+
+            // Keep the previous generation for requests, here or on other nodes, that are still reading it
+            purgeOlderThan(previous != null ? previous.getId() : generation.getId());
+        } catch (RuntimeException e) {
+            generation.setStatus("FAILED");
+            forecastGenerationRepository.save(generation);
+            transactionTemplate.executeWithoutResult(status ->
+                    demandForecastEntryRepository.deleteByGenerations(List.of(generation.getId())));
+            throw e;
+        }
+
+        summary.put("generationId", generation.getId());
+        summary.put("rows", generation.getRowCount());
+        summary.put("durationMs", System.currentTimeMillis() - start);
+        System.out.println("Forecast snapshot generated: " + summary);
+        return summary;
+    }
+
+    /**
+     * Rewrite the active generation's rows for products whose stock moved since they were written.
+     */
+    @Scheduled(fixedDelayString = "${forecast.snapshot.refresh-interval-ms:900000}")
+    public synchronized int refreshChangedProducts() {
+        ForecastGeneration generation = activeGeneration();
+        if (generation == null) return 0;
+
+        try {
+            List<Long> productIds = jdbcTemplate.queryForList(CHANGED_PRODUCTS_SQL, Long.class,
+                    Timestamp.valueOf(generation.getCreatedAt()), generation.getId());
+            if (productIds.isEmpty()) return 0;
+
+            List<Product> products = productRepository.findAllById(productIds);
+            Map<String, List<Product>> partitions = productsByWarehouse(products);
+            partitions.put(ALL_WAREHOUSES, products);
+            LocalDateTime generatedAt = LocalDateTime.now();
+
+            List<Batch> batches = new ArrayList<>();
+            for (int horizon : HORIZONS) {
+                partitions.forEach((warehouse, partition) -> batches.add(new Batch(horizon, warehouse,
+                        ALL_WAREHOUSES.equals(warehouse)
+                                ? demandForecastingService.forecastProducts(partition, horizon)
+                                : demandForecastingService.forecastProducts(partition, horizon, warehouse))));
+            }
+
+            // Swap the rows in one transaction so readers never see a product missing
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList(LOCK_GENERATION_SQL, Long.class, generation.getId());
+                demandForecastEntryRepository.deleteByGenerationAndProducts(generation.getId(), productIds);
+                batches.forEach(batch -> insertRows(generation.getId(), batch.horizon(), batch.warehouse(),
+                        batch.forecasts(), generatedAt));
+            });
+            return products.size();
+        } catch (RuntimeException e) {
+            // The products still look changed, so the next run retries them
+            System.err.println("Could not refresh forecast snapshot: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * One page of precomputed forecasts from the active generation, most urgent first.
+     */
+    public Map<String, Object> getForecastPage(int horizon, String warehouse, String riskLevel, Long productId,
+                                               int page, int size) {
+        if (!HORIZONS.contains(horizon)) {
+            throw new IllegalArgumentException("Unsupported horizon: " + horizon + ". Use one of " + HORIZONS);
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        ForecastGeneration generation = activeGeneration();
+        if (generation == null) {
+            throw new IllegalStateException("No forecast snapshot has been generated yet");
+        }
+
+        Page<DemandForecastEntry> rows = demandForecastEntryRepository.findPage(generation.getId(), horizon,
+                warehouse, riskLevel != null ? riskLevel.toUpperCase() : null, productId, PageRequest.of(page, size));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", rows.getContent());
+        response.put("page", rows.getNumber());
+        response.put("size", rows.getSize());
+        response.put("totalElements", rows.getTotalElements());
+        response.put("totalPages", rows.getTotalPages());
+        response.put("horizonDays", horizon);
+        response.put("generationId", generation.getId());
+        response.put("generatedAt", generation.getActivatedAt());
+        return response;
+    }
+
+    private record Batch(int horizon, String warehouse, List<ProductForecast> forecasts) {
+    }
+
+    // The ACTIVE generation as recorded in the database, which any node may have switched
+    private ForecastGeneration activeGeneration() {
+        ActiveGeneration cached = active;
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.readAt() < activeCacheMs) {
+            return cached.generation();
+        }
+        ForecastGeneration generation = forecastGenerationRepository.findFirstByStatusOrderByIdDesc("ACTIVE").orElse(null);
+        active = new ActiveGeneration(generation, now);
+        return generation;
+    }
+
+    // Products with sales history (demand state or a fitted model) at each warehouse
+    private Map<String, List<Product>> productsByWarehouse(List<Product> products) {
+        Map<String, List<Product>> byWarehouse = new HashMap<>();
+        for (Product product : products) {
+            Set<String> warehouses = new HashSet<>(demandStateService.getWarehouses(product.getId()));
+            for (String warehouse : forecastModelService.getWarehouses()) {
+                if (forecastModelService.getFittedProducts(warehouse).contains(product.getId())) {
+                    warehouses.add(warehouse);
+                }
+            }
+            for (String warehouse : warehouses) {
+                byWarehouse.computeIfAbsent(warehouse, w -> new ArrayList<>()).add(product);
+            }
+        }
+        return byWarehouse;
+    }
+
+    private int insertRows(Long generationId, int horizon, String warehouse, List<ProductForecast> forecasts,
+                           LocalDateTime generatedAt) {
+        Timestamp timestamp = Timestamp.valueOf(generatedAt);
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, forecasts, INSERT_BATCH_SIZE, (ps, f) -> {
+            ps.setLong(1, generationId);
+            ps.setInt(2, horizon);
+            ps.setLong(3, f.productId());
+            ps.setString(4, f.productName());
+            ps.setString(5, warehouse);
+            ps.setInt(6, f.currentStock());
+            ps.setInt(7, f.reorderThreshold());
+            ps.setDouble(8, f.avgDailySales());
+            ps.setDouble(9, f.salesTrend());
+            ps.setInt(10, f.daysOfStockLeft());
+            ps.setInt(11, f.forecastedDemand());
+            ps.setString(12, f.riskLevel());
+            ps.setString(13, f.recommendedAction());
+            ps.setDouble(14, f.demandStdDev());
+            ps.setString(15, f.model());
+            ps.setTimestamp(16, timestamp);
+        });
+
+        int inserted = 0;
+        for (int[] batch : counts) inserted += batch.length;
+        return inserted;
+    }
+
+    private void purgeOlderThan(Long keepFrom) {
+        List<Long> purgeable = forecastGenerationRepository.findPurgeable(keepFrom);
+        if (purgeable.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(status -> {
+            demandForecastEntryRepository.deleteByGenerations(purgeable);
+            forecastGenerationRepository.deleteAllByIdInBatch(purgeable);
+        });
+    }
+}
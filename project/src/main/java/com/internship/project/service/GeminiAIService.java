@@ -1,16 +1,28 @@
 package com.internship.project.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.project.service.ai.CircuitBreaker;
+import com.internship.project.service.ai.LatencyHistogram;
+import com.internship.project.service.ai.RecommendationCache;
+import com.internship.project.service.ai.RecommendationFeatures;
+import com.internship.project.service.ai.TokenBucket;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class GeminiAIService {
@@ -21,17 +33,172 @@ public class GeminiAIService {
     @Value("${gemini.api.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-pro:generateContent}")
     private String geminiApiUrl;
 
+    // Match the API quota; calls beyond it wait for a token instead of being rejected by Gemini
+    @Value("${gemini.api.requests-per-minute:60}")
+    private int requestsPerMinute;
+
+    @Value("${gemini.api.burst:10}")
+    private int burst;
+
+    // Overall deadline for one recommendation, including retries and hedges
+    @Value("${gemini.api.timeout-ms:20000}")
+    private long timeoutMs;
+
+    @Value("${gemini.api.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${gemini.api.retry-backoff-ms:250}")
+    private long retryBackoffMs;
+
+    // Send a second copy of a call still unanswered after this long; 0 disables hedging
+    @Value("${gemini.api.hedge-delay-ms:0}")
+    private long hedgeDelayMs;
+
+    @Value("${gemini.breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${gemini.breaker.open-ms:30000}")
+    private long breakerOpenMs;
+
     @Autowired
-    private WebClient.Builder webClientBuilder;
+    private WebClient geminiWebClient;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Value("${gemini.cache.ttl-minutes:60}")
+    private long cacheTtlMinutes;
+
+    @Value("${gemini.cache.max-entries:5000}")
+    private int cacheMaxEntries;
+
+    private TokenBucket rateLimiter;
+    private RecommendationCache recommendationCache;
+    private CircuitBreaker circuitBreaker;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        rateLimiter = new TokenBucket(requestsPerMinute, burst);
+        recommendationCache = new RecommendationCache(Duration.ofMinutes(cacheTtlMinutes), cacheMaxEntries);
+        circuitBreaker = new CircuitBreaker(breakerFailureThreshold, Duration.ofMillis(breakerOpenMs));
+    }
+
     public String getAIRecommendation(String prompt) {
-        if (geminiApiKey == null || geminiApiKey.isEmpty()) {
+        String text = callGemini(prompt);
+        return text != null ? text : getFallbackRecommendation(prompt);
+    }
+
+    /**
+     * Recommendation for a prompt built from the given features. Answers are cached by the quantized
+     * features, so similar products share one model call; critical stock always goes to the model.
+     */
+    public String getAIRecommendation(String prompt, RecommendationFeatures features) {
+        if (features.isCritical()) {
+            recommendationCache.recordBypass();
+            return getAIRecommendation(prompt);
+        }
+
+        RecommendationFeatures.Key key = features.quantize();
+        String cached = recommendationCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String text = callGemini(prompt);
+        if (text == null) {
             return getFallbackRecommendation(prompt);
         }
+        recommendationCache.put(key, text);
+        return text;
+    }
+
+    /**
+     * Raw model answer for a multi-product prompt, or null if the call failed, so the caller can
+     * retry in smaller batches instead of applying the single-product fallback text.
+     */
+    public String getBatchRecommendation(String prompt) {
+        return callGemini(prompt);
+    }
 
+    public boolean isConfigured() {
+        return geminiApiKey != null && !geminiApiKey.isEmpty();
+    }
+
+    /**
+     * Cached answer for these features, or null on a miss. Critical stock is never served from the cache.
+     */
+    public String getCachedRecommendation(RecommendationFeatures features) {
+        if (features.isCritical()) {
+            recommendationCache.recordBypass();
+            return null;
+        }
+        return recommendationCache.get(features.quantize());
+    }
+
+    /**
+     * Store one product's answer from a batched call so single and batched checks share the cache.
+     */
+    public void cacheRecommendation(RecommendationFeatures features, String text) {
+        if (!features.isCritical()) {
+            recommendationCache.put(features.quantize(), text);
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return recommendationCache.getStats();
+    }
+
+    public void clearCache() {
+        recommendationCache.clear();
+    }
+
+    /**
+     * Breaker state, latency histogram and call counters for the Gemini client.
+     */
+    public Map<String, Object> getClientStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("configured", isConfigured());
+        stats.put("circuitBreaker", circuitBreaker.getStats());
+        stats.put("latency", latency.snapshot());
+        stats.put("calls", calls.sum());
+        stats.put("failedCalls", failedCalls.sum());
+        stats.put("retries", retries.sum());
+        stats.put("hedgesSent", hedgesSent.sum());
+        stats.put("hedgesWon", hedgesWon.sum());
+        stats.put("shortCircuited", shortCircuited.sum());
+        stats.put("rateLimited", rateLimited.sum());
+        stats.put("availableTokens", Math.floor(rateLimiter.availableTokens()));
+        return stats;
+    }
+
+    // Model answer text, or null if the API is not configured, unhealthy, or the call failed
+    private String callGemini(String prompt) {
+        if (!isConfigured()) {
+            return null;
+        }
+        if (!circuitBreaker.allowRequest()) {
+            shortCircuited.increment();
+            return null;
+        }
+
+        long started = System.nanoTime();
         try {
+            Duration timeout = Duration.ofMillis(timeoutMs);
+            if (!rateLimiter.tryAcquire(timeout)) {
+                circuitBreaker.release();
+                rateLimited.increment();
+                System.err.println("Gemini rate limit wait exceeded " + timeoutMs + "ms, using fallback");
+                return null;
+            }
+
             // Prepare request payload for Gemini API
             Map<String, Object> requestBody = new HashMap<>();
 
@@ -43,22 +210,63 @@ public class GeminiAIService {
             contentItem.put("parts", new Object[]{parts});
             requestBody.put("contents", new Object[]{contentItem});
 
-            // Make API call to Gemini
-            String response = webClientBuilder.build()
-                    .post()
-                    .uri(geminiApiUrl + "?key=" + geminiApiKey)
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+            calls.increment();
+            started = System.nanoTime();
+
+            // Retried attempts and hedges each need a free rate-limit token; they never wait for one
+            Mono<String> primary = send(requestBody)
+                    .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(retryBackoffMs))
+                            .jitter(0.5)
+                            .filter(e -> isRetryable(e) && rateLimiter.tryAcquireNow())
+                            .doBeforeRetry(signal -> retries.increment())
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+
+            Mono<String> call = primary;
+            if (hedgeDelayMs > 0) {
+                Mono<String> hedge = Mono.delay(Duration.ofMillis(hedgeDelayMs))
+                        .filter(tick -> CircuitBreaker.CLOSED.equals(circuitBreaker.getState())
+                                && rateLimiter.tryAcquireNow())
+                        .flatMap(tick -> {
+                            hedgesSent.increment();
+                            return send(requestBody).doOnNext(response -> hedgesWon.increment());
+                        });
+                call = Mono.firstWithValue(primary, hedge);
+            }
 
+            String response = call.block(timeout);
+            circuitBreaker.recordSuccess();
+            latency.record((System.nanoTime() - started) / 1_000_000);
             return parseGeminiResponse(response);
 
+        } catch (InterruptedException e) {
+            circuitBreaker.release();
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
+            circuitBreaker.recordFailure();
+            failedCalls.increment();
+            latency.record((System.nanoTime() - started) / 1_000_000);
             System.err.println("Error calling Gemini API: " + e.getMessage());
-            return getFallbackRecommendation(prompt);
+            return null;
+        }
+    }
+
+    private Mono<String> send(Map<String, Object> requestBody) {
+        return geminiWebClient.post()
+                .uri(geminiApiUrl + "?key=" + geminiApiKey)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    // Throttling, server errors, timeouts and connection failures are worth another attempt
+    private boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException responseError) {
+            int status = responseError.getStatusCode().value();
+            return status == 429 || status >= 500;
         }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
     }
 
     private String parseGeminiResponse(String response) {
@@ -100,9 +308,11 @@ public class GeminiAIService {
                     }
                 }
             }
-            return "Unable to parse AI response. Using fallback recommendation.";
+            System.err.println("Unable to parse Gemini response, using fallback recommendation");
+            return null;
         } catch (Exception e) {
-            return "Error parsing response: " + e.getMessage() + ". Using fallback recommendation.";
+            System.err.println("Error parsing Gemini response: " + e.getMessage() + ", using fallback recommendation");
+            return null;
         }
     }
 
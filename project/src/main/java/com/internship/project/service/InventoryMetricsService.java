@@ -0,0 +1,203 @@
+package com.internship.project.service;
+
+import com.internship.project.entity.Product;
+import com.internship.project.event.StockMovementEvent;
+import com.internship.project.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Running inventory aggregates (valuation and stock-status counts) kept up to date on every
+ * quantity, threshold or price change, so dashboards can read them without scanning products.
+ * A periodic reconciliation recomputes them from the database and corrects any drift.
+ */
+@Service
+public class InventoryMetricsService {
+
+    private static final double VALUE_DRIFT_TOLERANCE = 0.01;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private record Stock(int quantity, int threshold, double price) {
+
+        static Stock of(Product product) {
+            return new Stock(product.getQuantity(), product.getReorderThreshold(), product.getPrice());
+        }
+    }
+
+    // Stands for "no longer exists" among the products that changed during a reconcile read
+    private static final Stock REMOVED = new Stock(0, 0, 0.0);
+
+    private static class Totals {
+        long totalProducts;
+        double totalInventoryValue;
+        long lowStockProducts;   // 0 < quantity <= threshold
+        long outOfStockProducts; // quantity == 0
+        long lowStockAlerts;     // quantity <= threshold
+
+        void apply(Stock stock, int sign) {
+            totalProducts += sign;
+            totalInventoryValue += sign * stock.price() * stock.quantity();
+            if (stock.quantity() == 0) outOfStockProducts += sign;
+            if (stock.quantity() <= stock.threshold()) {
+                lowStockAlerts += sign;
+                if (stock.quantity() > 0) lowStockProducts += sign;
+            }
+        }
+    }
+
+    // Guarded by this
+    private Totals totals = new Totals();
+
+    // Latest state of each product changed while a reconcile is reading the database; null otherwise
+    private Map<Long, Stock> changedDuringReconcile;
+
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            System.err.println("Could not initialize inventory metrics: " + e.getMessage());
+        }
+    }
+
+    // Runs before other stock-movement listeners so they see the updated counters
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStockMovement(StockMovementEvent event) {
+        Product product = event.product();
+        try {
+            change(product.getId(),
+                    new Stock(event.quantityBefore(), product.getReorderThreshold(), product.getPrice()),
+                    new Stock(event.quantityAfter(), product.getReorderThreshold(), product.getPrice()));
+        } catch (Exception e) {
+            // The movement is already committed; the next reconcile corrects the counters
+            System.err.println("Could not update inventory metrics for product " + product.getId() + ": " + e.getMessage());
+        }
+    }
+
+    public void productAdded(Product product) {
+        change(product.getId(), null, Stock.of(product));
+    }
+
+    public void productRemoved(Product product) {
+        change(product.getId(), Stock.of(product), null);
+    }
+
+    public void productUpdated(int oldQuantity, int oldThreshold, double oldPrice, Product updated) {
+        change(updated.getId(), new Stock(oldQuantity, oldThreshold, oldPrice), Stock.of(updated));
+    }
+
+    public synchronized Map<String, Object> getSnapshot() {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("totalProducts", totals.totalProducts);
+        snapshot.put("totalInventoryValue", totals.totalInventoryValue);
+        snapshot.put("lowStockProducts", totals.lowStockProducts);
+        snapshot.put("outOfStockProducts", totals.outOfStockProducts);
+        snapshot.put("lowStockAlerts", totals.lowStockAlerts);
+        return snapshot;
+    }
+
+    public synchronized long getTotalProducts() {
+        return totals.totalProducts;
+    }
+
+    public synchronized double getTotalInventoryValue() {
+        return totals.totalInventoryValue;
+    }
+
+    public synchronized long getLowStockProducts() {
+        return totals.lowStockProducts;
+    }
+
+    public synchronized long getOutOfStockProducts() {
+        return totals.outOfStockProducts;
+    }
+
+    public synchronized long getLowStockAlerts() {
+        return totals.lowStockAlerts;
+    }
+
+    /**
+     * Recompute the aggregates from the products table and report drift against the running values.
+     * The read runs without holding the counters' lock. Products that change meanwhile are tracked, and
+     * their rows from the read are swapped for their latest state, so a change is counted exactly once
+     * whether or not the read already saw it.
+     */
+    @Scheduled(fixedDelayString = "${analytics.inventory.reconcile-interval-ms:600000}", initialDelay = 600000)
+    public Map<String, Object> reconcile() {
+        reconcileLock.lock();
+        try {
+            synchronized (this) {
+                changedDuringReconcile = new HashMap<>();
+            }
+
+            Map<Long, Stock> rows = new HashMap<>();
+            Totals actual = new Totals();
+            try {
+                for (Object[] row : productRepository.findStockLevels()) {
+                    Stock stock = new Stock(((Number) row[1]).intValue(), ((Number) row[2]).intValue(),
+                            ((Number) row[3]).doubleValue());
+                    rows.put((Long) row[0], stock);
+                    actual.apply(stock, 1);
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    changedDuringReconcile = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                for (Map.Entry<Long, Stock> changed : changedDuringReconcile.entrySet()) {
+                    Stock read = rows.get(changed.getKey());
+                    if (read != null) actual.apply(read, -1);
+                    if (changed.getValue() != REMOVED) actual.apply(changed.getValue(), 1);
+                }
+                changedDuringReconcile = null;
+
+                Map<String, Object> drift = new HashMap<>();
+                drift.put("totalProducts", actual.totalProducts - totals.totalProducts);
+                drift.put("totalInventoryValue", actual.totalInventoryValue - totals.totalInventoryValue);
+                drift.put("lowStockProducts", actual.lowStockProducts - totals.lowStockProducts);
+                drift.put("outOfStockProducts", actual.outOfStockProducts - totals.outOfStockProducts);
+                drift.put("lowStockAlerts", actual.lowStockAlerts - totals.lowStockAlerts);
+
+                boolean drifted = actual.totalProducts != totals.totalProducts
+                        || Math.abs(actual.totalInventoryValue - totals.totalInventoryValue) > VALUE_DRIFT_TOLERANCE
+                        || actual.lowStockProducts != totals.lowStockProducts
+                        || actual.outOfStockProducts != totals.outOfStockProducts
+                        || actual.lowStockAlerts != totals.lowStockAlerts;
+                if (drifted && totals.totalProducts != 0) {
+                    System.out.println("Inventory metrics drift corrected: " + drift);
+                }
+
+                totals = actual;
+                return drift;
+            }
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    // Both halves of a change under one lock so readers never see it half-applied; null means absent
+    private synchronized void change(Long productId, Stock before, Stock after) {
+        if (before != null) totals.apply(before, -1);
+        if (after != null) totals.apply(after, 1);
+        if (changedDuringReconcile != null) {
+            changedDuringReconcile.put(productId, after != null ? after : REMOVED);
+        }
+    }
+}
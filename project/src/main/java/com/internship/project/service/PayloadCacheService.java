@@ -0,0 +1,112 @@
+package com.internship.project.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches analytics and forecast responses as already-serialized bytes (JSON or a binary series form,
+ * plus a gzip copy for larger payloads), so a cache hit is written straight to the response without Jackson.
+ */
+@Service
+public class PayloadCacheService {
+
+    public static final String FORECAST_PREFIX = "forecast:";
+    public static final String TRENDS_PREFIX = "trends:";
+
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final int MAX_ENTRIES = 500;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Access-ordered, so the least recently used payload is evicted first when full
+    private final LinkedHashMap<String, CachedPayload> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPayload> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public record CachedPayload(byte[] body, byte[] gzip, MediaType contentType, long expiresAt) {
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+
+        /**
+         * Write the cached bytes as the response body, gzipped when the client accepts it.
+         */
+        public ResponseEntity<byte[]> toResponse(String acceptEncoding) {
+            boolean useGzip = gzip != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(contentType)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (useGzip) {
+                return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+            }
+            return builder.body(body);
+        }
+    }
+
+    public CachedPayload getOrCompute(String key, Duration ttl, Supplier<Object> supplier) {
+        return getOrComputeBytes(key, ttl, MediaType.APPLICATION_JSON, () -> toJson(supplier.get()));
+    }
+
+    /**
+     * Cache an already-encoded body (e.g. a binary series) under the given content type.
+     */
+    public CachedPayload getOrComputeBytes(String key, Duration ttl, MediaType contentType, Supplier<byte[]> supplier) {
+        CachedPayload cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        byte[] body = supplier.get();
+        CachedPayload payload = new CachedPayload(body, body.length >= GZIP_MIN_BYTES ? gzip(body) : null,
+                contentType, System.currentTimeMillis() + ttl.toMillis());
+        synchronized (cache) {
+            cache.put(key, payload);
+        }
+        return payload;
+    }
+
+    public void invalidate(String prefix) {
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize payload: " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(data);
+        } catch (IOException e) {
+            return null;
+        }
+        return out.toByteArray();
+    }
+}
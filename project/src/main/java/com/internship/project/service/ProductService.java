@@ -21,6 +21,12 @@ public class ProductService {
     @Autowired
     private ProductRepository repo;
 
+    @Autowired
+    private InventoryMetricsService inventoryMetricsService;
+
+    @Autowired
+    private StockoutRiskIndexService stockoutRiskIndexService;
+
     private final String UPLOAD_DIR = "uploads/";
 
     public List<Product> getAllProducts() {
@@ -57,11 +63,18 @@ public class ProductService {
             System.out.println("Image saved: " + filePath.toAbsolutePath());
         }
 
-        return repo.save(product);
+        Product saved = repo.save(product);
+        inventoryMetricsService.productAdded(saved);
+        stockoutRiskIndexService.productChanged(saved);
+        return saved;
     }
 
     public Optional<Product> updateProduct(Long id, Product updated, MultipartFile imageFile) throws IOException {
         return repo.findById(id).map(existing -> {
+            int oldQuantity = existing.getQuantity();
+            int oldThreshold = existing.getReorderThreshold();
+            double oldPrice = existing.getPrice();
+
             existing.setName(updated.getName());
             existing.setDescription(updated.getDescription());
             existing.setQuantity(updated.getQuantity());
@@ -102,7 +115,10 @@ public class ProductService {
                 }
             }
 
-            return repo.save(existing);
+            Product saved = repo.save(existing);
+            inventoryMetricsService.productUpdated(oldQuantity, oldThreshold, oldPrice, saved);
+            stockoutRiskIndexService.productChanged(saved);
+            return saved;
         });
     }
 
@@ -119,6 +135,8 @@ public class ProductService {
                 }
             }
             repo.deleteById(id);
+            inventoryMetricsService.productRemoved(product.get());
+            stockoutRiskIndexService.productRemoved(id);
             return true;
         }
         return false;
@@ -7,15 +7,30 @@ import com.internship.project.repository.ProductRepository;
 import com.internship.project.repository.PurchaseOrderRepository;
 import com.internship.project.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class PurchaseOrderService {
 
+    private static final String APPROVE_ORDERS_SQL = "UPDATE purchase_orders SET status = 'APPROVED', version = version + 1 " +
+            "WHERE id = ANY(?::bigint[]) AND status = 'PENDING' RETURNING id";
+
     @Autowired
     private PurchaseOrderRepository purchaseOrderRepository;
 
@@ -28,6 +43,15 @@ public class PurchaseOrderService {
     @Autowired
     private SalesRecordService salesRecordService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${purchase-orders.bulk.max-orders:10000}")
+    private int bulkMaxOrders;
+
     public PurchaseOrder createManualPurchaseOrder(Long productId, Long buyerId, int quantity, String notes) {
         Optional<Product> productOpt = productRepository.findById(productId);
         Optional<User> buyerOpt = userRepository.findById(buyerId);
@@ -58,14 +82,34 @@ public class PurchaseOrderService {
     }
 
     public PurchaseOrder approveOrder(Long orderId) {
-        Optional<PurchaseOrder> orderOpt = purchaseOrderRepository.findById(orderId);
+        return transitionOrder(orderId, "APPROVED");
+    }
 
-        if (orderOpt.isPresent()) {
-            PurchaseOrder order = orderOpt.get();
-            order.setStatus("APPROVED");
-            return purchaseOrderRepository.save(order);
+    public PurchaseOrder cancelOrder(Long orderId) {
+        return transitionOrder(orderId, "CANCELLED");
+    }
+
+    /**
+     * Move an order to target if PurchaseOrder.TRANSITIONS allows it. The update only applies while the order
+     * is still in the status it was read with; if another writer moved it in between, re-read and decide again.
+     * An order already in target is returned unchanged.
+     */
+    private PurchaseOrder transitionOrder(Long orderId, String target) {
+        while (true) {
+            PurchaseOrder order = purchaseOrderRepository.findById(orderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+            String current = order.getStatus();
+            if (current.equals(target)) {
+                return order;
+            }
+            if (!PurchaseOrder.canTransition(current, target)) {
+                throw PurchaseOrder.illegalTransition(orderId, current, target);
+            }
+            // Statuses only move forward, so this loop ends after at most a few rounds
+            if (purchaseOrderRepository.transition(orderId, current, target) == 1) {
+                return purchaseOrderRepository.findById(orderId).orElseThrow();
+            }
         }
-        throw new IllegalArgumentException("Order not found");
     }
 
     public PurchaseOrder completeOrder(Long orderId) {
@@ -73,6 +117,82 @@ public class PurchaseOrderService {
         return purchaseOrderRepository.findById(orderId).orElse(null);
     }
 
+    /**
+     * Approve the given PENDING orders, or every PENDING order matching the filter when orderIds is empty,
+     * with one conditional update in one transaction.
+     */
+    public Map<String, Object> bulkApprove(List<Long> orderIds, Long buyerId, Long productId,
+                                           Boolean autoTriggered, LocalDateTime orderedBefore) {
+        long start = System.currentTimeMillis();
+        List<Long> ids = resolveBulkIds(orderIds, "PENDING", buyerId, productId, autoTriggered, orderedBefore);
+        Set<Long> approved = ids.isEmpty() ? Set.of() : transactionTemplate.execute(status -> new HashSet<>(
+                jdbcTemplate.queryForList(APPROVE_ORDERS_SQL, Long.class, (Object) ids.toArray(new Long[0]))));
+        return bulkResult("APPROVED", ids, approved, start);
+    }
+
+    /**
+     * Complete the given APPROVED orders, or every APPROVED order matching the filter when orderIds is empty,
+     * adding their stock and recording their shipments in one transaction.
+     */
+    public Map<String, Object> bulkComplete(List<Long> orderIds, Long buyerId, Long productId,
+                                            Boolean autoTriggered, LocalDateTime orderedBefore) {
+        long start = System.currentTimeMillis();
+        List<Long> ids = resolveBulkIds(orderIds, "APPROVED", buyerId, productId, autoTriggered, orderedBefore);
+        return bulkResult("COMPLETED", ids, salesRecordService.completePurchaseOrders(ids), start);
+    }
+
+    private List<Long> resolveBulkIds(List<Long> orderIds, String status, Long buyerId, Long productId,
+                                      Boolean autoTriggered, LocalDateTime orderedBefore) {
+        List<Long> ids = orderIds != null && !orderIds.isEmpty()
+                ? new ArrayList<>(new LinkedHashSet<>(orderIds))
+                : purchaseOrderRepository.findIdsForBulk(status, buyerId, productId, autoTriggered, orderedBefore,
+                PageRequest.of(0, bulkMaxOrders + 1));
+        if (ids.size() > bulkMaxOrders) {
+            throw new IllegalArgumentException("At most " + bulkMaxOrders + " orders can be processed at once");
+        }
+        return ids;
+    }
+
+    // Per-order outcome: done, SKIPPED (with the status that blocked it) or NOT_FOUND
+    private Map<String, Object> bulkResult(String outcome, List<Long> ids, Set<Long> done, long start) {
+        List<Long> notDone = ids.stream().filter(id -> !done.contains(id)).collect(Collectors.toList());
+        Map<Long, String> statuses = new HashMap<>();
+        if (!notDone.isEmpty()) {
+            for (Object[] row : purchaseOrderRepository.findStatusesByIds(notDone)) {
+                statuses.put((Long) row[0], (String) row[1]);
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(ids.size());
+        int skipped = 0;
+        int notFound = 0;
+        for (Long id : ids) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("orderId", id);
+            if (done.contains(id)) {
+                result.put("result", outcome);
+                result.put("status", outcome);
+            } else if (statuses.containsKey(id)) {
+                result.put("result", "SKIPPED");
+                result.put("status", statuses.get(id));
+                skipped++;
+            } else {
+                result.put("result", "NOT_FOUND");
+                notFound++;
+            }
+            results.add(result);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("requested", ids.size());
+        response.put("succeeded", done.size());
+        response.put("skipped", skipped);
+        response.put("notFound", notFound);
+        response.put("durationMs", System.currentTimeMillis() - start);
+        response.put("results", results);
+        return response;
+    }
+
     public List<PurchaseOrder> getAutoTriggeredOrders() {
         return purchaseOrderRepository.findByAutoTriggeredTrue();
     }
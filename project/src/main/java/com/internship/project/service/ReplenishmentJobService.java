@@ -0,0 +1,398 @@
+package com.internship.project.service;
+
+import com.internship.project.entity.ReplenishmentJob;
+import com.internship.project.entity.ReplenishmentJobResult;
+import com.internship.project.repository.ReplenishmentJobRepository;
+import com.internship.project.repository.ReplenishmentJobResultRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs replenishment sweeps as background jobs so no request thread waits on Gemini. A submitted job
+ * gets an id straight away, runs on a small bounded pool, stores each product's result as it arrives,
+ * and reports progress by polling or Server-Sent Events until it completes or is cancelled.
+ * Jobs belong to the instance that accepted them, which keeps their heartbeat fresh; any instance
+ * fails jobs whose heartbeat went stale, so a stopped instance never leaves them RUNNING.
+ */
+@Service
+public class ReplenishmentJobService {
+
+    private static final long STREAM_TIMEOUT_MS = 60 * 60 * 1000L;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private SmartReplenishmentService smartReplenishmentService;
+
+    @Autowired
+    private ReplenishmentJobRepository replenishmentJobRepository;
+
+    @Autowired
+    private ReplenishmentJobResultRepository replenishmentJobResultRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${ai.replenishment.batch-size:20}")
+    private int defaultBatchSize;
+
+    @Value("${ai.replenishment.jobs.max-concurrent:2}")
+    private int maxConcurrentJobs;
+
+    // Jobs waiting for a free worker; submissions beyond this are rejected
+    @Value("${ai.replenishment.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    // An unfinished job whose heartbeat is older than this is taken to have lost its instance
+    @Value("${ai.replenishment.jobs.stale-after-ms:120000}")
+    private long staleAfterMs;
+
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    private ThreadPoolExecutor jobExecutor;
+
+    private final Map<Long, RunningJob> running = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "replenishment-job-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Integer failed = transactionTemplate.execute(status -> replenishmentJobRepository.failStale(
+                    now.minus(staleAfterMs, ChronoUnit.MILLIS), "Interrupted: its instance stopped", now));
+            if (failed != null && failed > 0) {
+                System.out.println("Marked " + failed + " interrupted replenishment jobs as FAILED");
+            }
+        } catch (Exception e) {
+            System.err.println("Could not clean up replenishment jobs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Keep this instance's jobs alive and fail other instances' jobs that stopped reporting.
+     */
+    @Scheduled(fixedDelayString = "${ai.replenishment.jobs.heartbeat-ms:30000}")
+    public void heartbeat() {
+        try {
+            if (!running.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> replenishmentJobRepository.heartbeat(
+                        running.keySet(), instanceId, LocalDateTime.now()));
+            }
+        } catch (Exception e) {
+            System.err.println("Could not send replenishment job heartbeat: " + e.getMessage());
+        }
+        failInterruptedJobs();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running.values().forEach(job -> job.cancelled = true);
+        jobExecutor.shutdown();
+    }
+
+    /**
+     * Queue a sweep of the whole catalog, or of the given products only, and return the job.
+     */
+    public Map<String, Object> submit(Integer batchSize, List<Long> productIds) {
+        int size = batchSize != null ? batchSize : defaultBatchSize;
+        if (size < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        String ids = productIds == null || productIds.isEmpty() ? null
+                : productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        if (ids != null && ids.length() > 2000) {
+            throw new IllegalArgumentException("Too many product ids for one job");
+        }
+
+        ReplenishmentJob job = replenishmentJobRepository.save(new ReplenishmentJob(size, ids, instanceId));
+        RunningJob runningJob = new RunningJob(job.getId());
+        running.put(job.getId(), runningJob);
+        try {
+            runningJob.future = jobExecutor.submit(() -> run(runningJob, productIds));
+        } catch (RejectedExecutionException e) {
+            running.remove(job.getId());
+            job.setStatus("FAILED");
+            job.setError("Job queue full");
+            job.setFinishedAt(LocalDateTime.now());
+            replenishmentJobRepository.save(job);
+            throw new IllegalStateException("Too many replenishment jobs queued, try again later");
+        }
+        return toView(job, runningJob);
+    }
+
+    public Map<String, Object> getJob(Long jobId) {
+        return toView(findJob(jobId), running.get(jobId));
+    }
+
+    public Map<String, Object> listJobs(int page, int size) {
+        checkPage(page, size);
+        Page<ReplenishmentJob> jobs = replenishmentJobRepository.findAllByOrderByIdDesc(PageRequest.of(page, size));
+        return pageResponse(jobs, jobs.getContent().stream()
+                .map(job -> toView(job, running.get(job.getId())))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Stored per-product results of a job, in the order they completed.
+     */
+    public Map<String, Object> getResults(Long jobId, int page, int size) {
+        checkPage(page, size);
+        findJob(jobId);
+        Page<ReplenishmentJobResult> results = replenishmentJobResultRepository.findByJobIdOrderByIdAsc(jobId,
+                PageRequest.of(page, size));
+        return pageResponse(results, results.getContent());
+    }
+
+    /**
+     * Stop a job. A queued job never starts; a running one stops scheduling products, and calls already
+     * in flight finish and are stored.
+     */
+    public Map<String, Object> cancel(Long jobId) {
+        ReplenishmentJob job = findJob(jobId);
+        RunningJob runningJob = running.get(jobId);
+        if (runningJob == null) {
+            if (job.isUnfinished()) throw runningElsewhere(job);
+            throw new IllegalStateException("Job " + jobId + " has already finished with status " + job.getStatus());
+        }
+        runningJob.cancelled = true;
+        if (runningJob.future != null && runningJob.future.cancel(false)) {
+            // Still queued, so run() will not get to finish it
+            finish(runningJob, "CANCELLED", null);
+        }
+        return getJob(jobId);
+    }
+
+    /**
+     * Stream "progress" and "result" events for a running job, then "complete" with the final job state.
+     */
+    public SseEmitter subscribe(Long jobId) {
+        ReplenishmentJob job = findJob(jobId);
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        RunningJob runningJob = running.get(jobId);
+        try {
+            if (runningJob == null && job.isUnfinished()) {
+                emitter.completeWithError(runningElsewhere(job));
+                return emitter;
+            }
+            if (runningJob == null) {
+                emitter.send(SseEmitter.event().name("complete").data(toView(job, null)));
+                emitter.complete();
+                return emitter;
+            }
+            runningJob.emitters.add(emitter);
+            emitter.onCompletion(() -> runningJob.emitters.remove(emitter));
+            emitter.onTimeout(() -> runningJob.emitters.remove(emitter));
+            emitter.onError(error -> runningJob.emitters.remove(emitter));
+            send(emitter, "progress", runningJob.progress());
+
+            // The job may have finished between the lookup and registering the emitter
+            if (!running.containsKey(jobId)) {
+                runningJob.emitters.remove(emitter);
+                send(emitter, "complete", getJob(jobId));
+                emitter.complete();
+            }
+        } catch (Exception e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    private void run(RunningJob runningJob, List<Long> productIds) {
+        if (runningJob.cancelled) {
+            finish(runningJob, "CANCELLED", null);
+            return;
+        }
+        ReplenishmentJob job = findJob(runningJob.jobId);
+        job.setStatus("RUNNING");
+        job.setStartedAt(LocalDateTime.now());
+        replenishmentJobRepository.save(job);
+        broadcast(runningJob, "progress", runningJob.progress());
+
+        try {
+            smartReplenishmentService.checkAllProductsForReplenishment(job.getBatchSize(), productIds, runningJob);
+            finish(runningJob, runningJob.cancelled ? "CANCELLED" : "COMPLETED", null);
+        } catch (Exception e) {
+            System.err.println("Replenishment job " + runningJob.jobId + " failed: " + e.getMessage());
+            finish(runningJob, "FAILED", e.getMessage());
+        }
+    }
+
+    private void finish(RunningJob runningJob, String status, String error) {
+        ReplenishmentJob job = findJob(runningJob.jobId);
+        job.setStatus(status);
+        job.setError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+        job.setTotalProducts(runningJob.total.get());
+        job.setProcessedProducts(runningJob.processed.get());
+        job.setFailedProducts(runningJob.failed.get());
+        job.setAutoTriggered(runningJob.autoTriggered.get());
+        job.setFinishedAt(LocalDateTime.now());
+        replenishmentJobRepository.save(job);
+        running.remove(runningJob.jobId);
+
+        Map<String, Object> view = toView(job, null);
+        for (SseEmitter emitter : runningJob.emitters) {
+            synchronized (emitter) {
+                send(emitter, "complete", view);
+                emitter.complete();
+            }
+        }
+        System.out.println("Replenishment job " + job.getId() + " " + status + ": " + runningJob.processed.get()
+                + "/" + runningJob.total.get() + " products");
+    }
+
+    // Live progress of a job this instance is running; results are stored as they arrive
+    private final class RunningJob implements SmartReplenishmentService.SweepListener {
+        private final Long jobId;
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger autoTriggered = new AtomicInteger();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+
+        private RunningJob(Long jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void onPlanned(int products) {
+            total.set(products);
+            broadcast(this, "progress", progress());
+        }
+
+        @Override
+        public void onResult(Map<String, Object> recommendation) {
+            try {
+                replenishmentJobResultRepository.save(ReplenishmentJobResult.of(jobId, recommendation));
+            } catch (Exception e) {
+                System.err.println("Could not store result for job " + jobId + ": " + e.getMessage());
+            }
+            processed.incrementAndGet();
+            if (recommendation.containsKey("error")) failed.incrementAndGet();
+            if (Boolean.TRUE.equals(recommendation.get("autoTriggered"))) autoTriggered.incrementAndGet();
+            broadcast(this, "result", recommendation);
+            broadcast(this, "progress", progress());
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private Map<String, Object> progress() {
+            Map<String, Object> progress = new HashMap<>();
+            progress.put("jobId", jobId);
+            progress.put("totalProducts", total.get());
+            progress.put("processedProducts", processed.get());
+            progress.put("failedProducts", failed.get());
+            progress.put("autoTriggered", autoTriggered.get());
+            progress.put("percentComplete", total.get() > 0 ? Math.round(processed.get() * 1000.0 / total.get()) / 10.0 : 0.0);
+            return progress;
+        }
+    }
+
+    private void broadcast(RunningJob runningJob, String event, Object data) {
+        for (SseEmitter emitter : runningJob.emitters) {
+            // Results arrive from many threads; an emitter must not be written concurrently
+            synchronized (emitter) {
+                send(emitter, event, data);
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (Exception e) {
+            System.err.println("Could not stream replenishment job event: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> toView(ReplenishmentJob job, RunningJob runningJob) {
+        Map<String, Object> view = new HashMap<>();
+        view.put("id", job.getId());
+        view.put("status", runningJob != null && runningJob.cancelled ? "CANCELLING" : job.getStatus());
+        view.put("batchSize", job.getBatchSize());
+        view.put("productIds", job.getProductIds());
+        view.put("createdAt", job.getCreatedAt());
+        view.put("startedAt", job.getStartedAt());
+        view.put("finishedAt", job.getFinishedAt());
+        view.put("error", job.getError());
+        view.put("owner", job.getOwner());
+        if (runningJob != null) {
+            view.putAll(runningJob.progress());
+            view.remove("jobId");
+        } else {
+            view.put("totalProducts", job.getTotalProducts());
+            view.put("processedProducts", job.getProcessedProducts());
+            view.put("failedProducts", job.getFailedProducts());
+            view.put("autoTriggered", job.getAutoTriggered());
+            view.put("percentComplete", job.getTotalProducts() > 0
+                    ? Math.round(job.getProcessedProducts() * 1000.0 / job.getTotalProducts()) / 10.0 : 0.0);
+        }
+        return view;
+    }
+
+    // Live progress and cancellation only exist on the instance running the job
+    private IllegalStateException runningElsewhere(ReplenishmentJob job) {
+        return new IllegalStateException("Job " + job.getId() + " is " + job.getStatus() + " on instance "
+                + job.getOwner() + ", not this one; use that instance to follow or cancel it");
+    }
+
+    private ReplenishmentJob findJob(Long jobId) {
+        return replenishmentJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Replenishment job not found: " + jobId));
+    }
+
+    private void checkPage(int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private Map<String, Object> pageResponse(Page<?> page, List<?> content) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("page", page.getNumber());
+        response.put("size", page.getSize());
+        response.put("totalElements", page.getTotalElements());
+        response.put("totalPages", page.getTotalPages());
+        return response;
+    }
+}
@@ -0,0 +1,115 @@
+package com.internship.project.service;
+
+import com.internship.project.dto.SalesVelocity;
+import com.internship.project.repository.SalesRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Loads sales history for the whole catalog in one streamed, pre-aggregated query
+ * instead of one query per product.
+ */
+@Service
+public class SalesHistoryService {
+
+    @Autowired
+    private SalesRecordRepository salesRecordRepository;
+
+    /**
+     * 7, 30 and 90-day velocity for the given products in one grouped query; products without sales
+     * in the last 90 days get SalesVelocity.NONE. Reads only the window, however long the history is.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, SalesVelocity> loadSalesVelocity(Collection<Long> productIds) {
+        Map<Long, SalesVelocity> velocity = new HashMap<>();
+        if (productIds.isEmpty()) return velocity;
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : salesRecordRepository.findSalesVelocity(productIds,
+                now.minusDays(7), now.minusDays(30), now.minusDays(90))) {
+            velocity.put((Long) row[0], new SalesVelocity(
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(),
+                    ((Number) row[3]).longValue(),
+                    ((Number) row[4]).longValue(),
+                    (LocalDateTime) row[5]));
+        }
+        for (Long productId : productIds) {
+            velocity.putIfAbsent(productId, SalesVelocity.NONE);
+        }
+        return velocity;
+    }
+
+    public SalesVelocity loadSalesVelocity(Long productId) {
+        return loadSalesVelocity(List.of(productId)).get(productId);
+    }
+
+    /**
+     * Daily SALE units per product for the given number of days ending today.
+     * Each array is indexed by day offset from startDay; products without sales are absent.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, double[]> loadDailySales(LocalDate startDay, int days) {
+        Map<Long, double[]> history = new HashMap<>();
+
+        try (Stream<Object[]> rows = salesRecordRepository.streamDailySalesByProduct(startDay.atStartOfDay())) {
+            rows.forEach(row -> {
+                Long productId = (Long) row[0];
+                int dayIndex = (int) ChronoUnit.DAYS.between(startDay, (LocalDate) row[1]);
+                if (dayIndex < 0 || dayIndex >= days) return;
+
+                history.computeIfAbsent(productId, id -> new double[days])[dayIndex] += ((Number) row[2]).doubleValue();
+            });
+        }
+        return history;
+    }
+
+    /**
+     * Daily SALE units per warehouse and product, loaded in one grouped query.
+     * Same indexing as loadDailySales; rows without a warehouse are reported as "Unassigned".
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Map<Long, double[]>> loadDailySalesByWarehouse(LocalDate startDay, int days) {
+        Map<String, Map<Long, double[]>> history = new HashMap<>();
+        forEachDailySale(startDay, (productId, warehouse, day, units) -> {
+            int dayIndex = (int) ChronoUnit.DAYS.between(startDay, day);
+            if (dayIndex < 0 || dayIndex >= days) return;
+
+            history.computeIfAbsent(warehouse, w -> new HashMap<>())
+                    .computeIfAbsent(productId, id -> new double[days])[dayIndex] += units;
+        });
+        return history;
+    }
+
+    /**
+     * Consumer for per-product, per-warehouse daily sales rows.
+     */
+    public interface DailySalesConsumer {
+        void accept(long productId, String warehouse, LocalDate day, double units);
+    }
+
+    /**
+     * Stream daily SALE units per product and warehouse since startDay, ordered by product, warehouse and day.
+     * Rows without a warehouse are reported as "Unassigned".
+     */
+    @Transactional(readOnly = true)
+    public void forEachDailySale(LocalDate startDay, DailySalesConsumer consumer) {
+        try (Stream<Object[]> rows = salesRecordRepository.streamDailySalesByProductAndWarehouse(startDay.atStartOfDay())) {
+            rows.forEach(row -> consumer.accept(
+                    (Long) row[0],
+                    SalesRollupService.warehouseKey((String) row[1]),
+                    (LocalDate) row[2],
+                    ((Number) row[3]).doubleValue()));
+        }
+    }
+}
@@ -3,23 +3,51 @@ package com.internship.project.service;
 import com.internship.project.entity.Product;
 import com.internship.project.entity.PurchaseOrder;
 import com.internship.project.entity.SalesRecord;
-import com.internship.project.entity.User;
+import com.internship.project.event.StockMovementEvent;
 import com.internship.project.repository.ProductRepository;
 import com.internship.project.repository.PurchaseOrderRepository;
 import com.internship.project.repository.SalesRecordRepository;
-import com.internship.project.repository.UserRepository;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class SalesRecordService {
 
+    private static final int SHIPMENT_BATCH_SIZE = 1000;
+
+    // Stock changes are single conditional updates returning the new level, so concurrent movements
+    // of one product never overwrite each other and a sale can never take stock below zero
+    private static final String INCREASE_STOCK_SQL = "UPDATE products SET quantity = quantity + ? WHERE id = ? RETURNING quantity";
+    private static final String DECREASE_STOCK_SQL = "UPDATE products SET quantity = quantity - ? " +
+            "WHERE id = ? AND quantity >= ? RETURNING quantity";
+
+    // Set-based statements for bulk completion; arrays are bound as PostgreSQL bigint[]/int[]
+    private static final String COMPLETE_ORDERS_SQL = "UPDATE purchase_orders SET status = 'COMPLETED', " +
+            "completion_date = ?, version = version + 1 WHERE id = ANY(?::bigint[]) AND status = 'APPROVED' RETURNING id, product_id, quantity";
+    private static final String ADD_STOCK_SQL = "UPDATE products p SET quantity = p.quantity + d.delta " +
+            "FROM unnest(?::bigint[], ?::int[]) AS d(id, delta) WHERE p.id = d.id RETURNING p.id, p.quantity";
+    private static final String SHIPMENT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('sales_records', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERT_SHIPMENT_SQL = "INSERT INTO sales_records (id, product_id, quantity_sold, " +
+            "total_amount, sale_date, warehouse_location, transaction_type, handler_name) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private SalesRecordRepository salesRecordRepository;
 
@@ -30,153 +58,188 @@ public class SalesRecordService {
     private PurchaseOrderRepository purchaseOrderRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private record CompletedOrder(long orderId, long productId, int quantity) {
+    }
 
     /**
      * Records a shipment (Stock-In) and updates product quantity.
      */
     public SalesRecord recordStockInShipment(Long productId, int quantity, String warehouseLocation, String handlerName) {
-        Optional<Product> productOpt = productRepository.findById(productId);
-
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-
-            // Create shipment record with type "SHIPMENT"
-            SalesRecord shipmentRecord = new SalesRecord(product, quantity, warehouseLocation, "SHIPMENT", handlerName);
-            SalesRecord savedRecord = salesRecordRepository.save(shipmentRecord);
-
-            // Update product quantity (add new stock)
-            product.setQuantity(product.getQuantity() + quantity);
-            productRepository.save(product);
-
-            return savedRecord;
-        } else {
-            throw new IllegalArgumentException("Product not found with ID: " + productId);
-        }
+        return recordStockIn(productId, quantity, warehouseLocation, handlerName, "SHIPMENT");
     }
 
     /**
      * Records a sale (Stock-Out) and updates product quantity.
      */
     public SalesRecord recordStockOut(Long productId, int quantity, String warehouseLocation, String handlerName) {
-        Optional<Product> productOpt = productRepository.findById(productId);
-
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-
-            // Check if enough stock is available
-            if (product.getQuantity() >= quantity) {
-                // Create sales record with type "SALE"
-                SalesRecord salesRecord = new SalesRecord(product, quantity, warehouseLocation, "SALE", handlerName);
-                SalesRecord savedRecord = salesRecordRepository.save(salesRecord);
-
-                // Update product quantity (decrement stock)
-                product.setQuantity(product.getQuantity() - quantity);
-                productRepository.save(product);
+        StockMovementEvent event = transactionTemplate.execute(status -> {
+            Integer quantityAfter = updateStock(DECREASE_STOCK_SQL, quantity, productId, quantity);
+            Optional<Product> productOpt = productRepository.findById(productId);
+            if (productOpt.isEmpty()) {
+                throw new IllegalArgumentException("Product not found with ID: " + productId);
+            }
+            if (quantityAfter == null) {
+                throw new IllegalArgumentException("Insufficient stock for product: " + productOpt.get().getName());
+            }
 
-                // Check for auto-replenishment after stock out
-                checkAndTriggerAutoReplenishment(product);
+            SalesRecord savedRecord = salesRecordRepository.save(
+                    new SalesRecord(productOpt.get(), quantity, warehouseLocation, "SALE", handlerName));
+            return new StockMovementEvent(savedRecord, quantityAfter + quantity, quantityAfter);
+        });
 
-                return savedRecord;
-            } else {
-                throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
-            }
-        } else {
-            throw new IllegalArgumentException("Product not found with ID: " + productId);
-        }
+        // Listeners include auto-replenishment when this leaves stock low
+        eventPublisher.publishEvent(event);
+        return event.record();
     }
 
     /**
      * Records a return (Stock-In) and updates product quantity.
      */
     public SalesRecord recordStockInReturn(Long productId, int quantity, String warehouseLocation, String handlerName) {
-        Optional<Product> productOpt = productRepository.findById(productId);
+        return recordStockIn(productId, quantity, warehouseLocation, handlerName, "RETURN");
+    }
 
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
+    private SalesRecord recordStockIn(Long productId, int quantity, String warehouseLocation, String handlerName,
+                                      String transactionType) {
+        StockMovementEvent event = transactionTemplate.execute(status -> {
+            Integer quantityAfter = updateStock(INCREASE_STOCK_SQL, quantity, productId);
+            if (quantityAfter == null) {
+                throw new IllegalArgumentException("Product not found with ID: " + productId);
+            }
+            Product product = productRepository.findById(productId).orElseThrow();
 
-            // Create return record with type "RETURN"
-            SalesRecord returnRecord = new SalesRecord(product, quantity, warehouseLocation, "RETURN", handlerName);
-            SalesRecord savedRecord = salesRecordRepository.save(returnRecord);
+            SalesRecord savedRecord = salesRecordRepository.save(
+                    new SalesRecord(product, quantity, warehouseLocation, transactionType, handlerName));
+            return new StockMovementEvent(savedRecord, quantityAfter - quantity, quantityAfter);
+        });
 
-            // Update product quantity (add back returned items)
-            product.setQuantity(product.getQuantity() + quantity);
-            productRepository.save(product);
+        eventPublisher.publishEvent(event);
+        return event.record();
+    }
 
-            return savedRecord;
-        } else {
-            throw new IllegalArgumentException("Product not found with ID: " + productId);
-        }
+    // New stock level from a RETURNING update, or null when no row matched
+    private Integer updateStock(String sql, Object... args) {
+        List<Integer> quantities = jdbcTemplate.queryForList(sql, Integer.class, args);
+        return quantities.isEmpty() ? null : quantities.get(0);
     }
 
     /**
-     * Check and trigger auto-replenishment when stock is low
+     * Complete a purchase order and update stock. The APPROVED -> COMPLETED update is conditional, so when
+     * several callers complete the same order at once only the one whose update applies adds stock.
+     * An order that is already COMPLETED is left as is; any other status cannot be completed.
      */
-    private void checkAndTriggerAutoReplenishment(Product product) {
-        // Check if stock is 2 less than threshold
-        if (product.getQuantity() <= (product.getReorderThreshold() - 2)) {
-            // Find a buyer to assign this purchase order
-            List<User> buyers = userRepository.findAll().stream()
-                    .filter(user -> user.getRole() == User.Role.BUYER)
-                    .collect(Collectors.toList());
-
-            if (!buyers.isEmpty()) {
-                User buyer = buyers.get(0); // Assign to first available buyer
-
-                // Calculate replenishment quantity (threshold + safety stock)
-                int replenishQuantity = product.getReorderThreshold() + 10;
-
-                // Create auto-triggered purchase order
-                PurchaseOrder autoOrder = new PurchaseOrder(product, buyer, replenishQuantity, true);
-                autoOrder.setStatus("APPROVED"); // Auto-approve for immediate processing
-                autoOrder.setSupplierInfo("Auto-generated supplier");
-                autoOrder.setNotes("Automatically triggered replenishment for product: " + product.getName() +
-                        ". Current stock: " + product.getQuantity() + ", Threshold: " + product.getReorderThreshold());
-
-                purchaseOrderRepository.save(autoOrder);
-
-                System.out.println("Auto-replenishment triggered for product: " + product.getName() +
-                        ", Quantity: " + replenishQuantity);
-
-                // Auto-complete the purchase order (simulate instant buying)
-                completePurchaseOrder(autoOrder.getId());
+    public void completePurchaseOrder(Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        StockMovementEvent event = transactionTemplate.execute(status -> {
+            List<CompletedOrder> completed = jdbcTemplate.query(COMPLETE_ORDERS_SQL,
+                    (rs, row) -> new CompletedOrder(rs.getLong(1), rs.getLong(2), rs.getInt(3)),
+                    Timestamp.valueOf(now), new Long[]{orderId});
+            if (completed.isEmpty()) {
+                String current = purchaseOrderRepository.findById(orderId).map(PurchaseOrder::getStatus)
+                        .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+                if ("COMPLETED".equals(current)) return null;
+                throw PurchaseOrder.illegalTransition(orderId, current, "COMPLETED");
+            }
+
+            // The product is loaded only after the stock update, so it carries the new quantity
+            CompletedOrder order = completed.get(0);
+            Integer quantityAfter = updateStock(INCREASE_STOCK_SQL, order.quantity(), order.productId());
+            if (quantityAfter == null) {
+                throw new IllegalArgumentException("Product not found with ID: " + order.productId());
             }
+            Product product = productRepository.findById(order.productId()).orElseThrow();
+
+            // Record this as a shipment
+            SalesRecord shipmentRecord = new SalesRecord(
+                    product,
+                    order.quantity(),
+                    "Main Warehouse",
+                    "SHIPMENT",
+                    "Auto-Buyer System"
+            );
+            SalesRecord savedShipment = salesRecordRepository.save(shipmentRecord);
+            return new StockMovementEvent(savedShipment, quantityAfter - order.quantity(), quantityAfter);
+        });
+
+        if (event != null) {
+            eventPublisher.publishEvent(event);
+            System.out.println("Purchase order completed and stock updated for: " + event.product().getName());
         }
     }
 
     /**
-     * Complete a purchase order and update stock
+     * Complete many approved orders in one transaction: one conditional status update for all of them,
+     * one stock increment per product and a batched insert of their shipments. Orders that are not
+     * APPROVED when the update runs are left alone. Returns the ids that were completed.
      */
-    public void completePurchaseOrder(Long orderId) {
-        Optional<PurchaseOrder> orderOpt = purchaseOrderRepository.findById(orderId);
-
-        if (orderOpt.isPresent()) {
-            PurchaseOrder order = orderOpt.get();
-
-            if ("APPROVED".equals(order.getStatus())) {
-                // Update product stock
-                Product product = order.getProduct();
-                product.setQuantity(product.getQuantity() + order.getQuantity());
-                productRepository.save(product);
-
-                // Update order status
-                order.setStatus("COMPLETED");
-                order.setCompletionDate(LocalDateTime.now());
-                purchaseOrderRepository.save(order);
-
-                // Record this as a shipment
-                SalesRecord shipmentRecord = new SalesRecord(
-                        product,
-                        order.getQuantity(),
-                        "Main Warehouse",
-                        "SHIPMENT",
-                        "Auto-Buyer System"
-                );
-                salesRecordRepository.save(shipmentRecord);
-
-                System.out.println("Purchase order completed and stock updated for: " + product.getName());
+    public Set<Long> completePurchaseOrders(List<Long> orderIds) {
+        if (orderIds.isEmpty()) return Set.of();
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovementEvent> events = new ArrayList<>();
+
+        Set<Long> completed = transactionTemplate.execute(status -> {
+            List<CompletedOrder> orders = jdbcTemplate.query(COMPLETE_ORDERS_SQL,
+                    (rs, row) -> new CompletedOrder(rs.getLong(1), rs.getLong(2), rs.getInt(3)),
+                    Timestamp.valueOf(now), orderIds.toArray(new Long[0]));
+            if (orders.isEmpty()) return Set.<Long>of();
+
+            Map<Long, Integer> deltas = new TreeMap<>();
+            for (CompletedOrder order : orders) {
+                deltas.merge(order.productId(), order.quantity(), Integer::sum);
             }
-        }
+            Map<Long, Integer> quantities = new HashMap<>();
+            jdbcTemplate.query(ADD_STOCK_SQL, rs -> {
+                // Start each product from its level before this batch and walk forward order by order
+                quantities.put(rs.getLong(1), rs.getInt(2) - deltas.get(rs.getLong(1)));
+            }, deltas.keySet().toArray(new Long[0]), deltas.values().toArray(new Integer[0]));
+
+            Map<Long, Product> products = productRepository.findAllById(deltas.keySet()).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            List<Long> shipmentIds = jdbcTemplate.queryForList(SHIPMENT_IDS_SQL, Long.class, orders.size());
+
+            List<SalesRecord> shipments = new ArrayList<>(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                CompletedOrder order = orders.get(i);
+                SalesRecord shipment = new SalesRecord(products.get(order.productId()), order.quantity(),
+                        "Main Warehouse", "SHIPMENT", "Auto-Buyer System");
+                shipment.setId(shipmentIds.get(i));
+                shipment.setSaleDate(now);
+                shipments.add(shipment);
+
+                int quantityBefore = quantities.get(order.productId());
+                quantities.put(order.productId(), quantityBefore + order.quantity());
+                events.add(new StockMovementEvent(shipment, quantityBefore, quantityBefore + order.quantity()));
+            }
+
+            Timestamp saleDate = Timestamp.valueOf(now);
+            jdbcTemplate.batchUpdate(INSERT_SHIPMENT_SQL, shipments, SHIPMENT_BATCH_SIZE, (ps, shipment) -> {
+                ps.setLong(1, shipment.getId());
+                ps.setLong(2, shipment.getProduct().getId());
+                ps.setInt(3, shipment.getQuantitySold());
+                ps.setDouble(4, shipment.getTotalAmount());
+                ps.setTimestamp(5, saleDate);
+                ps.setString(6, shipment.getWarehouseLocation());
+                ps.setString(7, shipment.getTransactionType());
+                ps.setString(8, shipment.getHandlerName());
+            });
+
+            Set<Long> ids = new HashSet<>();
+            for (CompletedOrder order : orders) ids.add(order.orderId());
+            return ids;
+        });
+
+        // Listeners run after commit so they never see stock that could still roll back
+        events.forEach(eventPublisher::publishEvent);
+        System.out.println("Bulk completed " + completed.size() + " of " + orderIds.size() + " purchase orders");
+        return completed;
     }
 
     public List<SalesRecord> getAllTransactions() {
@@ -0,0 +1,318 @@
+package com.internship.project.service;
+
+import com.internship.project.dto.CompactSeries;
+import com.internship.project.dto.TrendPoint;
+import com.internship.project.dto.TrendSeries;
+import com.internship.project.entity.SalesRecord;
+import com.internship.project.event.StockMovementEvent;
+import com.internship.project.repository.SalesRecordRepository;
+import com.internship.project.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the time-bucketed sales tiers (HOUR -> DAY -> WEEK/MONTH) used by the trend charts.
+ * Sales are added to the HOUR tier as they are recorded and a periodic job rolls finer tiers up
+ * into coarser ones, so a trend query only reads a bounded number of pre-aggregated rows.
+ */
+@Service
+public class SalesRollupService {
+
+    public static final String HOUR = "HOUR";
+    public static final String DAY = "DAY";
+    public static final String WEEK = "WEEK";
+    public static final String MONTH = "MONTH";
+
+    public static final String UNASSIGNED_WAREHOUSE = "Unassigned";
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private SalesRecordRepository salesRecordRepository;
+
+    // Hourly buckets are only kept for recent history; older data lives in the DAY tier
+    @Value("${analytics.rollup.hourly-retention-days:14}")
+    private int hourlyRetentionDays;
+
+    @EventListener
+    public void onStockMovement(StockMovementEvent event) {
+        SalesRecord record = event.record();
+        if (!"SALE".equals(record.getTransactionType())) return;
+
+        try {
+            salesRollupRepository.increment(HOUR,
+                    record.getSaleDate().truncatedTo(ChronoUnit.HOURS),
+                    warehouseKey(record.getWarehouseLocation()),
+                    record.getTotalAmount(),
+                    record.getQuantitySold(),
+                    1);
+        } catch (Exception e) {
+            // The sale is already committed; rebuildAll recomputes the tiers from sales_records
+            System.err.println("Could not add sale " + record.getId() + " to the hourly rollup: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Build all tiers from sales_records the first time the application starts with existing data.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (salesRollupRepository.count() == 0 && salesRecordRepository.count() > 0) {
+                rebuildAll();
+            }
+        } catch (Exception e) {
+            System.err.println("Could not backfill sales rollups: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute every tier from the raw sales records.
+     */
+    public void rebuildAll() {
+        LocalDateTime beginning = LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.now().plusDays(1);
+
+        int hours = salesRollupRepository.backfillHourlyFromSales();
+        salesRollupRepository.rollUp(HOUR, DAY, "day", beginning, end);
+        salesRollupRepository.rollUp(DAY, WEEK, "week", beginning, end);
+        salesRollupRepository.rollUp(DAY, MONTH, "month", beginning, end);
+        pruneHourly();
+
+        System.out.println("Sales rollups rebuilt from " + hours + " hourly buckets");
+    }
+
+    /**
+     * Roll the recent part of each tier up into the next coarser one.
+     * Only the current and previous period are touched, so the cost does not grow with history.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.interval-ms:300000}", initialDelay = 60000)
+    public void rollUpRecent() {
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDateTime end = LocalDateTime.now().plusHours(1);
+
+            salesRollupRepository.rollUp(HOUR, DAY, "day",
+                    today.minusDays(1).atStartOfDay(), end);
+            salesRollupRepository.rollUp(DAY, WEEK, "week",
+                    today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(1).atStartOfDay(), end);
+            salesRollupRepository.rollUp(DAY, MONTH, "month",
+                    today.withDayOfMonth(1).minusMonths(1).atStartOfDay(), end);
+        } catch (Exception e) {
+            System.err.println("Sales rollup failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${analytics.rollup.prune-cron:0 15 3 * * *}")
+    public void pruneHourly() {
+        salesRollupRepository.deleteOlderThan(HOUR,
+                LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay());
+    }
+
+    // One tier read over [from, to)
+    private record Segment(String granularity, LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Read a bucketed series, downsampled to at most maxPoints by merging adjacent buckets.
+     * Only whole buckets starting at or after startDate are included.
+     */
+    public List<TrendPoint> getSeries(String granularity, LocalDateTime startDate, String warehouse, int maxPoints) {
+        return downsample(buckets(granularity, ceil(startDate, granularity), currentBucketEnd(), warehouse), maxPoints);
+    }
+
+    /**
+     * Revenue per calendar day with sales since startDate, read from the same tiers as getTotals,
+     * so the days add up to its totalRevenue.
+     */
+    public Map<LocalDate, Double> getDailyRevenue(LocalDateTime startDate, String warehouse) {
+        Map<LocalDate, Double> daily = new TreeMap<>();
+        for (Segment segment : segments(startDate)) {
+            for (TrendPoint bucket : buckets(segment.granularity(), segment.from(), segment.to(), warehouse)) {
+                daily.merge(bucket.bucketStart().toLocalDate(), bucket.revenue(), Double::sum);
+            }
+        }
+        return daily;
+    }
+
+    /**
+     * Same buckets as getSeries, as dense float arrays (empty buckets are zero) merged into at most maxPoints points.
+     */
+    public TrendSeries getCompactSeries(String granularity, LocalDateTime startDate, String warehouse,
+                                        int maxPoints, String encoding) {
+        LocalDateTime first = ceil(startDate, granularity);
+        List<TrendPoint> buckets = buckets(granularity, first, currentBucketEnd(), warehouse);
+
+        ChronoUnit unit = bucketUnit(granularity);
+        int bucketCount = Math.max(0, (int) unit.between(first, truncate(LocalDateTime.now(), granularity)) + 1);
+        int step = maxPoints > 0 && bucketCount > maxPoints ? (int) Math.ceil((double) bucketCount / maxPoints) : 1;
+        int points = (bucketCount + step - 1) / step;
+
+        double[] revenue = new double[points];
+        double[] unitsSold = new double[points];
+        double[] saleCount = new double[points];
+        for (TrendPoint bucket : buckets) {
+            int index = (int) (unit.between(first, bucket.bucketStart()) / step);
+            if (index < 0 || index >= points) continue;
+            revenue[index] += bucket.revenue();
+            unitsSold[index] += bucket.unitsSold();
+            saleCount[index] += bucket.saleCount();
+        }
+
+        return new TrendSeries(first, granularity, step,
+                CompactSeries.of(revenue, 0, step, encoding),
+                CompactSeries.of(unitsSold, 0, step, encoding),
+                CompactSeries.of(saleCount, 0, step, encoding));
+    }
+
+    /**
+     * Revenue, units and sale count of SALE transactions from startDate to now, aggregated in the database.
+     * Counted in whole hours from startDate; see segments for the tiers read.
+     */
+    public Map<String, Object> getTotals(LocalDateTime startDate, String warehouse) {
+        double revenue = 0;
+        long unitsSold = 0;
+        long saleCount = 0;
+        for (Segment segment : segments(startDate)) {
+            Map<String, Object> part = salesRollupRepository.findTotals(segment.granularity(),
+                    segment.from(), segment.to(), warehouse).get(0);
+            revenue += ((Number) part.get("totalRevenue")).doubleValue();
+            unitsSold += ((Number) part.get("totalUnitsSold")).longValue();
+            saleCount += ((Number) part.get("totalSales")).longValue();
+        }
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("totalRevenue", revenue);
+        totals.put("totalUnitsSold", unitsSold);
+        totals.put("totalSales", saleCount);
+        return totals;
+    }
+
+    /**
+     * Tier reads covering startDate to now in whole buckets: the hours left of the first day, whole past
+     * days from DAY, and today from HOUR so it is not behind the rollup job. Once the first day is older
+     * than the hourly retention window its hours are gone, and the range starts at the next midnight.
+     */
+    private List<Segment> segments(LocalDateTime startDate) {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        LocalDateTime end = currentBucketEnd();
+        LocalDateTime firstHour = ceil(startDate, HOUR);
+        LocalDateTime firstDay = ceil(startDate, DAY);
+        if (!firstDay.isBefore(today)) {
+            return List.of(new Segment(HOUR, firstHour, end));
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        if (isWithinHourlyRetention(startDate)) {
+            segments.add(new Segment(HOUR, firstHour, firstDay));
+        }
+        segments.add(new Segment(DAY, firstDay, today));
+        segments.add(new Segment(HOUR, today, end));
+        return segments;
+    }
+
+    /**
+     * Pick the finest tier that keeps the range within maxPoints buckets.
+     * HOUR is only used inside the hourly retention window.
+     */
+    public String chooseGranularity(LocalDateTime startDate, int maxPoints) {
+        long hours = ChronoUnit.HOURS.between(startDate, LocalDateTime.now());
+        if (hours <= maxPoints && isWithinHourlyRetention(startDate)) return HOUR;
+        if (hours / 24 <= maxPoints) return DAY;
+        if (hours / (24 * 7) <= maxPoints) return WEEK;
+        return MONTH;
+    }
+
+    // The HOUR tier only holds this window; older hours have been pruned into DAY
+    public boolean isWithinHourlyRetention(LocalDateTime startDate) {
+        return startDate.isAfter(LocalDateTime.now().minusDays(hourlyRetentionDays));
+    }
+
+    public int getHourlyRetentionDays() {
+        return hourlyRetentionDays;
+    }
+
+    public boolean isSupportedGranularity(String granularity) {
+        return HOUR.equals(granularity) || DAY.equals(granularity) ||
+                WEEK.equals(granularity) || MONTH.equals(granularity);
+    }
+
+    private List<TrendPoint> buckets(String granularity, LocalDateTime first, LocalDateTime end, String warehouse) {
+        return "ALL".equals(warehouse)
+                ? salesRollupRepository.findSeries(granularity, first, end)
+                : salesRollupRepository.findSeriesByWarehouse(granularity, first, end, warehouse);
+    }
+
+    // Exclusive end that still takes in the bucket now falls in, whatever the tier
+    private LocalDateTime currentBucketEnd() {
+        return LocalDateTime.now().plusHours(1);
+    }
+
+    private List<TrendPoint> downsample(List<TrendPoint> buckets, int maxPoints) {
+        if (maxPoints <= 0 || buckets.size() <= maxPoints) return buckets;
+
+        // Merge runs of adjacent buckets; sums stay exact, only the resolution drops
+        int groupSize = (int) Math.ceil((double) buckets.size() / maxPoints);
+        List<TrendPoint> points = new ArrayList<>(maxPoints);
+
+        for (int i = 0; i < buckets.size(); i += groupSize) {
+            int end = Math.min(i + groupSize, buckets.size());
+            double revenue = 0;
+            long unitsSold = 0;
+            long saleCount = 0;
+            for (int j = i; j < end; j++) {
+                TrendPoint bucket = buckets.get(j);
+                revenue += bucket.revenue();
+                unitsSold += bucket.unitsSold();
+                saleCount += bucket.saleCount();
+            }
+            points.add(new TrendPoint(buckets.get(i).bucketStart(), revenue, unitsSold, saleCount));
+        }
+        return points;
+    }
+
+    private LocalDateTime truncate(LocalDateTime dateTime, String granularity) {
+        switch (granularity) {
+            case HOUR: return dateTime.truncatedTo(ChronoUnit.HOURS);
+            case WEEK: return dateTime.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case MONTH: return dateTime.toLocalDate().withDayOfMonth(1).atStartOfDay();
+            case DAY:
+            default: return dateTime.toLocalDate().atStartOfDay();
+        }
+    }
+
+    // Start of the first whole bucket at or after dateTime
+    private LocalDateTime ceil(LocalDateTime dateTime, String granularity) {
+        LocalDateTime start = truncate(dateTime, granularity);
+        return start.isBefore(dateTime) ? start.plus(1, bucketUnit(granularity)) : start;
+    }
+
+    private ChronoUnit bucketUnit(String granularity) {
+        switch (granularity) {
+            case HOUR: return ChronoUnit.HOURS;
+            case WEEK: return ChronoUnit.WEEKS;
+            case MONTH: return ChronoUnit.MONTHS;
+            case DAY:
+            default: return ChronoUnit.DAYS;
+        }
+    }
+
+    public static String warehouseKey(String warehouse) {
+        return warehouse == null || warehouse.isBlank() ? UNASSIGNED_WAREHOUSE : warehouse;
+    }
+}
@@ -1,23 +1,34 @@
 package com.internship.project.service;
 
+import com.internship.project.dto.SalesVelocity;
 import com.internship.project.entity.Product;
-import com.internship.project.entity.PurchaseOrder;
-import com.internship.project.entity.SalesRecord;
-import com.internship.project.entity.User;
 import com.internship.project.repository.ProductRepository;
-import com.internship.project.repository.PurchaseOrderRepository;
-import com.internship.project.repository.SalesRecordRepository;
-import com.internship.project.repository.UserRepository;
+import com.internship.project.service.ai.BatchRecommendation;
+import com.internship.project.service.ai.BatchResponseParser;
+import com.internship.project.service.ai.RecommendationFeatures;
+import com.internship.project.service.ai.RecommendationResponseParser;
+import com.internship.project.service.ai.ReplenishmentPolicy;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,42 +38,125 @@ public class SmartReplenishmentService {
     private ProductRepository productRepository;
 
     @Autowired
-    private SalesRecordRepository salesRecordRepository;
+    private SalesHistoryService salesHistoryService;
 
     @Autowired
-    private PurchaseOrderRepository purchaseOrderRepository;
+    private AutoReplenishmentService autoReplenishmentService;
 
     @Autowired
-    private UserRepository userRepository;
+    private GeminiAIService geminiAIService;
 
     @Autowired
-    private SalesRecordService salesRecordService;
+    private DemandStateService demandStateService;
 
-    @Autowired
-    private GeminiAIService geminiAIService;
+    private static final long STREAM_TIMEOUT_MS = 60 * 60 * 1000L;
+    private static final int FALLBACK_COVER_DAYS = 30;
+
+    @Value("${ai.replenishment.max-concurrency:8}")
+    private int maxConcurrency;
+
+    // Products per Gemini request in check-all; 1 sends the single-product prompt for each product
+    @Value("${ai.replenishment.batch-size:20}")
+    private int batchSize;
+
+    // Check-all decides with the local policy and only sends escalated products to Gemini
+    @Value("${replenishment.policy.enabled:true}")
+    private boolean policyEnabled;
+
+    @Value("${replenishment.policy.lead-time-days:7}")
+    private double leadTimeDays;
+
+    @Value("${replenishment.policy.service-level:0.95}")
+    private double serviceLevel;
+
+    @Value("${replenishment.policy.ordering-cost:50}")
+    private double orderingCost;
+
+    @Value("${replenishment.policy.annual-holding-rate:0.25}")
+    private double annualHoldingRate;
+
+    @Value("${replenishment.policy.high-value-order:10000}")
+    private double highValueOrder;
+
+    @Value("${replenishment.policy.max-demand-cv:1.5}")
+    private double maxDemandCv;
+
+    @Value("${replenishment.policy.borderline-band:0.1}")
+    private double borderlineBand;
+
+    // One virtual thread per product; the semaphore, not the pool, bounds concurrent Gemini calls
+    private final ExecutorService aiExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ReplenishmentPolicy policy;
+
+    @PostConstruct
+    public void init() {
+        policy = new ReplenishmentPolicy(leadTimeDays, serviceLevel, orderingCost, annualHoldingRate,
+                highValueOrder, maxDemandCv, borderlineBand);
+    }
 
     public Map<String, Object> getAIReplenishmentRecommendation(Long productId) {
         Optional<Product> productOpt = productRepository.findById(productId);
 
         if (productOpt.isPresent()) {
-            Product product = productOpt.get();
+            return recommend(productOpt.get());
+        }
+
+        throw new IllegalArgumentException("Product not found");
+    }
+
+    /**
+     * What the local reorder policy would do for a product, without calling Gemini or placing an order.
+     */
+    public Map<String, Object> getPolicyDecision(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+        ReplenishmentPolicy.Decision decision = evaluatePolicy(product);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("productId", product.getId());
+        result.put("productName", product.getName());
+        result.put("currentStock", product.getQuantity());
+        result.put("threshold", product.getReorderThreshold());
+        result.put("reorder", decision.reorder());
+        result.put("recommendedQuantity", decision.quantity());
+        result.put("urgencyLevel", decision.urgency());
+        result.put("reasoning", decision.reason());
+        result.put("reorderPoint", Math.round(decision.reorderPoint()));
+        result.put("safetyStock", Math.round(decision.safetyStock()));
+        result.put("economicOrderQuantity", Math.round(decision.economicOrderQuantity()));
+        result.put("daysOfCover", Math.round(decision.daysOfCover() * 10.0) / 10.0);
+        result.put("escalation", decision.escalation());
+        return result;
+    }
 
-            // Get sales data for the product
-            List<SalesRecord> recentSales = salesRecordRepository.findByProductId(productId);
+    // Reads only in-memory demand state, so it is cheap enough to run over the whole catalog
+    private ReplenishmentPolicy.Decision evaluatePolicy(Product product) {
+        DemandStateService.DemandEstimate demand = demandStateService.getEstimate(product.getId());
+        return policy.evaluate(product.getQuantity(), product.getReorderThreshold(), product.getPrice(),
+                Math.max(demand.level(), 0.0), demand.variance());
+    }
 
-            // Prepare context for AI
-            String context = buildAIContext(product, recentSales);
+    private Map<String, Object> recommend(Product product) {
+        // 7/30/90-day sales velocity from one aggregate row
+        SalesVelocity velocity = salesHistoryService.loadSalesVelocity(product.getId());
+        RecommendationFeatures features = buildFeatures(product, velocity);
 
-            // Get AI recommendation from Gemini
-            String aiResponse = geminiAIService.getAIRecommendation(context);
+        // Prepare context for AI
+        String context = buildAIContext(product, features, velocity);
 
-            return parseAIResponse(aiResponse, product);
-        }
+        // Get AI recommendation from Gemini (shared by products with the same quantized features)
+        String aiResponse = geminiAIService.getAIRecommendation(context, features);
 
-        throw new IllegalArgumentException("Product not found");
+        return parseAIResponse(aiResponse, product, velocity);
+    }
+
+    private RecommendationFeatures buildFeatures(Product product, SalesVelocity velocity) {
+        return new RecommendationFeatures(product.getQuantity(), product.getReorderThreshold(),
+                product.getPrice(), velocity.avgDaily30());
     }
 
-    private String buildAIContext(Product product, List<SalesRecord> sales) {
+    private String buildAIContext(Product product, RecommendationFeatures features, SalesVelocity velocity) {
         StringBuilder context = new StringBuilder();
         context.append("INVENTORY REPLENISHMENT ANALYSIS REQUEST\n\n");
         context.append("PRODUCT DATA:\n");
@@ -72,12 +166,12 @@ public class SmartReplenishmentService {
         context.append("- Price: $").append(String.format("%.2f", product.getPrice())).append("\n");
 
         // Sales analysis
-        if (!sales.isEmpty()) {
-            double avgDailySales = sales.stream()
-                    .mapToInt(SalesRecord::getQuantitySold)
-                    .average()
-                    .orElse(0.0);
-            context.append("- Average Daily Sales: ").append(String.format("%.2f", avgDailySales)).append(" units/day\n");
+        if (velocity.hasSales()) {
+            double avgDailySales = features.avgDailySales();
+            context.append("- Average Daily Sales: ").append(String.format("%.2f", velocity.avgDaily7())).append(" (7d), ")
+                    .append(String.format("%.2f", avgDailySales)).append(" (30d), ")
+                    .append(String.format("%.2f", velocity.avgDaily90())).append(" (90d) units/day\n");
+            context.append("- Days With Sales (90d): ").append(velocity.activeDays90()).append("\n");
 
             int stockCoverageDays = avgDailySales > 0 ? (int)(product.getQuantity() / avgDailySales) : Integer.MAX_VALUE;
             context.append("- Current Stock Coverage: ").append(stockCoverageDays).append(" days\n");
@@ -91,8 +185,54 @@ public class SmartReplenishmentService {
         return context.toString();
     }
 
-    private Map<String, Object> parseAIResponse(String aiResponse, Product product) {
+    /**
+     * Prompt covering several products, answered as a JSON array with one object per product.
+     */
+    private String buildBatchContext(List<Product> products, Map<Long, RecommendationFeatures> features,
+                                     Map<Long, SalesVelocity> velocities) {
+        StringBuilder context = new StringBuilder();
+        context.append("INVENTORY REPLENISHMENT ANALYSIS REQUEST\n\n");
+        context.append("PRODUCTS:\n");
+        for (Product product : products) {
+            RecommendationFeatures productFeatures = features.get(product.getId());
+            context.append("- productId ").append(product.getId())
+                    .append(" | ").append(product.getName())
+                    .append(" | stock ").append(product.getQuantity())
+                    .append(" | threshold ").append(product.getReorderThreshold())
+                    .append(" | price $").append(String.format("%.2f", product.getPrice()));
+            SalesVelocity velocity = velocities.get(product.getId());
+            if (velocity.hasSales()) {
+                context.append(" | daily sales 7d/30d/90d ").append(String.format("%.2f", velocity.avgDaily7()))
+                        .append("/").append(String.format("%.2f", velocity.avgDaily30()))
+                        .append("/").append(String.format("%.2f", velocity.avgDaily90()));
+            }
+            if (productFeatures.avgDailySales() > 0) {
+                context.append(" | coverage ").append((int) (product.getQuantity() / productFeatures.avgDailySales()))
+                        .append(" days");
+            }
+            context.append("\n");
+        }
+
+        context.append("\nRESPONSE FORMAT: reply with only a JSON array containing one object per product:\n");
+        context.append("[{\"productId\": <id>, \"quantity\": <number between 10-300>, ");
+        context.append("\"urgency\": \"CRITICAL|HIGH|MEDIUM|LOW\", \"reason\": \"<brief explanation>\"}]\n");
+
+        return context.toString();
+    }
+
+    private Map<String, Object> parseAIResponse(String aiResponse, Product product, SalesVelocity velocity) {
+        // Parse the AI response
+        RecommendationResponseParser.ParsedResponse parsed = RecommendationResponseParser.parse(aiResponse);
+        int recommendedQuantity = parsed.quantity() != null
+                ? parsed.quantity() : calculateFallbackQuantity(product, velocity);
+
+        return buildRecommendation(product, aiResponse, recommendedQuantity, parsed.urgency(), parsed.reason(), "AI");
+    }
+
+    private Map<String, Object> buildRecommendation(Product product, String aiResponse, int recommendedQuantity,
+                                                    String urgencyLevel, String reasoning, String source) {
         Map<String, Object> recommendation = new HashMap<>();
+        recommendation.put("source", source);
 
         recommendation.put("productId", product.getId());
         recommendation.put("productName", product.getName());
@@ -100,12 +240,6 @@ public class SmartReplenishmentService {
         recommendation.put("threshold", product.getReorderThreshold());
         recommendation.put("aiRawResponse", aiResponse);
         recommendation.put("timestamp", LocalDateTime.now());
-
-        // Parse the AI response
-        int recommendedQuantity = parseRecommendedQuantity(aiResponse, product);
-        String urgencyLevel = parseUrgencyLevel(aiResponse);
-        String reasoning = parseReasoning(aiResponse);
-
         recommendation.put("recommendedQuantity", recommendedQuantity);
         recommendation.put("urgencyLevel", urgencyLevel);
         recommendation.put("reasoning", reasoning);
@@ -114,7 +248,7 @@ public class SmartReplenishmentService {
         if ("HIGH".equals(urgencyLevel) || "CRITICAL".equals(urgencyLevel) ||
                 product.getQuantity() <= (product.getReorderThreshold() - 2)) {
 
-            boolean triggered = triggerSmartReplenishment(product, recommendedQuantity, urgencyLevel, reasoning);
+            boolean triggered = triggerSmartReplenishment(product, recommendedQuantity, urgencyLevel, reasoning, source);
             recommendation.put("autoTriggered", triggered);
             recommendation.put("autoTriggerMessage", triggered ?
                     "Auto-replenishment triggered successfully" :
@@ -127,73 +261,23 @@ public class SmartReplenishmentService {
         return recommendation;
     }
 
-    private int parseRecommendedQuantity(String aiResponse, Product product) {
-        try {
-            // Method 1: Look for "QUANTITY:" pattern (exact format we requested)
-            if (aiResponse.contains("QUANTITY:")) {
-                String[] parts = aiResponse.split("QUANTITY:");
-                if (parts.length > 1) {
-                    String quantityPart = parts[1].split("[\\n|]")[0].trim();
-                    String numberOnly = quantityPart.replaceAll("[^0-9]", "").trim();
-                    if (!numberOnly.isEmpty()) {
-                        int quantity = Integer.parseInt(numberOnly);
-                        if (quantity > 0 && quantity <= 1000) {
-                            return quantity;
-                        }
-                    }
-                }
-            }
-
-            // Method 2: Look for "Quantity:" pattern (case insensitive)
-            Pattern quantityPattern = Pattern.compile("Quantity:\\s*(\\d+)", Pattern.CASE_INSENSITIVE);
-            Matcher matcher = quantityPattern.matcher(aiResponse);
-            if (matcher.find()) {
-                int quantity = Integer.parseInt(matcher.group(1));
-                if (quantity > 0 && quantity <= 1000) {
-                    return quantity;
-                }
-            }
-
-            // Method 3: Look for numbers in context of quantity/replenishment
-            String[] lines = aiResponse.split("\\n");
-            for (String line : lines) {
-                if (line.toLowerCase().contains("quantity") || line.toLowerCase().contains("replenish") ||
-                        line.toLowerCase().contains("recommend") || line.toLowerCase().contains("order")) {
-                    Pattern numberPattern = Pattern.compile("\\b([1-9]\\d{1,2})\\b");
-                    Matcher numberMatcher = numberPattern.matcher(line);
-                    if (numberMatcher.find()) {
-                        int quantity = Integer.parseInt(numberMatcher.group());
-                        if (quantity >= 10 && quantity <= 500) {
-                            return quantity;
-                        }
-                    }
-                }
-            }
-
-            // Method 4: Find any reasonable number in the response
-            Pattern generalPattern = Pattern.compile("\\b([1-9]\\d?\\d?)\\b");
-            Matcher generalMatcher = generalPattern.matcher(aiResponse);
-            while (generalMatcher.find()) {
-                int quantity = Integer.parseInt(generalMatcher.group());
-                // Check if it's a reasonable quantity (not a year, price, etc.)
-                if (quantity >= 10 && quantity <= 300) {
-                    return quantity;
-                }
-            }
-
-            // Fallback: calculate based on product data
-            return calculateFallbackQuantity(product);
-
-        } catch (Exception e) {
-            System.err.println("Error parsing recommended quantity: " + e.getMessage());
-            return calculateFallbackQuantity(product);
-        }
+    private Map<String, Object> fallbackRecommendation(Product product, SalesVelocity velocity) {
+        return buildRecommendation(product, null, calculateFallbackQuantity(product, velocity),
+                RecommendationResponseParser.DEFAULT_URGENCY, "AI unavailable; quantity from recent sales", "FALLBACK");
     }
 
-    private int calculateFallbackQuantity(Product product) {
+    private int calculateFallbackQuantity(Product product, SalesVelocity velocity) {
         // Smart fallback calculation
         int baseQuantity = Math.max(product.getReorderThreshold() + 25, 35);
 
+        // Enough for a month at the faster of the weekly and monthly sales rate, back above the threshold
+        double dailyRate = Math.max(velocity.avgDaily7(), velocity.avgDaily30());
+        if (dailyRate > 0) {
+            int coverQuantity = (int) Math.ceil(dailyRate * FALLBACK_COVER_DAYS)
+                    + product.getReorderThreshold() - product.getQuantity();
+            baseQuantity = Math.max(baseQuantity, coverQuantity);
+        }
+
         // Adjust based on price (expensive items get smaller quantities)
         if (product.getPrice() > 1000) {
             baseQuantity = Math.max(baseQuantity / 2, 10);
@@ -204,174 +288,308 @@ public class SmartReplenishmentService {
         return baseQuantity;
     }
 
-    private String parseUrgencyLevel(String aiResponse) {
+    private boolean triggerSmartReplenishment(Product product, int quantity, String urgencyLevel, String reasoning,
+                                              String source) {
         try {
-            String response = aiResponse.toUpperCase();
-
-            // Method 1: Look for "URGENCY:" pattern (exact format we requested)
-            if (response.contains("URGENCY:")) {
-                String[] parts = response.split("URGENCY:");
-                if (parts.length > 1) {
-                    String urgencyPart = parts[1].split("[\\n|]")[0].trim();
-                    if (urgencyPart.contains("CRITICAL")) return "CRITICAL";
-                    if (urgencyPart.contains("HIGH")) return "HIGH";
-                    if (urgencyPart.contains("MEDIUM")) return "MEDIUM";
-                    if (urgencyPart.contains("LOW")) return "LOW";
-                }
-            }
+            // Truncate reasoning if too long
+            String truncatedReasoning = reasoning.length() > 200 ?
+                    reasoning.substring(0, 200) + "..." : reasoning;
+            String label = "POLICY".equals(source) ? "Policy" : "FALLBACK".equals(source) ? "Fallback" : "AI";
+            String notes = label + "-triggered replenishment. Urgency: " + urgencyLevel +
+                    ". Reason: " + truncatedReasoning;
 
-            // Method 2: Direct keyword matching in entire response
-            if (response.contains("CRITICAL") || response.contains("EMERGENCY")) {
-                return "CRITICAL";
-            }
-            if (response.contains("HIGH") || response.contains("URGENT") || response.contains("IMMEDIATE")) {
-                return "HIGH";
-            }
-            if (response.contains("MEDIUM") || response.contains("MODERATE")) {
-                return "MEDIUM";
-            }
-            if (response.contains("LOW") || response.contains("MINOR")) {
-                return "LOW";
-            }
+            String outcome = autoReplenishmentService.placeOrder(product, quantity, "AI-Replenishment System", notes);
+            System.out.println(source + "-triggered replenishment for product: " + product.getName() +
+                    ", Quantity: " + quantity + ", Outcome: " + outcome);
+            return "CREATED".equals(outcome);
 
-            // Method 3: Context-based detection
-            if (response.contains("OUT OF STOCK") || response.contains("ZERO STOCK") ||
-                    response.contains("CRITICALLY LOW")) {
-                return "CRITICAL";
-            }
-            if (response.contains("VERY LOW") || response.contains("RUNNING OUT") ||
-                    response.contains("SHORTAGE")) {
-                return "HIGH";
-            }
+        } catch (Exception e) {
+            System.err.println("Error in AI-triggered replenishment: " + e.getMessage());
+            return false;
+        }
+    }
 
-            return "MEDIUM"; // Default fallback
+    /**
+     * Check every low-stock product and collect all recommendations.
+     */
+    public Map<String, Object> checkAllProductsForReplenishment() {
+        return checkAllProductsForReplenishment(batchSize);
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error parsing urgency level: " + e.getMessage());
-            return "MEDIUM";
+    public Map<String, Object> checkAllProductsForReplenishment(int batchSize) {
+        List<Map<String, Object>> recommendations = Collections.synchronizedList(new ArrayList<>());
+        Map<String, Object> result = checkAllProductsForReplenishment(batchSize, recommendations::add);
+        result.put("recommendations", recommendations);
+        return result;
+    }
+
+    public Map<String, Object> checkAllProductsForReplenishment(Consumer<Map<String, Object>> onResult) {
+        return checkAllProductsForReplenishment(batchSize, onResult);
+    }
+
+    public Map<String, Object> checkAllProductsForReplenishment(int batchSize, Consumer<Map<String, Object>> onResult) {
+        return checkAllProductsForReplenishment(batchSize, null, onResult::accept);
+    }
+
+    /**
+     * Receives a sweep's progress. Results arrive from many threads at once.
+     */
+    public interface SweepListener {
+
+        void onResult(Map<String, Object> recommendation);
+
+        // Number of products that will be reported, known once the catalog has been evaluated
+        default void onPlanned(int products) {
+        }
+
+        // Checked before each product or batch starts; work already in flight still completes
+        default boolean isCancelled() {
+            return false;
         }
     }
 
-    private String parseReasoning(String aiResponse) {
-        try {
-            // Method 1: Extract reasoning after "REASON:" (exact format we requested)
-            if (aiResponse.contains("REASON:")) {
-                String[] parts = aiResponse.split("REASON:");
-                if (parts.length > 1) {
-                    String reason = parts[1].split("[\\n|]")[0].trim();
-                    if (!reason.isEmpty() && reason.length() > 10) {
-                        return reason;
-                    }
-                }
+    /**
+     * Check the catalog and hand each recommendation to onResult as soon as it is ready. The local reorder
+     * policy evaluates every product in parallel and settles the clear-cut ones itself; escalated products
+     * (or every low-stock product when the policy is disabled) go to Gemini concurrently on virtual threads,
+     * at most maxConcurrency calls in flight (GeminiAIService also rate-limits to the API quota). With
+     * batchSize above 1, each call covers that many products. Returns the summary once all products are done.
+     * Given productIds, only those products are checked and all of them go to Gemini.
+     */
+    public Map<String, Object> checkAllProductsForReplenishment(int batchSize, List<Long> productIds,
+                                                                SweepListener listener) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        long start = System.currentTimeMillis();
+        boolean targeted = productIds != null && !productIds.isEmpty();
+        List<Product> products = targeted ? productRepository.findAllById(productIds) : productRepository.findAll();
+
+        List<Product> lowStock;
+        List<Product> policyDecided = new ArrayList<>();
+        Map<Long, ReplenishmentPolicy.Decision> decisions = Map.of();
+        long policyMicros = 0;
+        if (targeted) {
+            lowStock = products;
+        } else if (policyEnabled) {
+            long policyStart = System.nanoTime();
+            ConcurrentMap<Long, ReplenishmentPolicy.Decision> evaluated = products.parallelStream()
+                    .collect(Collectors.toConcurrentMap(Product::getId, this::evaluatePolicy));
+            policyMicros = (System.nanoTime() - policyStart) / 1000;
+            decisions = evaluated;
+
+            lowStock = new ArrayList<>();
+            for (Product product : products) {
+                ReplenishmentPolicy.Decision decision = evaluated.get(product.getId());
+                if (decision.escalate()) lowStock.add(product);
+                else if (decision.reorder()) policyDecided.add(product);
             }
+        } else {
+            lowStock = products.stream()
+                    .filter(product -> product.getQuantity() <= (product.getReorderThreshold() + 10))
+                    .collect(Collectors.toList());
+        }
 
-            // Method 2: Extract reasoning after "Reason:"
-            if (aiResponse.contains("Reason:")) {
-                String[] parts = aiResponse.split("Reason:");
-                if (parts.length > 1) {
-                    String reason = parts[1].split("[\\n|]")[0].trim();
-                    if (!reason.isEmpty() && reason.length() > 10) {
-                        return reason;
-                    }
+        Semaphore inFlight = new Semaphore(maxConcurrency);
+        AtomicInteger autoTriggeredCount = new AtomicInteger();
+        AtomicInteger failedCount = new AtomicInteger();
+        AtomicInteger aiRequests = new AtomicInteger();
+        Map<Long, ReplenishmentPolicy.Decision> policyDecisions = decisions;
+
+        Consumer<Map<String, Object>> counted = recommendation -> {
+            ReplenishmentPolicy.Decision decision = policyDecisions.get((Long) recommendation.get("productId"));
+            if (decision != null && decision.escalate()) recommendation.put("escalation", decision.escalation());
+            if (Boolean.TRUE.equals(recommendation.get("autoTriggered"))) autoTriggeredCount.incrementAndGet();
+            if (recommendation.containsKey("error")) failedCount.incrementAndGet();
+            listener.onResult(recommendation);
+        };
+        listener.onPlanned(policyDecided.size() + lowStock.size());
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (Product product : policyDecided) {
+            ReplenishmentPolicy.Decision decision = policyDecisions.get(product.getId());
+            tasks.add(CompletableFuture.runAsync(() -> {
+                if (listener.isCancelled()) return;
+                acceptSafely(product, () -> buildRecommendation(product, "POLICY: " + decision.reason(),
+                        decision.quantity(), decision.urgency(), decision.reason(), "POLICY"), counted);
+            }, aiExecutor));
+        }
+        for (int from = 0; from < lowStock.size(); from += batchSize) {
+            List<Product> batch = lowStock.subList(from, Math.min(from + batchSize, lowStock.size()));
+            tasks.add(CompletableFuture.runAsync(() -> {
+                if (listener.isCancelled()) return;
+                if (batch.size() == 1) {
+                    aiRequests.incrementAndGet();
+                    counted.accept(recommendWithPermit(batch.get(0), inFlight));
+                } else {
+                    recommendBatchWithPermit(batch, inFlight, aiRequests, counted, listener);
                 }
-            }
+            }, aiExecutor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
 
-            // Method 3: Try to extract meaningful sentences
-            String[] sentences = aiResponse.split("[.!?\\n]");
-            for (int i = sentences.length - 1; i >= 0; i--) {
-                String sentence = sentences[i].trim();
-                if (sentence.length() > 20 &&
-                        (sentence.toLowerCase().contains("because") ||
-                                sentence.toLowerCase().contains("due to") ||
-                                sentence.toLowerCase().contains("based on") ||
-                                sentence.toLowerCase().contains("considering") ||
-                                sentence.toLowerCase().contains("reason"))) {
-                    return sentence;
-                }
-            }
+        Map<String, Object> result = new HashMap<>();
+        result.put("checkedProducts", products.size());
+        result.put("cancelled", listener.isCancelled());
+        boolean usedPolicy = policyEnabled && !targeted;
+        result.put("policyEnabled", usedPolicy);
+        result.put("policyDecisions", policyDecided.size());
+        result.put("policyEvaluationMicros", policyMicros);
+        result.put("escalatedToAI", usedPolicy ? lowStock.size() : 0);
+        result.put("lowStockProducts", policyDecided.size() + lowStock.size());
+        result.put("autoTriggeredReplenishments", autoTriggeredCount.get());
+        result.put("failedRecommendations", failedCount.get());
+        result.put("batchSize", batchSize);
+        result.put("aiRequests", aiRequests.get());
+        result.put("durationMs", System.currentTimeMillis() - start);
+        result.put("timestamp", LocalDateTime.now());
+
+        return result;
+    }
 
-            // Method 4: Return first meaningful sentence
-            for (String sentence : sentences) {
-                String trimmed = sentence.trim();
-                if (trimmed.length() > 30 && !trimmed.contains("QUANTITY") && !trimmed.contains("URGENCY")) {
-                    return trimmed;
+    /**
+     * Stream each recommendation as an SSE "recommendation" event, then the summary as "complete".
+     */
+    public SseEmitter streamReplenishmentCheck() {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        aiExecutor.execute(() -> {
+            try {
+                Map<String, Object> summary = checkAllProductsForReplenishment(recommendation -> {
+                    // Results arrive from many threads; an emitter must not be written concurrently
+                    synchronized (emitter) {
+                        try {
+                            emitter.send(SseEmitter.event().name("recommendation").data(recommendation));
+                        } catch (Exception e) {
+                            System.err.println("Could not stream replenishment result: " + e.getMessage());
+                        }
+                    }
+                });
+                synchronized (emitter) {
+                    emitter.send(SseEmitter.event().name("complete").data(summary));
+                    emitter.complete();
                 }
+            } catch (Exception e) {
+                emitter.completeWithError(e);
             }
+        });
+        return emitter;
+    }
 
-            // Method 5: Fallback
-            return "AI recommendation based on inventory analysis and sales patterns";
-
+    private Map<String, Object> recommendWithPermit(Product product, Semaphore inFlight) {
+        try {
+            inFlight.acquire();
+            try {
+                return getAIReplenishmentRecommendation(product.getId());
+            } finally {
+                inFlight.release();
+            }
         } catch (Exception e) {
-            System.err.println("Error parsing reasoning: " + e.getMessage());
-            return "AI recommendation based on inventory analysis";
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            return errorResult(product, e);
         }
     }
 
-    private boolean triggerSmartReplenishment(Product product, int quantity, String urgencyLevel, String reasoning) {
+    private void recommendBatchWithPermit(List<Product> batch, Semaphore inFlight, AtomicInteger aiRequests,
+                                          Consumer<Map<String, Object>> onResult, SweepListener listener) {
         try {
-            List<User> buyers = userRepository.findAll().stream()
-                    .filter(user -> user.getRole() == User.Role.BUYER)
-                    .collect(Collectors.toList());
-
-            if (buyers.isEmpty()) {
-                System.err.println("No buyer found for auto-replenishment");
-                return false;
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.forEach(product -> onResult.accept(errorResult(product, e)));
+            return;
+        }
+        try {
+            Map<Long, SalesVelocity> velocities = salesHistoryService.loadSalesVelocity(
+                    batch.stream().map(Product::getId).collect(Collectors.toList()));
+            Map<Long, RecommendationFeatures> features = new HashMap<>();
+            List<Product> uncached = new ArrayList<>();
+            for (Product product : batch) {
+                SalesVelocity velocity = velocities.get(product.getId());
+                RecommendationFeatures productFeatures = buildFeatures(product, velocity);
+                features.put(product.getId(), productFeatures);
+
+                // Products whose features already have an answer skip the model call
+                String cached = geminiAIService.getCachedRecommendation(productFeatures);
+                if (cached != null) {
+                    acceptSafely(product, () -> parseAIResponse(cached, product, velocity), onResult);
+                } else {
+                    uncached.add(product);
+                }
             }
+            recommendBatch(uncached, features, velocities, aiRequests, onResult, listener);
+        } finally {
+            inFlight.release();
+        }
+    }
 
-            User buyer = buyers.get(0);
-            PurchaseOrder smartOrder = new PurchaseOrder(product, buyer, quantity, true);
-            smartOrder.setStatus("APPROVED");
-            smartOrder.setSupplierInfo("AI-Replenishment System");
-
-            // Truncate reasoning if too long
-            String truncatedReasoning = reasoning.length() > 200 ?
-                    reasoning.substring(0, 200) + "..." : reasoning;
-
-            smartOrder.setNotes("AI-triggered replenishment. Urgency: " + urgencyLevel +
-                    ". Reason: " + truncatedReasoning);
+    /**
+     * One Gemini call for the whole batch. Products missing from an answer that only parsed in part
+     * (truncated or malformed JSON) are retried in two halves, down to the single-product prompt.
+     * A call that failed outright (timeout, open breaker, rate limit, server error) is not retried:
+     * the whole batch gets the fallback quantity, so an unhealthy API sees no extra load.
+     */
+    private void recommendBatch(List<Product> batch, Map<Long, RecommendationFeatures> features,
+                                Map<Long, SalesVelocity> velocities, AtomicInteger aiRequests, Consumer<Map<String, Object>> onResult,
+                                SweepListener listener) {
+        if (batch.isEmpty() || listener.isCancelled()) return;
+        // Without an API key every call fails; go straight to the per-product fallback
+        if (batch.size() == 1 || !geminiAIService.isConfigured()) {
+            for (Product product : batch) {
+                if (listener.isCancelled()) return;
+                aiRequests.incrementAndGet();
+                acceptSafely(product, () -> recommend(product), onResult);
+            }
+            return;
+        }
 
-            PurchaseOrder savedOrder = purchaseOrderRepository.save(smartOrder);
-            salesRecordService.completePurchaseOrder(savedOrder.getId());
+        aiRequests.incrementAndGet();
+        String aiResponse = geminiAIService.getBatchRecommendation(buildBatchContext(batch, features, velocities));
+        if (aiResponse == null) {
+            System.err.println("Batched recommendation failed, using the fallback quantity for " + batch.size() + " products");
+            for (Product product : batch) {
+                acceptSafely(product, () -> fallbackRecommendation(product, velocities.get(product.getId())), onResult);
+            }
+            return;
+        }
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(aiResponse);
+
+        List<Product> missing = new ArrayList<>();
+        for (Product product : batch) {
+            BatchRecommendation entry = parsed.get(product.getId());
+            if (entry == null) {
+                missing.add(product);
+                continue;
+            }
+            String text = entry.toResponseText();
+            geminiAIService.cacheRecommendation(features.get(product.getId()), text);
+            acceptSafely(product, () -> buildRecommendation(product, text, entry.quantity(), entry.urgency(),
+                    entry.reason(), "AI"), onResult);
+        }
+        if (missing.isEmpty()) return;
 
-            System.out.println("AI-triggered replenishment completed for product: " +
-                    product.getName() + ", Quantity: " + quantity);
-            return true;
+        System.err.println("Batched recommendation covered " + (batch.size() - missing.size()) + " of "
+                + batch.size() + " products, retrying " + missing.size() + " in smaller batches");
+        int half = (missing.size() + 1) / 2;
+        recommendBatch(missing.subList(0, half), features, velocities, aiRequests, onResult, listener);
+        recommendBatch(missing.subList(half, missing.size()), features, velocities, aiRequests, onResult, listener);
+    }
 
+    private void acceptSafely(Product product, Supplier<Map<String, Object>> recommendation,
+                              Consumer<Map<String, Object>> onResult) {
+        Map<String, Object> result;
+        try {
+            result = recommendation.get();
         } catch (Exception e) {
-            System.err.println("Error in AI-triggered replenishment: " + e.getMessage());
-            return false;
+            result = errorResult(product, e);
         }
+        onResult.accept(result);
     }
 
-    public Map<String, Object> checkAllProductsForReplenishment() {
-        List<Product> products = productRepository.findAll();
-        Map<String, Object> result = new HashMap<>();
-
-        List<Map<String, Object>> recommendations = products.stream()
-                .filter(product -> product.getQuantity() <= (product.getReorderThreshold() + 10))
-                .map(product -> {
-                    try {
-                        return getAIReplenishmentRecommendation(product.getId());
-                    } catch (Exception e) {
-                        Map<String, Object> errorResult = new HashMap<>();
-                        errorResult.put("productId", product.getId());
-                        errorResult.put("productName", product.getName());
-                        errorResult.put("error", e.getMessage());
-                        return errorResult;
-                    }
-                })
-                .collect(Collectors.toList());
-
-        int autoTriggeredCount = (int) recommendations.stream()
-                .filter(rec -> rec.get("autoTriggered") != null && (Boolean) rec.get("autoTriggered"))
-                .count();
-
-        result.put("checkedProducts", products.size());
-        result.put("lowStockProducts", recommendations.size());
-        result.put("autoTriggeredReplenishments", autoTriggeredCount);
-        result.put("recommendations", recommendations);
-        result.put("timestamp", LocalDateTime.now());
-
-        return result;
+    private Map<String, Object> errorResult(Product product, Exception e) {
+        Map<String, Object> errorResult = new HashMap<>();
+        errorResult.put("productId", product.getId());
+        errorResult.put("productName", product.getName());
+        errorResult.put("error", e.getMessage());
+        return errorResult;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package com.internship.project.service;
+
+import com.internship.project.dto.StockoutRiskEntry;
+import com.internship.project.dto.StockoutRiskReport;
+import com.internship.project.entity.Product;
+import com.internship.project.event.StockMovementEvent;
+import com.internship.project.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Products ordered by projected days of cover (out-of-stock first), kept current on every stock movement
+ * and product change, so the most at-risk SKUs are read from the head of the index instead of
+ * forecasting the whole catalog. Each warehouse has its own index over the products it sells.
+ */
+@Service
+public class StockoutRiskIndexService {
+
+    public static final String ALL_WAREHOUSES = "ALL";
+    private static final int RISK_HORIZON_DAYS = 14;
+
+    @Autowired
+    private DemandForecastingService demandForecastingService;
+
+    @Autowired
+    private DemandStateService demandStateService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /**
+     * Index key: out-of-stock products sort first (-1), then by days of stock left.
+     */
+    private record IndexedRisk(double daysOfCover, long productId, StockoutRiskEntry entry) {
+    }
+
+    private static final Comparator<IndexedRisk> BY_COVER = Comparator
+            .comparingDouble(IndexedRisk::daysOfCover)
+            .thenComparingLong(IndexedRisk::productId);
+
+    private final Map<String, NavigableSet<IndexedRisk>> indexes = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedRisk> current = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> indexedIn = new ConcurrentHashMap<>();
+
+    // Order of updates, so a slower forecast cannot overwrite a newer ranking of the same product
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Long> appliedSequence = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("Could not build stockout risk index: " + e.getMessage());
+        }
+    }
+
+    // Runs after DemandStateService has folded the sale into the demand state
+    @EventListener
+    public void onStockMovement(StockMovementEvent event) {
+        try {
+            productChanged(atQuantity(event.product(), event.quantityAfter()));
+        } catch (Exception e) {
+            // The movement is already committed; the hourly rebuild re-ranks the product
+            System.err.println("Could not re-rank product " + event.product().getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-rank a product after its stock, threshold or demand changed. The forecast runs without any lock;
+     * only the index swap is serialized, per product.
+     */
+    public void productChanged(Product product) {
+        long seq = sequence.incrementAndGet();
+        StockoutRiskEntry entry = StockoutRiskEntry.of(demandForecastingService.forecastProduct(product, RISK_HORIZON_DAYS));
+        double daysOfCover = product.getQuantity() <= 0 ? -1 : entry.daysOfStockLeft();
+        IndexedRisk updated = new IndexedRisk(daysOfCover, product.getId(), entry);
+
+        Set<String> warehouses = new HashSet<>(demandStateService.getWarehouses(product.getId()));
+        warehouses.add(ALL_WAREHOUSES);
+
+        current.compute(product.getId(), (id, previous) -> {
+            if (!claim(id, seq)) return previous;
+            removeFromIndexes(id, previous);
+            for (String warehouse : warehouses) {
+                indexes.computeIfAbsent(warehouse, w -> new ConcurrentSkipListSet<>(BY_COVER)).add(updated);
+            }
+            indexedIn.put(id, warehouses);
+            return updated;
+        });
+    }
+
+    public void productRemoved(Long productId) {
+        long seq = sequence.incrementAndGet();
+        current.compute(productId, (id, previous) -> {
+            if (!claim(id, seq)) return previous;
+            removeFromIndexes(id, previous);
+            indexedIn.remove(id);
+            appliedSequence.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Re-rank the whole catalog. Runs hourly so days of cover follow demand that decays without sales.
+     */
+    @Scheduled(cron = "${forecast.risk-index.rebuild-cron:0 15 * * * *}")
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        Set<Long> live = new HashSet<>();
+        for (Product product : products) {
+            productChanged(product);
+            live.add(product.getId());
+        }
+        // Drop products deleted outside ProductService
+        for (Long productId : new ArrayList<>(current.keySet())) {
+            if (!live.contains(productId)) productRemoved(productId);
+        }
+        System.out.println("Stockout risk index rebuilt for " + products.size() + " products");
+    }
+
+    /**
+     * The N products with the least cover, optionally for one warehouse.
+     */
+    public List<StockoutRiskEntry> getTopAtRisk(int limit, String warehouse) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        List<StockoutRiskEntry> top = new ArrayList<>(Math.min(limit, 100));
+        for (IndexedRisk risk : index(warehouse)) {
+            if (top.size() >= limit) break;
+            top.add(risk.entry());
+        }
+        return top;
+    }
+
+    /**
+     * CRITICAL and HIGH risk products, read from the head of the index.
+     */
+    public StockoutRiskReport getHighRiskReport(String warehouse, int limit) {
+        List<StockoutRiskEntry> highRisk = new ArrayList<>();
+        long critical = 0;
+        long high = 0;
+        for (IndexedRisk risk : index(warehouse)) {
+            String level = risk.entry().riskLevel();
+            if ("CRITICAL".equals(level)) critical++;
+            else if ("HIGH".equals(level)) high++;
+            else break;
+            if (highRisk.size() < limit) highRisk.add(risk.entry());
+        }
+        return new StockoutRiskReport(warehouse == null ? ALL_WAREHOUSES : warehouse,
+                critical, high, highRisk, LocalDateTime.now());
+    }
+
+    private NavigableSet<IndexedRisk> index(String warehouse) {
+        NavigableSet<IndexedRisk> index = indexes.get(warehouse == null ? ALL_WAREHOUSES : warehouse);
+        return index != null ? index : new ConcurrentSkipListSet<>(BY_COVER);
+    }
+
+    // Called inside current.compute for the product, so updates to one product never interleave
+    private boolean claim(Long productId, long seq) {
+        Long applied = appliedSequence.get(productId);
+        if (applied != null && applied > seq) return false;
+        appliedSequence.put(productId, seq);
+        return true;
+    }
+
+    // Rank with the level the stock update returned, not whatever quantity the event's entity was loaded with
+    private static Product atQuantity(Product product, int quantity) {
+        if (product.getQuantity() == quantity) return product;
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setQuantity(quantity);
+        copy.setReorderThreshold(product.getReorderThreshold());
+        copy.setPrice(product.getPrice());
+        copy.setImageFileName(product.getImageFileName());
+        return copy;
+    }
+
+    private void removeFromIndexes(Long productId, IndexedRisk previous) {
+        if (previous == null) return;
+        for (String warehouse : indexedIn.getOrDefault(productId, Set.of())) {
+            NavigableSet<IndexedRisk> index = indexes.get(warehouse);
+            if (index != null) index.remove(previous);
+        }
+    }
+}
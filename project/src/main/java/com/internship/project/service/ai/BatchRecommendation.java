@@ -0,0 +1,14 @@
+package com.internship.project.service.ai;
+
+/**
+ * One product's entry in a batched model answer.
+ */
+public record BatchRecommendation(long productId, int quantity, String urgency, String reason) {
+
+    /**
+     * Same shape as a single-product answer, so it can be cached and parsed like one.
+     */
+    public String toResponseText() {
+        return "QUANTITY: " + quantity + "\nURGENCY: " + urgency + "\nREASON: " + reason;
+    }
+}
@@ -0,0 +1,88 @@
+package com.internship.project.service.ai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a JSON array of {productId, quantity, urgency, reason} objects from model output with a
+ * streaming parser. Text around the array (e.g. markdown fences) is ignored, and entries read before a
+ * malformed or truncated part are kept, so a partial answer still yields the products it covered.
+ */
+public class BatchResponseParser {
+
+    private static final Set<String> URGENCY_LEVELS = Set.of("CRITICAL", "HIGH", "MEDIUM", "LOW");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private BatchResponseParser() {
+    }
+
+    public static Map<Long, BatchRecommendation> parse(String text) {
+        Map<Long, BatchRecommendation> results = new HashMap<>();
+        int start = text == null ? -1 : text.indexOf('[');
+        if (start < 0) return results;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(text.substring(start))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) return results;
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                BatchRecommendation entry = readEntry(parser);
+                if (entry != null) results.put(entry.productId(), entry);
+            }
+        } catch (IOException e) {
+            // Keep what was parsed; callers retry the missing products
+        }
+        return results;
+    }
+
+    private static BatchRecommendation readEntry(JsonParser parser) throws IOException {
+        Long productId = null;
+        Integer quantity = null;
+        String urgency = null;
+        String reason = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                // Boxed on both branches so an unparseable string gives null instead of unboxing it
+                case "productId" -> productId = value.isNumeric() ? Long.valueOf(parser.getLongValue()) : parseLong(parser.getText());
+                case "quantity" -> quantity = value.isNumeric() ? Integer.valueOf(parser.getIntValue()) : parseInt(parser.getText());
+                case "urgency" -> urgency = value == JsonToken.VALUE_STRING ? parser.getText().trim().toUpperCase() : null;
+                case "reason" -> reason = value == JsonToken.VALUE_STRING ? parser.getText().trim() : null;
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (productId == null || quantity == null || quantity <= 0 || quantity > 1000) return null;
+        return new BatchRecommendation(productId, quantity,
+                urgency != null && URGENCY_LEVELS.contains(urgency) ? urgency : "MEDIUM",
+                reason != null && !reason.isEmpty() ? reason : "AI recommendation based on inventory analysis and sales patterns");
+    }
+
+    private static Long parseLong(String text) {
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseInt(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.internship.project.service.ai;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Consecutive-failure circuit breaker. After failureThreshold failures in a row the circuit opens and
+ * calls are refused for openDuration; then one trial call is let through (HALF_OPEN) and its outcome
+ * closes or re-opens the circuit.
+ */
+public class CircuitBreaker {
+
+    public static final String CLOSED = "CLOSED";
+    public static final String OPEN = "OPEN";
+    public static final String HALF_OPEN = "HALF_OPEN";
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private String state = CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private long successes;
+    private long failures;
+    private long rejected;
+    private long timesOpened;
+    private Instant lastStateChange = Instant.now();
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openDuration.toMillis();
+    }
+
+    /**
+     * Whether a call may go out now. Every permitted call must report recordSuccess or recordFailure.
+     */
+    public synchronized boolean allowRequest() {
+        if (OPEN.equals(state) && System.currentTimeMillis() - openedAt >= openMillis) {
+            transition(HALF_OPEN);
+        }
+        if (CLOSED.equals(state)) {
+            return true;
+        }
+        if (HALF_OPEN.equals(state) && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        successes++;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (!CLOSED.equals(state)) {
+            transition(CLOSED);
+        }
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (HALF_OPEN.equals(state) || (CLOSED.equals(state) && consecutiveFailures >= failureThreshold)) {
+            openedAt = System.currentTimeMillis();
+            timesOpened++;
+            transition(OPEN);
+        }
+    }
+
+    /**
+     * Return a permit for a call that was allowed but never sent, without counting it either way.
+     */
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    public synchronized String getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", state);
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("failureThreshold", failureThreshold);
+        stats.put("openDurationMs", openMillis);
+        stats.put("successes", successes);
+        stats.put("failures", failures);
+        stats.put("rejected", rejected);
+        stats.put("timesOpened", timesOpened);
+        stats.put("lastStateChange", lastStateChange.toString());
+        return stats;
+    }
+
+    private void transition(String newState) {
+        System.out.println("Gemini circuit breaker " + state + " -> " + newState);
+        state = newState;
+        lastStateChange = Instant.now();
+    }
+}
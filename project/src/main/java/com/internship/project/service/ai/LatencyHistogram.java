@@ -0,0 +1,66 @@
+package com.internship.project.service.ai;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram in milliseconds. Percentiles are estimated as the upper bound of the
+ * bucket they fall in, which is enough to see tail latency move.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_MS = {25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 20000, 30000};
+
+    // One extra bucket for anything above the last bound
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumMs = new LongAdder();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    public void record(long millis) {
+        int bucket = 0;
+        while (bucket < BOUNDS_MS.length && millis > BOUNDS_MS[bucket]) bucket++;
+        counts.incrementAndGet(bucket);
+        total.increment();
+        sumMs.add(millis);
+        maxMs.accumulateAndGet(millis, Math::max);
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), or the max for the overflow bucket.
+     */
+    public long percentile(double percentile) {
+        long count = total.sum();
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int bucket = 0; bucket < BOUNDS_MS.length; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) return BOUNDS_MS[bucket];
+        }
+        return maxMs.get();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < BOUNDS_MS.length; bucket++) {
+            buckets.put("le_" + BOUNDS_MS[bucket], counts.get(bucket));
+        }
+        buckets.put("gt_" + BOUNDS_MS[BOUNDS_MS.length - 1], counts.get(BOUNDS_MS.length));
+
+        long count = total.sum();
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("count", count);
+        snapshot.put("meanMs", count > 0 ? Math.round(sumMs.sum() / (double) count) : 0);
+        snapshot.put("p50Ms", percentile(50));
+        snapshot.put("p95Ms", percentile(95));
+        snapshot.put("p99Ms", percentile(99));
+        snapshot.put("maxMs", maxMs.get());
+        snapshot.put("buckets", buckets);
+        return snapshot;
+    }
+}
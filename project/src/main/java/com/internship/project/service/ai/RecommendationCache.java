@@ -0,0 +1,75 @@
+package com.internship.project.service.ai;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of model answers keyed by quantized recommendation features, with a TTL per entry
+ * and hit/miss counters.
+ */
+public class RecommendationCache {
+
+    private record Entry(String response, long expiresAt) {
+    }
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<RecommendationFeatures.Key, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long bypasses;
+    private long evictions;
+
+    public RecommendationCache(Duration ttl, int maxEntries) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RecommendationFeatures.Key, Entry> eldest) {
+                boolean evict = size() > RecommendationCache.this.maxEntries;
+                if (evict) evictions++;
+                return evict;
+            }
+        };
+    }
+
+    public synchronized String get(RecommendationFeatures.Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null || System.currentTimeMillis() > entry.expiresAt()) {
+            if (entry != null) entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.response();
+    }
+
+    public synchronized void put(RecommendationFeatures.Key key, String response) {
+        entries.put(key, new Entry(response, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void recordBypass() {
+        bypasses++;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long lookups = hits + misses;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("bypasses", bypasses);
+        stats.put("evictions", evictions);
+        stats.put("hitRate", lookups > 0 ? Math.round(hits * 10000.0 / lookups) / 100.0 : 0.0);
+        return stats;
+    }
+}
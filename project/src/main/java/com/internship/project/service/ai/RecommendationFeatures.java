@@ -0,0 +1,36 @@
+package com.internship.project.service.ai;
+
+/**
+ * Inputs of a replenishment prompt that determine the answer. Products whose features quantize to
+ * the same key get essentially the same recommendation, so the key (not the prompt text) is cached.
+ */
+public record RecommendationFeatures(int currentStock, int reorderThreshold, double price, double avgDailySales) {
+
+    // Stock covering this many days or fewer is treated as critical and always sent to the model
+    private static final int CRITICAL_COVER_DAYS = 3;
+
+    public record Key(int stockRatioBucket, int thresholdBucket, int priceBand, int velocityBucket) {
+    }
+
+    /**
+     * Stock relative to threshold in quarter steps (capped at 3x), threshold and velocity in half-octave
+     * buckets, price in half-decade bands.
+     */
+    public Key quantize() {
+        double stockRatio = currentStock / (double) Math.max(reorderThreshold, 1);
+        return new Key(
+                (int) Math.min(Math.round(Math.max(stockRatio, 0) * 4), 12),
+                (int) Math.round(2 * log2(Math.max(reorderThreshold, 0) + 1)),
+                (int) Math.floor(2 * Math.log10(Math.max(price, 0) + 1)),
+                (int) Math.round(2 * log2(Math.max(avgDailySales, 0) + 1)));
+    }
+
+    public boolean isCritical() {
+        if (currentStock <= 0) return true;
+        return avgDailySales > 0 && currentStock / avgDailySales <= CRITICAL_COVER_DAYS;
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+}
@@ -0,0 +1,234 @@
+package com.internship.project.service.ai;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls quantity, urgency and reason out of a free-text model answer. Gives the same results as the
+ * original layered heuristics (QUANTITY:/URGENCY:/REASON: markers first, then keyword lines, then any
+ * plausible number or sentence), but with patterns compiled once, markers found with indexOf, and the
+ * line and sentence fallbacks done in one scan over index ranges instead of repeated split/lower-case copies.
+ * RecommendationResponseParserTest checks the equivalence on a corpus of model answers.
+ */
+public final class RecommendationResponseParser {
+
+    public static final String DEFAULT_URGENCY = "MEDIUM";
+    public static final String DEFAULT_REASON = "AI recommendation based on inventory analysis and sales patterns";
+    // What the original parser returned when reading the reason failed outright
+    public static final String ERROR_REASON = "AI recommendation based on inventory analysis";
+
+    private static final Pattern QUANTITY_LABEL = Pattern.compile("Quantity:\\s*(\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LINE_NUMBER = Pattern.compile("\\b([1-9]\\d{1,2})\\b");
+    private static final Pattern ANY_NUMBER = Pattern.compile("\\b([1-9]\\d?\\d?)\\b");
+
+    private static final String[] QUANTITY_LINE_WORDS = {"quantity", "replenish", "recommend", "order"};
+    private static final String[] REASON_WORDS = {"because", "due to", "based on", "considering", "reason"};
+
+    // Marker present but followed only by line/field separators (the original parser failed on these)
+    private static final String MALFORMED = "\u0000";
+
+    private RecommendationResponseParser() {
+    }
+
+    /**
+     * quantity is null when nothing usable was found and the caller should compute a fallback.
+     */
+    public record ParsedResponse(Integer quantity, String urgency, String reason) {
+    }
+
+    public static ParsedResponse parse(String response) {
+        if (response == null) {
+            return new ParsedResponse(null, DEFAULT_URGENCY, ERROR_REASON);
+        }
+        return new ParsedResponse(parseQuantity(response), parseUrgency(response), parseReason(response));
+    }
+
+    public static Integer parseQuantity(String response) {
+        // 1: exact "QUANTITY:" field, digits only
+        String field = fieldAfter(response, "QUANTITY:");
+        if (field == MALFORMED) return null;
+        if (field != null) {
+            String digits = digitsOf(field.trim());
+            if (!digits.isEmpty()) {
+                long quantity = parseDigits(digits);
+                if (quantity < 0) return null;
+                if (quantity > 0 && quantity <= 1000) return (int) quantity;
+            }
+        }
+
+        // 2: "Quantity:" in any case
+        Matcher labelled = QUANTITY_LABEL.matcher(response);
+        if (labelled.find()) {
+            long quantity = parseDigits(labelled.group(1));
+            if (quantity < 0) return null;
+            if (quantity > 0 && quantity <= 1000) return (int) quantity;
+        }
+
+        // 3: first 2-3 digit number on a line that talks about ordering; 4: any plausible number
+        Matcher number = LINE_NUMBER.matcher(response);
+        int length = response.length();
+        int lineStart = 0;
+        while (lineStart <= length) {
+            int lineEnd = response.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = length;
+            if (containsAny(response.substring(lineStart, lineEnd).toLowerCase(), QUANTITY_LINE_WORDS)) {
+                number.region(lineStart, lineEnd);
+                if (number.find()) {
+                    int quantity = Integer.parseInt(number.group());
+                    if (quantity >= 10 && quantity <= 500) return quantity;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        Matcher any = ANY_NUMBER.matcher(response);
+        while (any.find()) {
+            int quantity = Integer.parseInt(any.group());
+            // Skip years, prices and the like
+            if (quantity >= 10 && quantity <= 300) return quantity;
+        }
+        return null;
+    }
+
+    public static String parseUrgency(String response) {
+        String upper = response.toUpperCase();
+
+        String field = fieldAfter(upper, "URGENCY:");
+        if (field == MALFORMED) return DEFAULT_URGENCY;
+        if (field != null) {
+            if (field.contains("CRITICAL")) return "CRITICAL";
+            if (field.contains("HIGH")) return "HIGH";
+            if (field.contains("MEDIUM")) return "MEDIUM";
+            if (field.contains("LOW")) return "LOW";
+        }
+
+        if (upper.contains("CRITICAL") || upper.contains("EMERGENCY")) return "CRITICAL";
+        if (upper.contains("HIGH") || upper.contains("URGENT") || upper.contains("IMMEDIATE")) return "HIGH";
+        if (upper.contains("MEDIUM") || upper.contains("MODERATE")) return "MEDIUM";
+        if (upper.contains("LOW") || upper.contains("MINOR")) return "LOW";
+
+        if (upper.contains("OUT OF STOCK") || upper.contains("ZERO STOCK") || upper.contains("CRITICALLY LOW")) {
+            return "CRITICAL";
+        }
+        if (upper.contains("VERY LOW") || upper.contains("RUNNING OUT") || upper.contains("SHORTAGE")) {
+            return "HIGH";
+        }
+        return DEFAULT_URGENCY;
+    }
+
+    public static String parseReason(String response) {
+        for (String marker : new String[]{"REASON:", "Reason:"}) {
+            String field = fieldAfter(response, marker);
+            if (field == MALFORMED) return ERROR_REASON;
+            if (field != null) {
+                String reason = field.trim();
+                if (reason.length() > 10) return reason;
+            }
+        }
+
+        // One pass over the sentences: the last one that explains itself, else the first long one
+        String explaining = null;
+        String firstLong = null;
+        int length = response.length();
+        int start = 0;
+        while (start <= length) {
+            int end = start;
+            while (end < length && !isSentenceEnd(response.charAt(end))) end++;
+
+            int from = start;
+            int to = end;
+            while (from < to && response.charAt(from) <= ' ') from++;
+            while (to > from && response.charAt(to - 1) <= ' ') to--;
+            int trimmedLength = to - from;
+
+            if (trimmedLength > 20) {
+                String sentence = response.substring(from, to);
+                if (containsAny(sentence.toLowerCase(), REASON_WORDS)) {
+                    explaining = sentence;
+                }
+                if (firstLong == null && trimmedLength > 30
+                        && !sentence.contains("QUANTITY") && !sentence.contains("URGENCY")) {
+                    firstLong = sentence;
+                }
+            }
+            start = end + 1;
+        }
+
+        if (explaining != null) return explaining;
+        if (firstLong != null) return firstLong;
+        return DEFAULT_REASON;
+    }
+
+    /**
+     * Text after the first marker up to the next line or '|' separator (or the next marker), null if the
+     * marker is missing or nothing follows it, MALFORMED if only separators follow it.
+     */
+    private static String fieldAfter(String text, String marker) {
+        int first = text.indexOf(marker);
+        if (first < 0) return null;
+
+        int start = first + marker.length();
+        int next = text.indexOf(marker, start);
+        int end = next < 0 ? text.length() : next;
+
+        if (start == end) {
+            // Empty field: only counts if some later field has text
+            int position = next;
+            while (position >= 0) {
+                int fieldStart = position + marker.length();
+                int fieldEnd = text.indexOf(marker, fieldStart);
+                if ((fieldEnd < 0 ? text.length() : fieldEnd) > fieldStart) return "";
+                position = fieldEnd;
+            }
+            return null;
+        }
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '|') {
+                return i == start && onlySeparators(text, start, end) ? MALFORMED : text.substring(start, i);
+            }
+        }
+        return text.substring(start, end);
+    }
+
+    private static boolean onlySeparators(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '\n' && c != '|') return false;
+        }
+        return true;
+    }
+
+    private static String digitsOf(String text) {
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        return digits.toString();
+    }
+
+    // Value of a run of ASCII digits, or -1 if it does not fit in an int
+    private static long parseDigits(String digits) {
+        long value = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = Character.digit(digits.charAt(i), 10);
+            if (digit < 0) return -1;
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) return -1;
+        }
+        return value;
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?' || c == '\n';
+    }
+
+    private static boolean containsAny(String text, String[] words) {
+        for (String word : words) {
+            if (text.contains(word)) return true;
+        }
+        return false;
+    }
+}
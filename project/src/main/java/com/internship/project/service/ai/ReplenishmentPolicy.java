@@ -0,0 +1,141 @@
+package com.internship.project.service.ai;
+
+/**
+ * Deterministic reorder policy: a continuous-review (s, Q) rule with reorder point
+ * s = lead-time demand + safety stock and order size Q from the economic order quantity.
+ * Decisions it is unsure about (no demand history, volatile demand, stock right at the reorder point,
+ * or expensive orders) are flagged for escalation to the model instead of being guessed.
+ */
+public class ReplenishmentPolicy {
+
+    public static final String NO_DEMAND_HISTORY = "NO_DEMAND_HISTORY";
+    public static final String VOLATILE_DEMAND = "VOLATILE_DEMAND";
+    public static final String BORDERLINE = "BORDERLINE";
+    public static final String HIGH_VALUE = "HIGH_VALUE";
+
+    private static final int MIN_ORDER = 10;
+    private static final int MAX_ORDER = 1000;
+
+    private final double leadTimeDays;
+    private final double serviceLevelZ;
+    private final double orderingCost;
+    private final double annualHoldingRate;
+    private final double highValueOrder;
+    private final double maxCoefficientOfVariation;
+    private final double borderlineBand;
+
+    /**
+     * @param leadTimeDays              days from placing an order until stock arrives
+     * @param serviceLevel              probability of not stocking out during lead time, e.g. 0.95
+     * @param orderingCost              fixed cost per purchase order
+     * @param annualHoldingRate         yearly holding cost as a fraction of unit price, e.g. 0.25
+     * @param highValueOrder            order value at or above which a person/model should look at it
+     * @param maxCoefficientOfVariation daily demand std dev / mean above which demand is too erratic to trust
+     * @param borderlineBand            stock within this fraction of the reorder point is a close call
+     */
+    public ReplenishmentPolicy(double leadTimeDays, double serviceLevel, double orderingCost, double annualHoldingRate,
+                               double highValueOrder, double maxCoefficientOfVariation, double borderlineBand) {
+        if (leadTimeDays <= 0 || serviceLevel <= 0.5 || serviceLevel >= 1 || orderingCost <= 0 || annualHoldingRate <= 0) {
+            throw new IllegalArgumentException("Lead time, ordering cost and holding rate must be positive "
+                    + "and service level between 0.5 and 1");
+        }
+        this.leadTimeDays = leadTimeDays;
+        this.serviceLevelZ = inverseNormal(serviceLevel);
+        this.orderingCost = orderingCost;
+        this.annualHoldingRate = annualHoldingRate;
+        this.highValueOrder = highValueOrder;
+        this.maxCoefficientOfVariation = maxCoefficientOfVariation;
+        this.borderlineBand = borderlineBand;
+    }
+
+    /**
+     * Outcome for one product. escalation is null when the policy's answer can be used as is.
+     */
+    public record Decision(boolean reorder, int quantity, String urgency, String reason, double reorderPoint,
+                           double safetyStock, double economicOrderQuantity, double daysOfCover, String escalation) {
+
+        public boolean escalate() {
+            return escalation != null;
+        }
+    }
+
+    /**
+     * @param dailyDemand   expected units sold per day
+     * @param dailyVariance variance of daily units sold
+     */
+    public Decision evaluate(int stock, int reorderThreshold, double price, double dailyDemand, double dailyVariance) {
+        if (dailyDemand <= 0) {
+            // Nothing to size an order from: top up to the threshold plus a margin, and let the model decide
+            boolean reorder = stock <= reorderThreshold;
+            int quantity = clamp(Math.max(reorderThreshold * 2 - stock, MIN_ORDER));
+            return new Decision(reorder, quantity, stock <= 0 ? "HIGH" : "MEDIUM",
+                    "No recent demand; restock to twice the reorder threshold",
+                    reorderThreshold, 0.0, 0.0, -1, reorder ? NO_DEMAND_HISTORY : null);
+        }
+
+        double sigma = Math.sqrt(Math.max(dailyVariance, 0.0));
+        double safetyStock = serviceLevelZ * sigma * Math.sqrt(leadTimeDays);
+        double reorderPoint = Math.max(dailyDemand * leadTimeDays + safetyStock, reorderThreshold);
+        double unitHoldingCost = annualHoldingRate * Math.max(price, 0.01);
+        double eoq = Math.sqrt(2 * dailyDemand * 365 * orderingCost / unitHoldingCost);
+        double daysOfCover = Math.max(stock, 0) / dailyDemand;
+
+        boolean reorder = stock <= reorderPoint;
+        // Order Q, plus whatever is needed to climb back to the reorder point when already below it
+        int quantity = clamp((int) Math.ceil(eoq + Math.max(reorderPoint - stock, 0)));
+        String urgency = urgency(stock, daysOfCover, reorderPoint);
+        String reason = String.format("Demand %.2f/day, %.1f days of cover against %.0f-day lead time; "
+                        + "reorder point %.0f (safety stock %.0f), EOQ %.0f",
+                dailyDemand, daysOfCover, leadTimeDays, reorderPoint, safetyStock, eoq);
+
+        String escalation = null;
+        if (reorder && quantity * price >= highValueOrder) {
+            escalation = HIGH_VALUE;
+        } else if (reorder && sigma / dailyDemand > maxCoefficientOfVariation) {
+            escalation = VOLATILE_DEMAND;
+        } else if (Math.abs(stock - reorderPoint) <= reorderPoint * borderlineBand) {
+            escalation = BORDERLINE;
+        }
+
+        return new Decision(reorder, quantity, urgency, reason, reorderPoint, safetyStock, eoq, daysOfCover, escalation);
+    }
+
+    private String urgency(int stock, double daysOfCover, double reorderPoint) {
+        if (stock <= 0 || daysOfCover <= leadTimeDays / 2) return "CRITICAL";
+        // Runs out before a new order would arrive
+        if (daysOfCover <= leadTimeDays) return "HIGH";
+        if (stock <= reorderPoint) return "MEDIUM";
+        return "LOW";
+    }
+
+    private static int clamp(int quantity) {
+        return Math.max(MIN_ORDER, Math.min(quantity, MAX_ORDER));
+    }
+
+    // Acklam's rational approximation of the standard normal quantile (relative error below 1.2e-9)
+    static double inverseNormal(double p) {
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.internship.project.service.ai;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket rate limiter: refills at a steady rate up to a burst capacity.
+ * Callers wait (sleeping outside the lock, which is cheap on virtual threads) until a token is free.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(int permitsPerMinute, int burst) {
+        if (permitsPerMinute < 1 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be at least 1");
+        }
+        this.capacity = burst;
+        this.tokensPerNano = permitsPerMinute / (double) Duration.ofMinutes(1).toNanos();
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take a token, waiting at most timeout for one to become available.
+     */
+    public boolean tryAcquire(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return true;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            Thread.sleep(Duration.ofNanos(Math.min(waitNanos, remaining)));
+        }
+    }
+
+    /**
+     * Take a token only if one is available right now; never waits.
+     */
+    public synchronized boolean tryAcquireNow() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,50 @@
+package com.internship.project.service.forecast;
+
+import java.util.Arrays;
+
+/**
+ * Croston's method with the Syntetos-Boylan bias correction, for intermittent demand:
+ * smooths non-zero demand sizes and the intervals between them separately.
+ */
+public class CrostonSba implements ForecastModel {
+
+    private final double alpha;
+
+    public CrostonSba(double alpha) {
+        this.alpha = alpha;
+    }
+
+    @Override
+    public String name() {
+        return "CROSTON_SBA";
+    }
+
+    @Override
+    public double[] forecast(double[] history, int length, int horizon) {
+        double size = 0;
+        double interval = 0;
+        boolean initialised = false;
+        int sinceLast = 1;
+
+        for (int t = 0; t < length; t++) {
+            if (history[t] > 0) {
+                if (!initialised) {
+                    size = history[t];
+                    interval = sinceLast;
+                    initialised = true;
+                } else {
+                    size = alpha * history[t] + (1 - alpha) * size;
+                    interval = alpha * sinceLast + (1 - alpha) * interval;
+                }
+                sinceLast = 1;
+            } else {
+                sinceLast++;
+            }
+        }
+
+        double rate = initialised ? (1 - alpha / 2) * size / interval : 0.0;
+        double[] projection = new double[horizon];
+        Arrays.fill(projection, rate);
+        return projection;
+    }
+}
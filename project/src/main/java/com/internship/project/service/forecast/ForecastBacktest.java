@@ -0,0 +1,131 @@
+package com.internship.project.service.forecast;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Replays daily sales series in rolling windows through the forecast model selector and
+ * measures accuracy (MAPE, bias, stockouts, overstocks) and throughput (SKUs/sec, allocation rate).
+ */
+public class ForecastBacktest {
+
+    // Stocking the forecast leaves more than this fraction above actual demand
+    private static final double OVERSTOCK_TOLERANCE = 0.5;
+
+    private final ForecastModelSelector selector;
+    private final int trainDays;
+    private final int windowDays;
+
+    public ForecastBacktest(ForecastModelSelector selector, int trainDays, int windowDays) {
+        if (trainDays < 1 || windowDays < 1) {
+            throw new IllegalArgumentException("Training and window days must be at least 1");
+        }
+        this.selector = selector;
+        this.trainDays = trainDays;
+        this.windowDays = windowDays;
+    }
+
+    /**
+     * Accuracy and throughput of one backtest run.
+     */
+    public record Result(int series, int windows, long skuWindows, double mape, double bias,
+                         long stockouts, long overstocks, long durationMs, double skusPerSecond,
+                         double allocatedMbPerSecond) {
+    }
+
+    public Result run(List<double[]> series) {
+        int days = series.isEmpty() ? 0 : series.get(0).length;
+        int windows = days >= trainDays + windowDays ? (days - trainDays) / windowDays : 0;
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        Tally total = IntStream.range(0, series.size()).parallel()
+                .mapToObj(i -> evaluate(series.get(i), windows))
+                .reduce(new Tally(), Tally::merge);
+
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        long allocated = allocatedBytes() - allocatedBefore;
+        double seconds = elapsedNanos / 1_000_000_000.0;
+
+        return new Result(
+                series.size(),
+                windows,
+                total.skuWindows,
+                total.apeCount > 0 ? Math.round(total.apeSum / total.apeCount * 10000.0) / 100.0 : 0.0,
+                total.actualSum > 0 ? Math.round((total.forecastSum - total.actualSum) / total.actualSum * 10000.0) / 100.0 : 0.0,
+                total.stockouts,
+                total.overstocks,
+                elapsedNanos / 1_000_000,
+                Math.round(total.skuWindows / seconds * 100.0) / 100.0,
+                allocatedBefore < 0 ? -1 : Math.round(allocated / seconds / (1024 * 1024) * 100.0) / 100.0);
+    }
+
+    private Tally evaluate(double[] history, int windows) {
+        Tally tally = new Tally();
+        for (int w = 0; w < windows; w++) {
+            int cutoff = trainDays + w * windowDays;
+            double[] projection = selector.select(history, cutoff, windowDays).projection();
+
+            double forecast = 0;
+            double actual = 0;
+            for (int day = 0; day < windowDays; day++) {
+                forecast += projection[day];
+                actual += history[cutoff + day];
+            }
+
+            tally.skuWindows++;
+            tally.forecastSum += forecast;
+            tally.actualSum += actual;
+            if (actual > 0) {
+                tally.apeSum += Math.abs(forecast - actual) / actual;
+                tally.apeCount++;
+            }
+
+            // Stock exactly the forecasted demand and see how it would have played out
+            double stocked = Math.ceil(forecast);
+            if (actual > stocked) {
+                tally.stockouts++;
+            } else if (stocked > Math.ceil(actual * (1 + OVERSTOCK_TOLERANCE))) {
+                tally.overstocks++;
+            }
+        }
+        return tally;
+    }
+
+    private static final class Tally {
+        long skuWindows;
+        double apeSum;
+        long apeCount;
+        double forecastSum;
+        double actualSum;
+        long stockouts;
+        long overstocks;
+
+        Tally merge(Tally other) {
+            Tally merged = new Tally();
+            merged.skuWindows = skuWindows + other.skuWindows;
+            merged.apeSum = apeSum + other.apeSum;
+            merged.apeCount = apeCount + other.apeCount;
+            merged.forecastSum = forecastSum + other.forecastSum;
+            merged.actualSum = actualSum + other.actualSum;
+            merged.stockouts = stockouts + other.stockouts;
+            merged.overstocks = overstocks + other.overstocks;
+            return merged;
+        }
+    }
+
+    // Bytes allocated so far by all live threads (the fork/join workers outlive a run), or -1 if unsupported
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            long total = 0;
+            for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                if (allocated > 0) total += allocated;
+            }
+            return total;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,19 @@
+package com.internship.project.service.forecast;
+
+/**
+ * A daily demand model. Implementations work directly on primitive day buckets
+ * (oldest first, one value per day) and must not allocate per observation.
+ */
+public interface ForecastModel {
+
+    String name();
+
+    /**
+     * Fit the model to the history and return the projected demand for each of the next horizon days.
+     */
+    double[] forecast(double[] history, int length, int horizon);
+
+    default double[] forecast(double[] history, int horizon) {
+        return forecast(history, history.length, horizon);
+    }
+}
@@ -0,0 +1,55 @@
+package com.internship.project.service.forecast;
+
+import java.util.List;
+
+/**
+ * Picks the model with the lowest mean absolute error on a holdout of the most recent days,
+ * then refits the winner on the full history.
+ */
+public class ForecastModelSelector {
+
+    private final List<ForecastModel> candidates;
+    private final int holdoutDays;
+
+    public ForecastModelSelector(List<ForecastModel> candidates, int holdoutDays) {
+        this.candidates = candidates;
+        this.holdoutDays = holdoutDays;
+    }
+
+    /**
+     * Result of fitting one series: chosen model, its holdout error and the projection.
+     */
+    public record Fit(String model, double holdoutMae, double[] projection) {
+    }
+
+    public Fit select(double[] history, int horizon) {
+        return select(history, history.length, horizon);
+    }
+
+    /**
+     * Select and fit using only the first length days of the history (used when replaying past cut-offs).
+     */
+    public Fit select(double[] history, int length, int horizon) {
+        int trainLength = length - holdoutDays;
+        ForecastModel best = candidates.get(0);
+        double bestError = Double.MAX_VALUE;
+
+        if (trainLength >= holdoutDays) {
+            for (ForecastModel model : candidates) {
+                double[] holdoutForecast = model.forecast(history, trainLength, holdoutDays);
+                double error = 0;
+                for (int i = 0; i < holdoutDays; i++) {
+                    error += Math.abs(history[trainLength + i] - holdoutForecast[i]);
+                }
+                error /= holdoutDays;
+                if (error < bestError) {
+                    bestError = error;
+                    best = model;
+                }
+            }
+        }
+
+        return new Fit(best.name(), bestError == Double.MAX_VALUE ? 0.0 : bestError,
+                best.forecast(history, length, horizon));
+    }
+}
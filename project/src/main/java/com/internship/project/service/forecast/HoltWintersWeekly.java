@@ -0,0 +1,68 @@
+package com.internship.project.service.forecast;
+
+import java.util.Arrays;
+
+/**
+ * Additive Holt-Winters with a 7-day season (level, trend and day-of-week offsets).
+ * Needs two full weeks of history to initialise; shorter series fall back to a flat mean.
+ */
+public class HoltWintersWeekly implements ForecastModel {
+
+    private static final int SEASON = 7;
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+
+    public HoltWintersWeekly(double alpha, double beta, double gamma) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+    }
+
+    @Override
+    public String name() {
+        return "HOLT_WINTERS";
+    }
+
+    @Override
+    public double[] forecast(double[] history, int length, int horizon) {
+        double[] projection = new double[horizon];
+        if (length < 2 * SEASON) {
+            double mean = 0;
+            for (int t = 0; t < length; t++) mean += history[t];
+            Arrays.fill(projection, length > 0 ? mean / length : 0.0);
+            return projection;
+        }
+
+        // Initialise from the first two weeks
+        double firstWeek = 0;
+        double secondWeek = 0;
+        for (int t = 0; t < SEASON; t++) {
+            firstWeek += history[t];
+            secondWeek += history[t + SEASON];
+        }
+        firstWeek /= SEASON;
+        secondWeek /= SEASON;
+
+        double level = firstWeek;
+        double trend = (secondWeek - firstWeek) / SEASON;
+        double[] season = new double[SEASON];
+        for (int t = 0; t < SEASON; t++) {
+            season[t] = history[t] - firstWeek;
+        }
+
+        for (int t = SEASON; t < length; t++) {
+            int s = t % SEASON;
+            double previousLevel = level;
+            level = alpha * (history[t] - season[s]) + (1 - alpha) * (level + trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            season[s] = gamma * (history[t] - level) + (1 - gamma) * season[s];
+        }
+
+        for (int k = 1; k <= horizon; k++) {
+            projection[k - 1] = Math.max(level + k * trend + season[(length + k - 1) % SEASON], 0.0);
+        }
+        return projection;
+    }
+}
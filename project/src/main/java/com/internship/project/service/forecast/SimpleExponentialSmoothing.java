@@ -0,0 +1,32 @@
+package com.internship.project.service.forecast;
+
+import java.util.Arrays;
+
+/**
+ * Simple exponential smoothing: a single smoothed level projected flat.
+ */
+public class SimpleExponentialSmoothing implements ForecastModel {
+
+    private final double alpha;
+
+    public SimpleExponentialSmoothing(double alpha) {
+        this.alpha = alpha;
+    }
+
+    @Override
+    public String name() {
+        return "SES";
+    }
+
+    @Override
+    public double[] forecast(double[] history, int length, int horizon) {
+        double level = length > 0 ? history[0] : 0.0;
+        for (int t = 1; t < length; t++) {
+            level = alpha * history[t] + (1 - alpha) * level;
+        }
+
+        double[] projection = new double[horizon];
+        Arrays.fill(projection, Math.max(level, 0.0));
+        return projection;
+    }
+}
@@ -0,0 +1,44 @@
+package com.internship.project;
+
+import com.internship.project.service.DashboardPayloadBenchmark;
+import com.internship.project.service.PurchaseOrderStressTest;
+import com.internship.project.service.ai.AiLoadTest;
+import com.internship.project.service.ai.GeminiStubServer;
+import com.internship.project.service.ai.ResponseParserBenchmark;
+import com.internship.project.service.forecast.ForecastBacktestRunner;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Entry point for the development tools kept in test scope (benchmarks, stubs and load tests),
+ * so none of them ship in the application jar. The first argument names the tool, the rest go to it.
+ * Run: {@code mvn -Ptools spring-boot:test-run -Dspring-boot.run.arguments="<tool> --name=value"}.
+ */
+public class DevTools {
+
+    private interface Tool {
+        void run(String[] args) throws Exception;
+    }
+
+    private static final Map<String, Tool> TOOLS = new LinkedHashMap<>();
+
+    static {
+        TOOLS.put("dashboard-bench", DashboardPayloadBenchmark::main);
+        TOOLS.put("backtest", ForecastBacktestRunner::main);
+        TOOLS.put("parser-bench", ResponseParserBenchmark::main);
+        TOOLS.put("gemini-stub", GeminiStubServer::main);
+        TOOLS.put("ai-load-test", AiLoadTest::main);
+        TOOLS.put("po-stress", PurchaseOrderStressTest::main);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Tool tool = args.length > 0 ? TOOLS.get(args[0]) : null;
+        if (tool == null) {
+            System.err.println("Usage: DevTools <tool> [--name=value ...]; tools: " + TOOLS.keySet());
+            System.exit(2);
+        }
+        tool.run(Arrays.copyOfRange(args, 1, args.length));
+    }
+}
@@ -0,0 +1,177 @@
+package com.internship.project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.internship.project.dto.AdminDashboard;
+import com.internship.project.dto.DashboardResponse;
+import com.internship.project.dto.TopProduct;
+import com.internship.project.dto.WarehouseSummary;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares serializing the admin dashboard as the old nested Map tree against the typed records:
+ * time and bytes allocated per payload (building plus writing), and the payload size. Both forms
+ * must produce the same JSON fields; the run fails otherwise.
+ * Run: {@code mvn -Ptools spring-boot:test-run -Dspring-boot.run.arguments="dashboard-bench --iterations=200000"}.
+ */
+public class DashboardPayloadBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public record Result(String form, long payloadBytes, double nanosPerOp, double allocatedBytesPerOp) {
+    }
+
+    private final int warehouses;
+    private final int products;
+
+    public DashboardPayloadBenchmark(int warehouses, int products) {
+        this.warehouses = warehouses;
+        this.products = products;
+    }
+
+    public Map<String, Object> buildMap() {
+        Map<String, Object> dashboard = new HashMap<>();
+        dashboard.put("totalProducts", 1200L);
+        dashboard.put("totalInventoryValue", 845_210.5);
+        dashboard.put("totalLowStockItems", 37L);
+        dashboard.put("totalOutOfStockItems", 4L);
+
+        List<Map<String, Object>> warehouseAnalysis = new ArrayList<>();
+        for (int w = 0; w < warehouses; w++) {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("warehouse", "WH-" + w);
+            summary.put("totalRevenue", 10_000.0 + w);
+            summary.put("totalTransactions", 500L + w);
+            summary.put("productCount", 80L + w);
+            warehouseAnalysis.add(summary);
+        }
+        dashboard.put("warehouseAnalysis", warehouseAnalysis);
+        dashboard.put("totalRevenueLastMonth", 10_000.0 * warehouses);
+        dashboard.put("totalTransactionsLastMonth", 500L * warehouses);
+        dashboard.put("categoryPerformance", categories());
+
+        List<Map<String, Object>> topProducts = new ArrayList<>();
+        for (int p = 0; p < products; p++) {
+            Map<String, Object> product = new HashMap<>();
+            product.put("name", "Product " + p);
+            product.put("sales", 100 - p);
+            product.put("revenue", 2_500.0 - p);
+            product.put("currentStock", 40 + p);
+            product.put("warehouse", "WH-" + (p % Math.max(warehouses, 1)));
+            topProducts.add(product);
+        }
+        dashboard.put("topProducts", topProducts);
+        dashboard.put("sections", List.of("summary", "warehouseAnalysis", "categoryPerformance", "topProducts"));
+        dashboard.put("sectionTimings", timings());
+        dashboard.put("userRole", "ADMIN");
+        dashboard.put("userName", "Admin User");
+        dashboard.put("assignedWarehouse", null);
+        return dashboard;
+    }
+
+    public DashboardResponse buildRecords() {
+        List<WarehouseSummary> warehouseAnalysis = new ArrayList<>();
+        for (int w = 0; w < warehouses; w++) {
+            warehouseAnalysis.add(new WarehouseSummary("WH-" + w, 10_000.0 + w, 500L + w, 80L + w));
+        }
+        List<TopProduct> topProducts = new ArrayList<>();
+        for (int p = 0; p < products; p++) {
+            topProducts.add(new TopProduct("Product " + p, 100 - p, 2_500.0 - p, 40 + p,
+                    "WH-" + (p % Math.max(warehouses, 1))));
+        }
+        AdminDashboard dashboard = new AdminDashboard(
+                new AdminDashboard.Summary(1200L, 845_210.5, 37L, 4L),
+                new AdminDashboard.WarehouseAnalysis(warehouseAnalysis, 10_000.0 * warehouses, 500L * warehouses),
+                categories(), topProducts,
+                List.of("summary", "warehouseAnalysis", "categoryPerformance", "topProducts"), timings());
+        return new DashboardResponse("ADMIN", "Admin User", null, dashboard);
+    }
+
+    /**
+     * Both forms serialize to the same fields and values.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean sameFields() throws Exception {
+        Map<String, Object> fromMap = MAPPER.readValue(MAPPER.writeValueAsBytes(buildMap()), Map.class);
+        Map<String, Object> fromRecords = MAPPER.readValue(MAPPER.writeValueAsBytes(buildRecords()), Map.class);
+        return fromMap.equals(fromRecords);
+    }
+
+    public Result measure(String form, int iterations) throws Exception {
+        boolean records = "records".equals(form);
+        long payloadBytes = MAPPER.writeValueAsBytes(records ? buildRecords() : buildMap()).length;
+
+        // Warm up so the JIT has compiled both paths before timing
+        for (int i = 0; i < Math.min(iterations, 20_000); i++) {
+            MAPPER.writeValueAsBytes(records ? buildRecords() : buildMap());
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += MAPPER.writeValueAsBytes(records ? buildRecords() : buildMap()).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        if (sink != payloadBytes * iterations) {
+            throw new IllegalStateException("Payload size changed between iterations");
+        }
+        return new Result(form, payloadBytes, (double) elapsed / iterations, (double) allocated / iterations);
+    }
+
+    private Map<String, Double> categories() {
+        Map<String, Double> categories = new HashMap<>();
+        for (String category : List.of("Electronics", "Groceries", "Clothing", "Home", "Toys")) {
+            categories.put(category, 12_000.0 + category.length());
+        }
+        return categories;
+    }
+
+    private static Map<String, Long> timings() {
+        return new TreeMap<>(Map.of("summary", 1L, "warehouseAnalysis", 14L, "categoryPerformance", 9L, "topProducts", 11L));
+    }
+
+    /**
+     * Arguments (all optional): --iterations= --warehouses= --products=
+     */
+    public static void main(String[] args) throws Exception {
+        int iterations = 100_000;
+        int warehouses = 8;
+        int products = 10;
+
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            switch (parts[0]) {
+                case "iterations" -> iterations = Integer.parseInt(parts[1]);
+                case "warehouses" -> warehouses = Integer.parseInt(parts[1]);
+                case "products" -> products = Integer.parseInt(parts[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        DashboardPayloadBenchmark benchmark = new DashboardPayloadBenchmark(warehouses, products);
+        if (!benchmark.sameFields()) {
+            System.err.println("Map and record payloads differ; fix the records before comparing");
+            System.exit(1);
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String form : List.of("map", "records")) {
+            results.put(form, benchmark.measure(form, iterations));
+        }
+        results.values().forEach(result -> System.out.printf("%-8s %6d bytes  %10.1f ns/op  %10.1f B allocated/op%n",
+                result.form(), result.payloadBytes(), result.nanosPerOp(), result.allocatedBytesPerOp()));
+    }
+}
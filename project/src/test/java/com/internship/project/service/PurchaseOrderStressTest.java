@@ -0,0 +1,212 @@
+package com.internship.project.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Races purchase order transitions against a running app and checks that none is applied twice.
+ * Creates orders for one product, approves each from several callers at once, then completes each from
+ * several callers at once (single and bulk endpoints mixed) while some orders are also being cancelled.
+ * Passes when every order ends COMPLETED or CANCELLED and the product's stock rose by exactly the completed
+ * quantity. Use a product nothing else is selling during the run.
+ * Run: {@code mvn -Ptools spring-boot:test-run -Dspring-boot.run.arguments="po-stress --product-id=1 --buyer-id=2"}.
+ */
+public class PurchaseOrderStressTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    public PurchaseOrderStressTest(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Outcome of one run. stockDelta and expectedStockDelta must match and unfinished must be 0.
+     */
+    public record Result(int orders, int completed, int cancelled, int unfinished, int stockDelta,
+                         int expectedStockDelta, long durationMs, Map<String, Integer> responses) {
+
+        public boolean passes() {
+            return unfinished == 0 && stockDelta == expectedStockDelta;
+        }
+    }
+
+    public Result run(long productId, long buyerId, int orders, int racers, int quantity, double cancelRate)
+            throws Exception {
+        long start = System.currentTimeMillis();
+        int stockBefore = productQuantity(productId);
+        Map<String, LongAdder> responses = new ConcurrentHashMap<>();
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            HttpResponse<String> created = post("/api/purchase-orders/manual?productId=" + productId
+                    + "&buyerId=" + buyerId + "&quantity=" + quantity + "&notes=stress-test", null);
+            if (created.statusCode() != 200) {
+                throw new IllegalStateException("Creating order failed: HTTP " + created.statusCode() + " " + created.body());
+            }
+            orderIds.add(MAPPER.readTree(created.body()).path("id").asLong());
+        }
+
+        // Every order approved by racers callers at once
+        List<Runnable> approvals = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            for (int r = 0; r < racers; r++) {
+                approvals.add(() -> call(responses, "approve", "/api/purchase-orders/" + orderId + "/approve", null));
+            }
+        }
+        race(approvals);
+
+        // Every order completed by racers callers at once, half through the bulk endpoint; some also cancelled
+        List<Runnable> completions = new ArrayList<>();
+        int cancelEvery = cancelRate > 0 ? Math.max(1, (int) Math.round(1 / cancelRate)) : 0;
+        for (int i = 0; i < orderIds.size(); i++) {
+            Long orderId = orderIds.get(i);
+            for (int r = 0; r < racers; r++) {
+                if (r % 2 == 0) {
+                    completions.add(() -> call(responses, "complete", "/api/purchase-orders/" + orderId + "/complete", null));
+                } else {
+                    completions.add(() -> call(responses, "bulk-complete", "/api/purchase-orders/bulk/complete", "[" + orderId + "]"));
+                }
+            }
+            if (cancelEvery > 0 && i % cancelEvery == 0) {
+                completions.add(() -> call(responses, "cancel", "/api/purchase-orders/" + orderId + "/cancel", null));
+            }
+        }
+        race(completions);
+
+        Set<Long> ours = new HashSet<>(orderIds);
+        int completed = 0;
+        int cancelled = 0;
+        int unfinished = 0;
+        for (JsonNode order : MAPPER.readTree(get("/api/purchase-orders/buyer/" + buyerId).body())) {
+            if (!ours.contains(order.path("id").asLong())) continue;
+            switch (order.path("status").asText()) {
+                case "COMPLETED" -> completed++;
+                case "CANCELLED" -> cancelled++;
+                default -> unfinished++;
+            }
+        }
+        int stockDelta = productQuantity(productId) - stockBefore;
+
+        Map<String, Integer> responseCounts = new TreeMap<>();
+        responses.forEach((key, count) -> responseCounts.put(key, count.intValue()));
+        return new Result(orders, completed, cancelled, unfinished, stockDelta, completed * quantity,
+                System.currentTimeMillis() - start, responseCounts);
+    }
+
+    // Start all calls together so they overlap as much as possible
+    private void race(List<Runnable> calls) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Runnable call : calls) {
+                executor.submit(() -> {
+                    ready.await();
+                    call.run();
+                    return null;
+                });
+            }
+            ready.countDown();
+        }
+    }
+
+    private void call(Map<String, LongAdder> responses, String kind, String path, String body) {
+        String outcome;
+        try {
+            outcome = String.valueOf(post(path, body).statusCode());
+        } catch (Exception e) {
+            outcome = e.getClass().getSimpleName();
+        }
+        responses.computeIfAbsent(kind + " " + outcome, k -> new LongAdder()).increment();
+    }
+
+    private int productQuantity(long productId) throws Exception {
+        for (JsonNode product : MAPPER.readTree(get("/api/products").body())) {
+            if (product.path("id").asLong() == productId) {
+                return product.path("quantity").asInt();
+            }
+        }
+        throw new IllegalArgumentException("Product not found: " + productId);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (json != null) {
+            request.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            request.POST(HttpRequest.BodyPublishers.noBody());
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Arguments: --product-id= --buyer-id= (required) --base-url= --orders= --racers= --quantity= --cancel-rate=
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = "http://localhost:8080";
+        Long productId = null;
+        Long buyerId = null;
+        int orders = 200;
+        int racers = 8;
+        int quantity = 3;
+        double cancelRate = 0.2;
+
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            switch (parts[0]) {
+                case "base-url" -> baseUrl = parts[1];
+                case "product-id" -> productId = Long.parseLong(parts[1]);
+                case "buyer-id" -> buyerId = Long.parseLong(parts[1]);
+                case "orders" -> orders = Integer.parseInt(parts[1]);
+                case "racers" -> racers = Integer.parseInt(parts[1]);
+                case "quantity" -> quantity = Integer.parseInt(parts[1]);
+                case "cancel-rate" -> cancelRate = Double.parseDouble(parts[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (productId == null || buyerId == null) {
+            throw new IllegalArgumentException("--product-id and --buyer-id are required");
+        }
+
+        System.out.println("Racing " + racers + " callers per transition over " + orders + " orders of product " + productId);
+        Result result = new PurchaseOrderStressTest(baseUrl).run(productId, buyerId, orders, racers, quantity, cancelRate);
+        System.out.println("Stress test result: " + result);
+
+        if (!result.passes()) {
+            System.err.println("Stress test failed: stock moved by " + result.stockDelta() + " but completed orders add "
+                    + result.expectedStockDelta() + "; " + result.unfinished() + " orders not in a final status");
+            System.exit(1);
+        }
+        System.out.println("Stress test passed");
+    }
+}
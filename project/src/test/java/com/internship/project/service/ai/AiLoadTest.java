@@ -0,0 +1,271 @@
+package com.internship.project.service.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the AI replenishment endpoints of a running app (normally pointed at GeminiStubServer) and reports
+ * throughput, latency percentiles and status codes, followed by the app's Gemini client and cache stats.
+ * Scenarios: recommendation (concurrent single-product recommendations), check-all (full synchronous sweeps)
+ * and jobs (background sweeps, timed from submit until the job finishes).
+ * Run: {@code mvn -Ptools spring-boot:test-run -Dspring-boot.run.arguments="ai-load-test --scenario=recommendation --concurrency=32"}.
+ */
+public class AiLoadTest {
+
+    private static final Set<String> FINISHED_JOB_STATUSES = Set.of("COMPLETED", "FAILED", "CANCELLED");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    public AiLoadTest(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Outcome of one scenario run. Latencies are exact percentiles over every timed operation.
+     */
+    public record Report(String scenario, int operations, int failures, long durationMs, double throughputPerSecond,
+                         long p50Ms, long p90Ms, long p99Ms, long maxMs, Map<String, Integer> statuses) {
+
+        public String summary() {
+            return String.format("%s: %d operations (%d failed) in %d ms, %.1f ops/sec, latency p50 %d ms, "
+                            + "p90 %d ms, p99 %d ms, max %d ms, statuses %s",
+                    scenario, operations, failures, durationMs, throughputPerSecond, p50Ms, p90Ms, p99Ms, maxMs, statuses);
+        }
+    }
+
+    /**
+     * requests single-product recommendations over productIds, at most concurrency in flight.
+     */
+    public Report runRecommendations(List<Long> productIds, int requests, int concurrency) throws InterruptedException {
+        if (productIds.isEmpty()) {
+            throw new IllegalArgumentException("No product ids to request recommendations for");
+        }
+        AtomicInteger next = new AtomicInteger();
+        return drive("recommendation", requests, concurrency, () -> {
+            long productId = productIds.get(Math.floorMod(next.getAndIncrement(), productIds.size()));
+            return send(get("/api/ai/replenishment-recommendation/" + productId));
+        });
+    }
+
+    /**
+     * sweeps synchronous check-all calls, at most concurrency in flight.
+     */
+    public Report runCheckAll(int sweeps, int concurrency, Integer batchSize) throws InterruptedException {
+        String path = "/api/ai/replenishment/check-all" + (batchSize != null ? "?batchSize=" + batchSize : "");
+        return drive("check-all", sweeps, concurrency, () -> send(post(path)));
+    }
+
+    /**
+     * sweeps background jobs; each operation lasts from submission until the job reaches a final status.
+     */
+    public Report runJobs(int sweeps, int concurrency, Integer batchSize, long pollMs) throws InterruptedException {
+        String path = "/api/ai/replenishment/jobs" + (batchSize != null ? "?batchSize=" + batchSize : "");
+        return drive("jobs", sweeps, concurrency, () -> {
+            HttpResponse<String> submitted = send(post(path));
+            if (submitted.statusCode() / 100 != 2) return submitted;
+            long jobId = MAPPER.readTree(submitted.body()).path("id").asLong();
+            while (true) {
+                Thread.sleep(pollMs);
+                HttpResponse<String> polled = send(get("/api/ai/replenishment/jobs/" + jobId));
+                if (polled.statusCode() / 100 != 2) return polled;
+                if (FINISHED_JOB_STATUSES.contains(MAPPER.readTree(polled.body()).path("status").asText())) {
+                    return polled;
+                }
+            }
+        });
+    }
+
+    /**
+     * Product ids from the catalogue, for when none are given on the command line.
+     */
+    public List<Long> fetchProductIds(int limit) throws Exception {
+        HttpResponse<String> response = send(get("/api/products"));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Listing products failed with HTTP " + response.statusCode());
+        }
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode product : MAPPER.readTree(response.body())) {
+            if (ids.size() >= limit) break;
+            if (product.hasNonNull("id")) ids.add(product.get("id").asLong());
+        }
+        return ids;
+    }
+
+    /**
+     * Raw body of a GET, or the error, for printing the app's own stats after a run.
+     */
+    public String fetch(String path) {
+        try {
+            return send(get(path)).body();
+        } catch (Exception e) {
+            return "unavailable (" + e.getMessage() + ")";
+        }
+    }
+
+    private interface Operation {
+        HttpResponse<String> call() throws Exception;
+    }
+
+    private Report drive(String scenario, int operations, int concurrency, Operation operation) throws InterruptedException {
+        if (operations < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("Operations and concurrency must be at least 1");
+        }
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+        AtomicInteger remaining = new AtomicInteger(operations);
+
+        long start = System.nanoTime();
+        // concurrency workers pulling from a shared counter keep exactly that many operations in flight
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < Math.min(concurrency, operations); i++) {
+                workers.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        long began = System.nanoTime();
+                        String status;
+                        try {
+                            int code = operation.call().statusCode();
+                            status = String.valueOf(code);
+                            if (code / 100 != 2) failures.increment();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            status = e.getClass().getSimpleName();
+                            failures.increment();
+                        }
+                        latencies.add((System.nanoTime() - began) / 1_000_000);
+                        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                    }
+                });
+            }
+        }
+        long durationMs = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        Map<String, Integer> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.intValue()));
+
+        return new Report(scenario, sorted.length, failures.intValue(), durationMs, sorted.length * 1000.0 / durationMs,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                sorted.length > 0 ? sorted[sorted.length - 1] : 0, statusCounts);
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout).GET().build();
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout)
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Arguments (all optional): --base-url= --scenario=recommendation|check-all|jobs --requests= --concurrency=
+     * --product-ids=1,2,3 --product-limit= --batch-size= --timeout-ms= --poll-ms= --max-p99-ms= --max-error-rate=
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = "http://localhost:8080";
+        String scenario = "recommendation";
+        int requests = 500;
+        int concurrency = 16;
+        List<Long> productIds = new ArrayList<>();
+        int productLimit = 200;
+        Integer batchSize = null;
+        long timeoutMs = 120_000;
+        long pollMs = 250;
+        long maxP99Ms = Long.MAX_VALUE;
+        double maxErrorRate = 1.0;
+
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            switch (parts[0]) {
+                case "base-url" -> baseUrl = parts[1];
+                case "scenario" -> scenario = parts[1];
+                case "requests" -> requests = Integer.parseInt(parts[1]);
+                case "concurrency" -> concurrency = Integer.parseInt(parts[1]);
+                case "product-ids" -> Arrays.stream(parts[1].split(","))
+                        .map(String::trim).filter(s -> !s.isEmpty()).map(Long::valueOf).forEach(productIds::add);
+                case "product-limit" -> productLimit = Integer.parseInt(parts[1]);
+                case "batch-size" -> batchSize = Integer.parseInt(parts[1]);
+                case "timeout-ms" -> timeoutMs = Long.parseLong(parts[1]);
+                case "poll-ms" -> pollMs = Long.parseLong(parts[1]);
+                case "max-p99-ms" -> maxP99Ms = Long.parseLong(parts[1]);
+                case "max-error-rate" -> maxErrorRate = Double.parseDouble(parts[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        AiLoadTest loadTest = new AiLoadTest(baseUrl, Duration.ofMillis(timeoutMs));
+        Report report = switch (scenario) {
+            case "recommendation" -> {
+                if (productIds.isEmpty()) productIds = loadTest.fetchProductIds(productLimit);
+                System.out.println("Requesting " + requests + " recommendations over " + productIds.size()
+                        + " products, concurrency " + concurrency);
+                yield loadTest.runRecommendations(productIds, requests, concurrency);
+            }
+            case "check-all" -> {
+                System.out.println("Running " + requests + " check-all sweeps, concurrency " + concurrency);
+                yield loadTest.runCheckAll(requests, concurrency, batchSize);
+            }
+            case "jobs" -> {
+                System.out.println("Running " + requests + " background sweep jobs, concurrency " + concurrency);
+                yield loadTest.runJobs(requests, concurrency, batchSize, pollMs);
+            }
+            default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        };
+
+        System.out.println("Load test result: " + report.summary());
+        System.out.println("Gemini client stats: " + loadTest.fetch("/api/ai/client/stats"));
+        System.out.println("Recommendation cache stats: " + loadTest.fetch("/api/ai/cache/stats"));
+
+        double errorRate = report.operations() > 0 ? (double) report.failures() / report.operations() : 1.0;
+        if (report.p99Ms() > maxP99Ms || errorRate > maxErrorRate) {
+            System.err.println("Load test failed: p99 " + report.p99Ms() + " ms (max " + maxP99Ms + " ms), error rate "
+                    + errorRate + " (max " + maxErrorRate + ")");
+            System.exit(1);
+        }
+        System.out.println("Load test passed");
+    }
+}
@@ -0,0 +1,120 @@
+package com.internship.project.service.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchResponseParserTest {
+
+    @Test
+    void parsesABareArray() {
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(
+                "[{\"productId\": 1, \"quantity\": 40, \"urgency\": \"HIGH\", \"reason\": \"Low cover\"},"
+                        + " {\"productId\": 2, \"quantity\": 15, \"urgency\": \"LOW\", \"reason\": \"Steady\"}]");
+
+        assertEquals(2, parsed.size());
+        assertEquals(new BatchRecommendation(1, 40, "HIGH", "Low cover"), parsed.get(1L));
+        assertEquals(new BatchRecommendation(2, 15, "LOW", "Steady"), parsed.get(2L));
+    }
+
+    @Test
+    void ignoresMarkdownFencesAndSurroundingProse() {
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(
+                "Here are the recommendations:\n```json\n"
+                        + "[{\"productId\": 7, \"quantity\": 25, \"urgency\": \"critical\", \"reason\": \" Out soon \"}]"
+                        + "\n```\nLet me know if you need more.");
+
+        assertEquals(new BatchRecommendation(7, 25, "CRITICAL", "Out soon"), parsed.get(7L));
+    }
+
+    @Test
+    void keepsEntriesBeforeATruncatedTail() {
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(
+                "[{\"productId\": 1, \"quantity\": 40, \"urgency\": \"HIGH\", \"reason\": \"a\"},"
+                        + " {\"productId\": 2, \"quantity\": 30, \"urgency\": \"LOW\", \"reason\": \"b\"},"
+                        + " {\"productId\": 3, \"quant");
+
+        assertEquals(2, parsed.size());
+        assertTrue(parsed.containsKey(1L) && parsed.containsKey(2L));
+    }
+
+    @Test
+    void acceptsStringTypedNumbers() {
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(
+                "[{\"productId\": \"12\", \"quantity\": \" 60 \", \"urgency\": \"MEDIUM\", \"reason\": \"x\"}]");
+
+        assertEquals(60, parsed.get(12L).quantity());
+    }
+
+    @Test
+    void defaultsMissingOrUnknownUrgencyAndReason() {
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(
+                "[{\"productId\": 5, \"quantity\": 10}, {\"productId\": 6, \"quantity\": 10, \"urgency\": \"SOON\", \"reason\": \"\"}]");
+
+        for (BatchRecommendation recommendation : parsed.values()) {
+            assertEquals("MEDIUM", recommendation.urgency());
+            assertEquals("AI recommendation based on inventory analysis and sales patterns", recommendation.reason());
+        }
+        assertEquals(2, parsed.size());
+    }
+
+    @Test
+    void dropsEntriesWithoutProductIdOrQuantity() {
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(
+                "[{\"quantity\": 10}, {\"productId\": 2}, {\"productId\": \"abc\", \"quantity\": 5},"
+                        + " {\"productId\": 3, \"quantity\": \"lots\"}, {\"productId\": 4, \"quantity\": 8}]");
+
+        assertEquals(Map.of(4L, new BatchRecommendation(4, 8, "MEDIUM",
+                "AI recommendation based on inventory analysis and sales patterns")), parsed);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, false",
+            "-5, false",
+            "1, true",
+            "1000, true",
+            "1001, false"
+    })
+    void acceptsQuantitiesFromOneToAThousand(int quantity, boolean accepted) {
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(
+                "[{\"productId\": 1, \"quantity\": " + quantity + "}]");
+
+        assertEquals(accepted, parsed.containsKey(1L));
+    }
+
+    @Test
+    void skipsNestedValuesAndNonObjectElements() {
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(
+                "[42, \"text\", [1, 2], {\"productId\": 9, \"quantity\": 12, \"extra\": {\"a\": [1, 2]}, \"urgency\": \"LOW\"}]");
+
+        assertEquals(1, parsed.size());
+        assertEquals("LOW", parsed.get(9L).urgency());
+    }
+
+    @Test
+    void returnsNothingWithoutAnArray() {
+        assertTrue(BatchResponseParser.parse(null).isEmpty());
+        assertTrue(BatchResponseParser.parse("QUANTITY: 40\nURGENCY: HIGH").isEmpty());
+        assertTrue(BatchResponseParser.parse("[not json").isEmpty());
+    }
+
+    @Test
+    void laterDuplicatesReplaceEarlierOnes() {
+        Map<Long, BatchRecommendation> parsed = BatchResponseParser.parse(
+                "[{\"productId\": 1, \"quantity\": 10}, {\"productId\": 1, \"quantity\": 20}]");
+
+        assertEquals(20, parsed.get(1L).quantity());
+    }
+
+    @Test
+    void entryRendersInTheSingleProductFormat() {
+        assertEquals("QUANTITY: 40\nURGENCY: HIGH\nREASON: Low cover",
+                new BatchRecommendation(1, 40, "HIGH", "Low cover").toResponseText());
+    }
+}
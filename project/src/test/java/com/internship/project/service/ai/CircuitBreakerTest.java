@@ -0,0 +1,120 @@
+package com.internship.project.service.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_FOR = Duration.ofMillis(50);
+
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(3, OPEN_FOR);
+        for (int i = 0; i < 3; i++) {
+            breaker.allowRequest();
+            breaker.recordFailure();
+        }
+        return breaker;
+    }
+
+    @Test
+    void staysClosedBelowTheFailureThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(3, OPEN_FOR);
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void aSuccessResetsTheConsecutiveCount() {
+        CircuitBreaker breaker = new CircuitBreaker(3, OPEN_FOR);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void opensAfterThresholdFailuresInARowAndRejects() {
+        CircuitBreaker breaker = openBreaker();
+
+        assertEquals(CircuitBreaker.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        assertEquals(2L, breaker.getStats().get("rejected"));
+        assertEquals(1L, breaker.getStats().get("timesOpened"));
+    }
+
+    @Test
+    void letsOneTrialThroughAfterTheOpenDuration() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_FOR.toMillis() + 20);
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.HALF_OPEN, breaker.getState());
+        // Only one trial at a time
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void aSuccessfulTrialClosesTheCircuit() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_FOR.toMillis() + 20);
+        breaker.allowRequest();
+        breaker.recordSuccess();
+
+        assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void aFailedTrialReopensImmediately() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_FOR.toMillis() + 20);
+        breaker.allowRequest();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(2L, breaker.getStats().get("timesOpened"));
+    }
+
+    @Test
+    void releasingAnUnsentTrialLetsAnotherThrough() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_FOR.toMillis() + 20);
+        assertTrue(breaker.allowRequest());
+        breaker.release();
+
+        assertEquals(CircuitBreaker.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void statsCountOutcomes() {
+        CircuitBreaker breaker = new CircuitBreaker(5, OPEN_FOR);
+        breaker.recordSuccess();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+
+        assertEquals(2L, breaker.getStats().get("successes"));
+        assertEquals(1L, breaker.getStats().get("failures"));
+        assertEquals(1, breaker.getStats().get("consecutiveFailures"));
+    }
+
+    @Test
+    void rejectsAThresholdBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0, OPEN_FOR));
+    }
+}
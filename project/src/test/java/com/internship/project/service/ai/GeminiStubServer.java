@@ -0,0 +1,270 @@
+package com.internship.project.service.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Gemini generateContent API, for load testing the AI path without a key,
+ * network or quota. Latency follows a configurable distribution with an optional slow tail, a share of
+ * calls fail (503, 429, hang past the client timeout, or malformed body), and answers come in a chosen
+ * shape: the QUANTITY/URGENCY/REASON format or prose for single-product prompts, a JSON array (bare,
+ * fenced, or truncated) for batched prompts. GET /stats reports what was served.
+ * Run: {@code mvn -Ptools spring-boot:test-run -Dspring-boot.run.arguments="gemini-stub --latency=lognormal --error-rate=0.05"},
+ * then start the app with {@code gemini.api.url=http://localhost:8089/generateContent} and any {@code gemini.api.key}.
+ */
+public class GeminiStubServer {
+
+    public enum Latency { FIXED, UNIFORM, NORMAL, LOGNORMAL }
+
+    public enum Shape { FORMAT, PROSE, JSON, FENCED, PARTIAL, MIXED }
+
+    /**
+     * Stub behaviour. latencyMs is the fixed value, lower bound (UNIFORM), mean (NORMAL) or median (LOGNORMAL);
+     * spread is the uniform width or normal std dev in ms, or the log-space sigma for LOGNORMAL.
+     */
+    public record Settings(int port, Latency latency, long latencyMs, double spread, double slowRate, long slowMs,
+                           double errorRate, double throttleRate, double hangRate, long hangMs, double malformedRate,
+                           Shape shape) {
+
+        public static Settings defaults() {
+            return new Settings(8089, Latency.LOGNORMAL, 300, 0.5, 0.0, 5000,
+                    0.0, 0.0, 0.0, 60_000, 0.0, Shape.FORMAT);
+        }
+    }
+
+    private static final Pattern PRODUCT_ID = Pattern.compile("productId (\\d+)");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] URGENCIES = {"CRITICAL", "HIGH", "MEDIUM", "LOW"};
+
+    private final HttpServer server;
+    private final Settings settings;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder answered = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder hung = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder batched = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public GeminiStubServer(Settings settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress(settings.port()), 0);
+        this.server.createContext("/stats", this::handleStats);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public GeminiStubServer(int port, long latencyMs, long jitterMs, double errorRate) throws IOException {
+        this(new Settings(port, Latency.UNIFORM, latencyMs, jitterMs, 0.0, 5000,
+                errorRate, 0.0, 0.0, 60_000, 0.0, Shape.FORMAT));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.sum());
+        stats.put("answered", answered.sum());
+        stats.put("errors", errors.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("hung", hung.sum());
+        stats.put("malformed", malformed.sum());
+        stats.put("batchedPrompts", batched.sum());
+        stats.put("latency", latency.snapshot());
+        stats.put("settings", settings.toString());
+        return stats;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            String prompt = extractPrompt(exchange.getRequestBody().readAllBytes());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            // One draw decides the outcome so the rates add up
+            double outcome = random.nextDouble();
+            double threshold = settings.hangRate();
+            if (outcome < threshold) {
+                hung.increment();
+                Thread.sleep(settings.hangMs());
+                respond(exchange, 504, "{\"error\":{\"code\":504,\"message\":\"Stub timed out\"}}");
+                return;
+            }
+
+            long delay = sampleLatency(random);
+            latency.record(delay);
+            if (delay > 0) Thread.sleep(delay);
+
+            if (outcome < (threshold += settings.errorRate())) {
+                errors.increment();
+                respond(exchange, 503, "{\"error\":{\"code\":503,\"message\":\"Stub unavailable\"}}");
+            } else if (outcome < (threshold += settings.throttleRate())) {
+                throttled.increment();
+                respond(exchange, 429, "{\"error\":{\"code\":429,\"message\":\"Stub quota exceeded\"}}");
+            } else if (outcome < threshold + settings.malformedRate()) {
+                malformed.increment();
+                respond(exchange, 200, "{\"candidates\": [{\"content\": {\"parts\": [");
+            } else {
+                answered.increment();
+                respond(exchange, 200, MAPPER.writeValueAsString(Map.of("candidates", List.of(
+                        Map.of("content", Map.of("parts", List.of(Map.of("text", answer(prompt, random)))))))));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            respond(exchange, 200, MAPPER.writeValueAsString(getStats()));
+        }
+    }
+
+    private long sampleLatency(ThreadLocalRandom random) {
+        if (settings.slowRate() > 0 && random.nextDouble() < settings.slowRate()) {
+            return settings.slowMs();
+        }
+        double base = settings.latencyMs();
+        double sample = switch (settings.latency()) {
+            case FIXED -> base;
+            case UNIFORM -> base + random.nextDouble() * settings.spread();
+            case NORMAL -> base + random.nextGaussian() * settings.spread();
+            case LOGNORMAL -> base * Math.exp(random.nextGaussian() * settings.spread());
+        };
+        return Math.max(0, Math.round(sample));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String extractPrompt(byte[] body) {
+        try {
+            Map<String, Object> request = MAPPER.readValue(body, Map.class);
+            List<Map<String, Object>> contents = (List<Map<String, Object>>) request.get("contents");
+            List<Map<String, Object>> parts = (List<Map<String, Object>>) contents.get(0).get("parts");
+            return String.valueOf(parts.get(0).get("text"));
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private String answer(String prompt, ThreadLocalRandom random) throws IOException {
+        Shape shape = settings.shape();
+        if (shape == Shape.MIXED) {
+            shape = Shape.values()[random.nextInt(Shape.MIXED.ordinal())];
+        }
+        int quantity = 10 + random.nextInt(291);
+        String urgency = URGENCIES[random.nextInt(URGENCIES.length)];
+
+        if (!prompt.contains("JSON array")) {
+            if (shape == Shape.PROSE) {
+                return "Based on current stock and recent sales, I recommend ordering " + quantity
+                        + " units. Urgency is " + urgency.toLowerCase() + " because coverage is limited.";
+            }
+            return "QUANTITY: " + quantity + "\nURGENCY: " + urgency
+                    + "\nREASON: Stub response based on current stock and sales pattern";
+        }
+
+        batched.increment();
+        List<Map<String, Object>> entries = new ArrayList<>();
+        Matcher matcher = PRODUCT_ID.matcher(prompt);
+        while (matcher.find()) {
+            entries.add(Map.of("productId", Long.parseLong(matcher.group(1)), "quantity", 10 + random.nextInt(291),
+                    "urgency", URGENCIES[random.nextInt(URGENCIES.length)],
+                    "reason", "Stub response based on current stock and sales pattern"));
+        }
+        String json = MAPPER.writeValueAsString(entries);
+        return switch (shape) {
+            case FENCED, PROSE -> "Here are the recommendations:\n```json\n" + json + "\n```";
+            // Cut off part-way through, as when the model hits its output limit
+            case PARTIAL -> json.substring(0, Math.max(1, json.length() * 2 / 3));
+            default -> json;
+        };
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Arguments (all optional): --port= --latency=fixed|uniform|normal|lognormal --latency-ms= --spread=
+     * --slow-rate= --slow-ms= --error-rate= --throttle-rate= --hang-rate= --hang-ms= --malformed-rate=
+     * --shape=format|prose|json|fenced|partial|mixed
+     */
+    public static void main(String[] args) throws IOException {
+        Settings d = Settings.defaults();
+        int port = d.port();
+        Latency latency = d.latency();
+        long latencyMs = d.latencyMs();
+        double spread = d.spread();
+        double slowRate = d.slowRate();
+        long slowMs = d.slowMs();
+        double errorRate = d.errorRate();
+        double throttleRate = d.throttleRate();
+        double hangRate = d.hangRate();
+        long hangMs = d.hangMs();
+        double malformedRate = d.malformedRate();
+        Shape shape = d.shape();
+
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            switch (parts[0]) {
+                case "port" -> port = Integer.parseInt(parts[1]);
+                case "latency" -> latency = Latency.valueOf(parts[1].toUpperCase());
+                case "latency-ms" -> latencyMs = Long.parseLong(parts[1]);
+                case "spread" -> spread = Double.parseDouble(parts[1]);
+                case "slow-rate" -> slowRate = Double.parseDouble(parts[1]);
+                case "slow-ms" -> slowMs = Long.parseLong(parts[1]);
+                case "error-rate" -> errorRate = Double.parseDouble(parts[1]);
+                case "throttle-rate" -> throttleRate = Double.parseDouble(parts[1]);
+                case "hang-rate" -> hangRate = Double.parseDouble(parts[1]);
+                case "hang-ms" -> hangMs = Long.parseLong(parts[1]);
+                case "malformed-rate" -> malformedRate = Double.parseDouble(parts[1]);
+                case "shape" -> shape = Shape.valueOf(parts[1].toUpperCase());
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        if (errorRate + throttleRate + hangRate + malformedRate > 1.0) {
+            throw new IllegalArgumentException("Error, throttle, hang and malformed rates must add up to at most 1");
+        }
+
+        Settings settings = new Settings(port, latency, latencyMs, spread, slowRate, slowMs, errorRate,
+                throttleRate, hangRate, hangMs, malformedRate, shape);
+        GeminiStubServer stub = new GeminiStubServer(settings);
+        stub.start();
+        System.out.println("Gemini stub listening on http://localhost:" + stub.getPort() + "/generateContent " + settings);
+    }
+}
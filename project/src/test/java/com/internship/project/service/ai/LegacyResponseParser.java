@@ -0,0 +1,168 @@
+package com.internship.project.service.ai;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The original SmartReplenishmentService parsing heuristics, kept as the reference RecommendationResponseParser
+ * must match (error logging dropped). A null quantity stands for the product-specific fallback quantity.
+ */
+final class LegacyResponseParser {
+
+    private LegacyResponseParser() {
+    }
+
+    static RecommendationResponseParser.ParsedResponse parse(String aiResponse) {
+        return new RecommendationResponseParser.ParsedResponse(parseRecommendedQuantity(aiResponse),
+                parseUrgencyLevel(aiResponse), parseReasoning(aiResponse));
+    }
+
+    private static Integer parseRecommendedQuantity(String aiResponse) {
+        try {
+            // Method 1: Look for "QUANTITY:" pattern (exact format we requested)
+            if (aiResponse.contains("QUANTITY:")) {
+                String[] parts = aiResponse.split("QUANTITY:");
+                if (parts.length > 1) {
+                    String quantityPart = parts[1].split("[\\n|]")[0].trim();
+                    String numberOnly = quantityPart.replaceAll("[^0-9]", "").trim();
+                    if (!numberOnly.isEmpty()) {
+                        int quantity = Integer.parseInt(numberOnly);
+                        if (quantity > 0 && quantity <= 1000) {
+                            return quantity;
+                        }
+                    }
+                }
+            }
+
+            // Method 2: Look for "Quantity:" pattern (case insensitive)
+            Pattern quantityPattern = Pattern.compile("Quantity:\\s*(\\d+)", Pattern.CASE_INSENSITIVE);
+            Matcher matcher = quantityPattern.matcher(aiResponse);
+            if (matcher.find()) {
+                int quantity = Integer.parseInt(matcher.group(1));
+                if (quantity > 0 && quantity <= 1000) {
+                    return quantity;
+                }
+            }
+
+            // Method 3: Look for numbers in context of quantity/replenishment
+            String[] lines = aiResponse.split("\\n");
+            for (String line : lines) {
+                if (line.toLowerCase().contains("quantity") || line.toLowerCase().contains("replenish") ||
+                        line.toLowerCase().contains("recommend") || line.toLowerCase().contains("order")) {
+                    Pattern numberPattern = Pattern.compile("\\b([1-9]\\d{1,2})\\b");
+                    Matcher numberMatcher = numberPattern.matcher(line);
+                    if (numberMatcher.find()) {
+                        int quantity = Integer.parseInt(numberMatcher.group());
+                        if (quantity >= 10 && quantity <= 500) {
+                            return quantity;
+                        }
+                    }
+                }
+            }
+
+            // Method 4: Find any reasonable number in the response
+            Pattern generalPattern = Pattern.compile("\\b([1-9]\\d?\\d?)\\b");
+            Matcher generalMatcher = generalPattern.matcher(aiResponse);
+            while (generalMatcher.find()) {
+                int quantity = Integer.parseInt(generalMatcher.group());
+                if (quantity >= 10 && quantity <= 300) {
+                    return quantity;
+                }
+            }
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String parseUrgencyLevel(String aiResponse) {
+        try {
+            String response = aiResponse.toUpperCase();
+
+            if (response.contains("URGENCY:")) {
+                String[] parts = response.split("URGENCY:");
+                if (parts.length > 1) {
+                    String urgencyPart = parts[1].split("[\\n|]")[0].trim();
+                    if (urgencyPart.contains("CRITICAL")) return "CRITICAL";
+                    if (urgencyPart.contains("HIGH")) return "HIGH";
+                    if (urgencyPart.contains("MEDIUM")) return "MEDIUM";
+                    if (urgencyPart.contains("LOW")) return "LOW";
+                }
+            }
+
+            if (response.contains("CRITICAL") || response.contains("EMERGENCY")) {
+                return "CRITICAL";
+            }
+            if (response.contains("HIGH") || response.contains("URGENT") || response.contains("IMMEDIATE")) {
+                return "HIGH";
+            }
+            if (response.contains("MEDIUM") || response.contains("MODERATE")) {
+                return "MEDIUM";
+            }
+            if (response.contains("LOW") || response.contains("MINOR")) {
+                return "LOW";
+            }
+
+            if (response.contains("OUT OF STOCK") || response.contains("ZERO STOCK") ||
+                    response.contains("CRITICALLY LOW")) {
+                return "CRITICAL";
+            }
+            if (response.contains("VERY LOW") || response.contains("RUNNING OUT") ||
+                    response.contains("SHORTAGE")) {
+                return "HIGH";
+            }
+
+            return "MEDIUM";
+        } catch (Exception e) {
+            return "MEDIUM";
+        }
+    }
+
+    private static String parseReasoning(String aiResponse) {
+        try {
+            if (aiResponse.contains("REASON:")) {
+                String[] parts = aiResponse.split("REASON:");
+                if (parts.length > 1) {
+                    String reason = parts[1].split("[\\n|]")[0].trim();
+                    if (!reason.isEmpty() && reason.length() > 10) {
+                        return reason;
+                    }
+                }
+            }
+
+            if (aiResponse.contains("Reason:")) {
+                String[] parts = aiResponse.split("Reason:");
+                if (parts.length > 1) {
+                    String reason = parts[1].split("[\\n|]")[0].trim();
+                    if (!reason.isEmpty() && reason.length() > 10) {
+                        return reason;
+                    }
+                }
+            }
+
+            String[] sentences = aiResponse.split("[.!?\\n]");
+            for (int i = sentences.length - 1; i >= 0; i--) {
+                String sentence = sentences[i].trim();
+                if (sentence.length() > 20 &&
+                        (sentence.toLowerCase().contains("because") ||
+                                sentence.toLowerCase().contains("due to") ||
+                                sentence.toLowerCase().contains("based on") ||
+                                sentence.toLowerCase().contains("considering") ||
+                                sentence.toLowerCase().contains("reason"))) {
+                    return sentence;
+                }
+            }
+
+            for (String sentence : sentences) {
+                String trimmed = sentence.trim();
+                if (trimmed.length() > 30 && !trimmed.contains("QUANTITY") && !trimmed.contains("URGENCY")) {
+                    return trimmed;
+                }
+            }
+
+            return "AI recommendation based on inventory analysis and sales patterns";
+        } catch (Exception e) {
+            return "AI recommendation based on inventory analysis";
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.internship.project.service.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationCacheTest {
+
+    private static RecommendationFeatures.Key key(int bucket) {
+        return new RecommendationFeatures.Key(bucket, 1, 1, 1);
+    }
+
+    @Test
+    void returnsCachedAnswersAndCountsHitsAndMisses() {
+        RecommendationCache cache = new RecommendationCache(Duration.ofMinutes(5), 10);
+
+        assertNull(cache.get(key(1)));
+        cache.put(key(1), "QUANTITY: 40");
+        assertEquals("QUANTITY: 40", cache.get(key(1)));
+        assertEquals("QUANTITY: 40", cache.get(key(1)));
+
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(2L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(66.67, stats.get("hitRate"));
+    }
+
+    @Test
+    void expiredEntriesAreMissesAndDropped() throws InterruptedException {
+        RecommendationCache cache = new RecommendationCache(Duration.ofMillis(20), 10);
+        cache.put(key(1), "QUANTITY: 40");
+
+        Thread.sleep(50);
+        assertNull(cache.get(key(1)));
+        assertEquals(0, cache.getStats().get("entries"));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryWhenFull() {
+        RecommendationCache cache = new RecommendationCache(Duration.ofMinutes(5), 2);
+        cache.put(key(1), "one");
+        cache.put(key(2), "two");
+
+        // Reading 1 makes 2 the least recently used
+        cache.get(key(1));
+        cache.put(key(3), "three");
+
+        assertEquals("one", cache.get(key(1)));
+        assertNull(cache.get(key(2)));
+        assertEquals("three", cache.get(key(3)));
+        assertEquals(1L, cache.getStats().get("evictions"));
+        assertEquals(2, cache.getStats().get("entries"));
+    }
+
+    @Test
+    void bypassesAndClearAreReflectedInStats() {
+        RecommendationCache cache = new RecommendationCache(Duration.ofMinutes(5), 10);
+        cache.put(key(1), "one");
+        cache.recordBypass();
+        cache.clear();
+
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("bypasses"));
+        assertEquals(0, stats.get("entries"));
+        assertEquals(0.0, stats.get("hitRate"));
+    }
+
+    @Test
+    void similarProductsShareAKey() {
+        RecommendationFeatures a = new RecommendationFeatures(20, 10, 19.99, 3.0);
+        RecommendationFeatures b = new RecommendationFeatures(21, 10, 21.50, 3.1);
+
+        assertEquals(a.quantize(), b.quantize());
+    }
+
+    @Test
+    void differentStockPositionsGetDifferentKeys() {
+        RecommendationFeatures belowThreshold = new RecommendationFeatures(5, 10, 19.99, 3.0);
+        RecommendationFeatures aboveThreshold = new RecommendationFeatures(20, 10, 19.99, 3.0);
+
+        assertFalse(belowThreshold.quantize().equals(aboveThreshold.quantize()));
+    }
+
+    @Test
+    void lowCoverIsCritical() {
+        assertTrue(new RecommendationFeatures(0, 10, 5.0, 0.0).isCritical());
+        assertTrue(new RecommendationFeatures(6, 10, 5.0, 2.0).isCritical());
+        assertFalse(new RecommendationFeatures(30, 10, 5.0, 2.0).isCritical());
+        assertFalse(new RecommendationFeatures(3, 10, 5.0, 0.0).isCritical());
+    }
+}
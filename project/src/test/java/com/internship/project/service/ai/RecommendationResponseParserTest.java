@@ -0,0 +1,130 @@
+package com.internship.project.service.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.FieldSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * RecommendationResponseParser must give exactly what the original heuristics (LegacyResponseParser) gave,
+ * on a corpus of realistic and adversarial model answers and on seeded random mutations of them.
+ */
+class RecommendationResponseParserTest {
+
+    static final List<String> CORPUS = List.of(
+            // Well-formed answers in the requested format
+            "QUANTITY: 120\nURGENCY: HIGH\nREASON: Stock covers only 4 days at the current sales rate",
+            "QUANTITY: 45\nURGENCY: LOW\nREASON: Healthy coverage, small top-up to stay above threshold",
+            "QUANTITY: 300 | URGENCY: CRITICAL | REASON: Out of stock with steady daily demand",
+            "**QUANTITY:** 80 units\n**URGENCY:** MEDIUM\n**REASON:** Sales trending up over the last two weeks",
+            "QUANTITY: 75\nURGENCY: Medium-High\nREASON: Coverage of 9 days is below the 14-day target.",
+            // Fallback texts produced by GeminiAIService and batch answers rendered for the cache
+            "FALLBACK: High urgency detected. Recommended quantity: 50 units. Reason: Critical stock level requires immediate replenishment.",
+            "FALLBACK: Medium urgency. Recommended quantity: 30 units. Reason: Standard replenishment based on sales patterns.",
+            "FALLBACK: Low urgency. Recommended quantity: 20 units. Reason: Preventive replenishment to maintain optimal stock levels.",
+            "QUANTITY: 60\nURGENCY: HIGH\nREASON: AI recommendation based on inventory analysis and sales patterns",
+            // Free-form prose
+            "I recommend ordering 150 units because the product sells about 10 per day and only 12 remain.",
+            "Given the moderate demand, replenish with around 40 units. This keeps roughly two weeks of cover.",
+            "The item is out of stock. Place an order soon; demand has been steady at 6 units/day in 2024.",
+            "Sales are running out faster than expected due to a promotion, so a shortage is likely next week.",
+            "Stock looks fine for now. Consider reviewing again next month when seasonal demand picks up again.",
+            "Quantity:250\nUrgency: urgent\nReason: Large backlog of customer orders awaiting fulfilment",
+            "quantity: 5000\nThe warehouse can hold 400 more. Order 90 to be safe considering lead time of 7 days.",
+            // Adversarial
+            "",
+            "QUANTITY:",
+            "QUANTITY:\n",
+            "QUANTITY:|\n|",
+            "QUANTITY:QUANTITY: 40",
+            "QUANTITY:QUANTITY:",
+            "QUANTITY: 99999999999 units\nURGENCY:\nREASON:",
+            "QUANTITY: 12 units for 30 days\nURGENCY: |high\nREASON: short",
+            "URGENCY:\n\nREASON:\n|",
+            "REASON: too short\nReason: This one is long enough to be used as the reason",
+            "Reason:\n| |\nthe rest of the answer explains nothing useful at all here",
+            "Order 1000 or 9 or 10000 units; 2025 was a record year and price is $129.99 each.",
+            "No numbers here, but the follow-up below shows the urgency is highly relevant.",
+            "Straße GRÖSSE 45 units ıİ recommended, URGENCY: ﬁrst LOW",
+            "QUANTITY: ０１２\nURGENCY: ＨＩＧＨ",
+            "....!!!???\n\n\n",
+            "x".repeat(5000) + " QUANTITY: 33",
+            "Line one without keywords 77\nreplenish 5 then 600 then 45\nrecommend 0300 nothing"
+    );
+
+    private static final String[] MUTATION_PIECES = {
+            "QUANTITY:", "URGENCY:", "REASON:", "Reason:", "Quantity: ", "\n", "|", " ", ".", "!", "?",
+            "12", "300", "1001", "0", "99999999999", "because", "due to", "HIGH", "low", "CRITICAL", "order",
+            "replenish", "based on current stock levels and recent demand"
+    };
+
+    /**
+     * The corpus followed by count seeded mutations of it.
+     */
+    static List<String> inputs(int mutations, long seed) {
+        List<String> inputs = new ArrayList<>(CORPUS);
+        Random random = new Random(seed);
+        for (int i = 0; i < mutations; i++) {
+            inputs.add(mutate(CORPUS.get(random.nextInt(CORPUS.size())), random));
+        }
+        return inputs;
+    }
+
+    @ParameterizedTest
+    @FieldSource("CORPUS")
+    void matchesTheLegacyHeuristicsOnTheCorpus(String response) {
+        assertEquals(LegacyResponseParser.parse(response), RecommendationResponseParser.parse(response));
+    }
+
+    @Test
+    void matchesTheLegacyHeuristicsOnMutations() {
+        List<String> inputs = inputs(20_000, 7);
+        List<String> mismatches = new ArrayList<>();
+        for (String input : inputs.subList(CORPUS.size(), inputs.size())) {
+            if (!LegacyResponseParser.parse(input).equals(RecommendationResponseParser.parse(input))) {
+                mismatches.add(input);
+            }
+        }
+        assertEquals(List.of(), mismatches.stream().limit(5).toList(), mismatches.size() + " mismatches");
+    }
+
+    @Test
+    void readsTheRequestedFormat() {
+        assertEquals(new RecommendationResponseParser.ParsedResponse(120, "HIGH",
+                        "Stock covers only 4 days at the current sales rate"),
+                RecommendationResponseParser.parse(CORPUS.get(0)));
+    }
+
+    @Test
+    void leavesQuantityToTheFallbackWhenNoneIsFound() {
+        RecommendationResponseParser.ParsedResponse parsed = RecommendationResponseParser.parse("QUANTITY:");
+
+        assertNull(parsed.quantity());
+        assertEquals(RecommendationResponseParser.DEFAULT_URGENCY, parsed.urgency());
+        assertEquals(RecommendationResponseParser.DEFAULT_REASON, parsed.reason());
+    }
+
+    static String mutate(String base, Random random) {
+        StringBuilder text = new StringBuilder(base);
+        int edits = 1 + random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            int position = text.length() == 0 ? 0 : random.nextInt(text.length() + 1);
+            switch (random.nextInt(3)) {
+                case 0 -> text.insert(position, MUTATION_PIECES[random.nextInt(MUTATION_PIECES.length)]);
+                case 1 -> text.setLength(position);
+                default -> {
+                    int end = Math.min(text.length(), position + random.nextInt(10));
+                    text.delete(position, end);
+                }
+            }
+        }
+        return text.toString();
+    }
+
+}
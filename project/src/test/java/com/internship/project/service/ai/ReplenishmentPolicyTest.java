@@ -0,0 +1,132 @@
+package com.internship.project.service.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplenishmentPolicyTest {
+
+    // 7-day lead time, 95% service level, $50 per order, 25% yearly holding, escalate orders of $10,000+,
+    // coefficient of variation above 1, or stock within 10% of the reorder point
+    private final ReplenishmentPolicy policy = new ReplenishmentPolicy(7, 0.95, 50, 0.25, 10_000, 1.0, 0.1);
+
+    @ParameterizedTest
+    @CsvSource({
+            "0.5,       0.0",
+            "0.8413447, 1.0",
+            "0.95,      1.6448536",
+            "0.975,     1.9599640",
+            "0.99,      2.3263479",
+            "0.999,     3.0902323",
+            "0.01,      -2.3263479",
+            "0.001,     -3.0902323"
+    })
+    void inverseNormalMatchesKnownQuantiles(double p, double z) {
+        assertEquals(z, ReplenishmentPolicy.inverseNormal(p), 1e-6);
+    }
+
+    @Test
+    void sizesSafetyStockReorderPointAndEoq() {
+        // 10/day with std dev 4: safety stock z * 4 * sqrt(7), EOQ sqrt(2 * 3650 * 50 / (0.25 * 20))
+        ReplenishmentPolicy.Decision decision = policy.evaluate(60, 20, 20.0, 10, 16);
+
+        double safetyStock = 1.6448536 * 4 * Math.sqrt(7);
+        assertEquals(safetyStock, decision.safetyStock(), 1e-4);
+        assertEquals(70 + safetyStock, decision.reorderPoint(), 1e-4);
+        assertEquals(Math.sqrt(73_000), decision.economicOrderQuantity(), 1e-9);
+        assertEquals(6.0, decision.daysOfCover(), 1e-9);
+        // Q plus the gap back up to the reorder point
+        assertEquals((int) Math.ceil(Math.sqrt(73_000) + 70 + safetyStock - 60), decision.quantity());
+    }
+
+    @Test
+    void reorderPointNeverFallsBelowTheConfiguredThreshold() {
+        ReplenishmentPolicy.Decision decision = policy.evaluate(150, 200, 20.0, 10, 16);
+
+        assertEquals(200.0, decision.reorderPoint(), 1e-9);
+        assertTrue(decision.reorder());
+    }
+
+    /**
+     * Demand 10/day (reorder point about 87) at $20 unless noted; lead time 7 days.
+     */
+    @ParameterizedTest(name = "stock {0}, price {1}, variance {2} -> {3} {4} {5}")
+    @CsvSource({
+            // Plenty of cover
+            "200, 20,  16,  false, LOW,      ",
+            // Just under the reorder point, more than a lead time of cover
+            "85,  20,  16,  true,  MEDIUM,   BORDERLINE",
+            // Less than a lead time of cover
+            "60,  20,  16,  true,  HIGH,     ",
+            // Less than half a lead time of cover
+            "30,  20,  16,  true,  CRITICAL, ",
+            "0,   20,  16,  true,  CRITICAL, ",
+            // Just above the reorder point is a close call too, even without reordering
+            "90,  20,  16,  false, LOW,      BORDERLINE",
+            // Std dev 20 against 10/day
+            "60,  20,  400, true,  HIGH,     VOLATILE_DEMAND",
+            // About 113 units at $200
+            "60,  200, 16,  true,  HIGH,     HIGH_VALUE",
+            // High value wins over volatile demand
+            "60,  200, 400, true,  HIGH,     HIGH_VALUE"
+    })
+    void urgencyBandsAndEscalations(int stock, double price, double variance, boolean reorder, String urgency,
+                                    String escalation) {
+        ReplenishmentPolicy.Decision decision = policy.evaluate(stock, 20, price, 10, variance);
+
+        assertEquals(reorder, decision.reorder());
+        assertEquals(urgency, decision.urgency());
+        assertEquals(escalation, decision.escalation());
+        assertEquals(escalation != null, decision.escalate());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "5,  true,  35, MEDIUM",
+            "0,  true,  40, HIGH",
+            "18, true,  22, MEDIUM",
+            "35, false, 10, MEDIUM"
+    })
+    void noDemandHistoryTopsUpToTwiceTheThreshold(int stock, boolean reorder, int quantity, String urgency) {
+        ReplenishmentPolicy.Decision decision = policy.evaluate(stock, 20, 20.0, 0, 0);
+
+        assertEquals(reorder, decision.reorder());
+        assertEquals(quantity, decision.quantity());
+        assertEquals(urgency, decision.urgency());
+        assertEquals(reorder ? ReplenishmentPolicy.NO_DEMAND_HISTORY : null, decision.escalation());
+        assertEquals(-1.0, decision.daysOfCover());
+    }
+
+    @Test
+    void ordersAreClampedBetweenTenAndAThousand() {
+        // Tiny demand on an expensive item: EOQ about 2
+        assertEquals(10, policy.evaluate(0, 0, 5_000.0, 0.01, 0).quantity());
+        // Very fast mover on a cheap item: EOQ in the tens of thousands
+        assertEquals(1000, policy.evaluate(0, 0, 0.5, 500, 0).quantity());
+    }
+
+    @Test
+    void steadyDemandHasNoSafetyStock() {
+        ReplenishmentPolicy.Decision decision = policy.evaluate(500, 20, 20.0, 10, 0);
+
+        assertEquals(0.0, decision.safetyStock(), 1e-9);
+        assertEquals(70.0, decision.reorderPoint(), 1e-9);
+        assertFalse(decision.reorder());
+        assertNull(decision.escalation());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ReplenishmentPolicy(0, 0.95, 50, 0.25, 1, 1, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new ReplenishmentPolicy(7, 0.5, 50, 0.25, 1, 1, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new ReplenishmentPolicy(7, 1.0, 50, 0.25, 1, 1, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new ReplenishmentPolicy(7, 0.95, 0, 0.25, 1, 1, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> new ReplenishmentPolicy(7, 0.95, 50, 0, 1, 1, 0.1));
+    }
+}
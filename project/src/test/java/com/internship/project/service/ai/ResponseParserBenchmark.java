@@ -0,0 +1,60 @@
+package com.internship.project.service.ai;
+
+import java.util.List;
+
+/**
+ * Times RecommendationResponseParser against the original heuristics (LegacyResponseParser) on the
+ * RecommendationResponseParserTest corpus plus seeded mutations. Equivalence is checked by that test.
+ * Run: {@code mvn -Ptools spring-boot:test-run -Dspring-boot.run.arguments="parser-bench --mutations=20000"}.
+ */
+public class ResponseParserBenchmark {
+
+    /**
+     * Arguments (all optional): --mutations= --iterations= --seed=
+     */
+    public static void main(String[] args) {
+        int mutations = 20_000;
+        int iterations = 20;
+        long seed = 7;
+
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            switch (parts[0]) {
+                case "mutations" -> mutations = Integer.parseInt(parts[1]);
+                case "iterations" -> iterations = Integer.parseInt(parts[1]);
+                case "seed" -> seed = Long.parseLong(parts[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        List<String> inputs = RecommendationResponseParserTest.inputs(mutations, seed);
+        System.out.println("Timing " + inputs.size() + " responses (" + RecommendationResponseParserTest.CORPUS.size()
+                + " corpus + " + mutations + " mutations)");
+
+        // Warm up both, then measure
+        time(inputs, iterations / 4 + 1, true);
+        time(inputs, iterations / 4 + 1, false);
+        double legacyNs = time(inputs, iterations, true);
+        double parserNs = time(inputs, iterations, false);
+        System.out.printf("Legacy heuristics: %.0f ns/response%n", legacyNs);
+        System.out.printf("Precompiled parser: %.0f ns/response (%.1fx)%n", parserNs, legacyNs / parserNs);
+    }
+
+    private static double time(List<String> inputs, int iterations, boolean legacy) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (String input : inputs) {
+                RecommendationResponseParser.ParsedResponse parsed = legacy
+                        ? LegacyResponseParser.parse(input) : RecommendationResponseParser.parse(input);
+                sink += parsed.reason().length() + (parsed.quantity() != null ? parsed.quantity() : 0);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) System.out.println();
+        return elapsed / (double) ((long) iterations * inputs.size());
+    }
+}
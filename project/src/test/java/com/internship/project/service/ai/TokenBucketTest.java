@@ -0,0 +1,87 @@
+package com.internship.project.service.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void startsFullAndAllowsTheBurstAtOnce() {
+        TokenBucket bucket = new TokenBucket(1, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquireNow());
+        }
+        assertFalse(bucket.tryAcquireNow());
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        // 600 per minute is one token per 100 ms
+        TokenBucket bucket = new TokenBucket(600, 1);
+        assertTrue(bucket.tryAcquireNow());
+        assertFalse(bucket.tryAcquireNow());
+
+        Thread.sleep(150);
+        assertTrue(bucket.tryAcquireNow());
+    }
+
+    @Test
+    void neverHoldsMoreThanTheBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(60_000, 3);
+        Thread.sleep(20);
+
+        assertEquals(3.0, bucket.availableTokens(), 1e-9);
+    }
+
+    @Test
+    void waitsForTheNextTokenWithinTheTimeout() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(6_000, 1); // one token per 10 ms
+        assertTrue(bucket.tryAcquireNow());
+
+        long start = System.nanoTime();
+        assertTrue(bucket.tryAcquire(Duration.ofSeconds(2)));
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(waitedMs >= 5, "waited only " + waitedMs + " ms");
+    }
+
+    @Test
+    void givesUpWhenNoTokenArrivesBeforeTheTimeout() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 1); // next token in a minute
+        assertTrue(bucket.tryAcquireNow());
+
+        long start = System.nanoTime();
+        assertFalse(bucket.tryAcquire(Duration.ofMillis(30)));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1_000);
+    }
+
+    @Test
+    void concurrentCallersNeverTakeMoreThanWasAvailable() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 50);
+        AtomicInteger granted = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 500; i++) {
+                executor.submit(() -> {
+                    if (bucket.tryAcquireNow()) granted.incrementAndGet();
+                });
+            }
+        }
+        assertEquals(50, granted.get());
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
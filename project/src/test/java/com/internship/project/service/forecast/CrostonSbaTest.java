@@ -0,0 +1,42 @@
+package com.internship.project.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CrostonSbaTest {
+
+    private final CrostonSba model = new CrostonSba(0.1);
+
+    @Test
+    void intermittentSeriesProjectsTheBiasCorrectedRate() {
+        // 12 units every 4th day: size 12, interval 4, rate (1 - 0.1 / 2) * 12 / 4
+        double[] projection = model.forecast(DemandSeries.intermittent(60, 4, 12), 5);
+        assertArrayEquals(DemandSeries.flat(5, 0.95 * 3), projection, 1e-9);
+    }
+
+    @Test
+    void flatSeriesIsShrunkByTheCorrection() {
+        assertArrayEquals(DemandSeries.flat(3, 0.95 * 6), model.forecast(DemandSeries.flat(30, 6), 3), 1e-9);
+    }
+
+    @Test
+    void sizesAndIntervalsAreSmoothedSeparately() {
+        // First demand 10 after 2 days; then 20 after 3 more: size 0.1*20 + 0.9*10 = 11, interval 0.1*3 + 0.9*2 = 2.1
+        double[] history = {0, 10, 0, 0, 20};
+        assertEquals(0.95 * 11 / 2.1, model.forecast(history, 1)[0], 1e-9);
+    }
+
+    @Test
+    void trailingZerosDoNotChangeTheRate() {
+        double[] withTail = new double[70];
+        System.arraycopy(DemandSeries.intermittent(60, 4, 12), 0, withTail, 0, 60);
+        assertEquals(model.forecast(DemandSeries.intermittent(60, 4, 12), 1)[0], model.forecast(withTail, 1)[0], 1e-9);
+    }
+
+    @Test
+    void noDemandProjectsZero() {
+        assertArrayEquals(new double[4], model.forecast(new double[30], 4), 1e-9);
+    }
+}
@@ -0,0 +1,44 @@
+package com.internship.project.service.forecast;
+
+/**
+ * Synthetic daily demand shapes shared by the model tests.
+ */
+final class DemandSeries {
+
+    // Weekdays busy, weekend quiet; index 0 is the first day of the series
+    static final double[] WEEK = {20, 22, 21, 23, 24, 6, 4};
+
+    private DemandSeries() {
+    }
+
+    static double[] flat(int days, double units) {
+        double[] series = new double[days];
+        java.util.Arrays.fill(series, units);
+        return series;
+    }
+
+    static double[] trending(int days, double start, double slope) {
+        double[] series = new double[days];
+        for (int t = 0; t < days; t++) {
+            series[t] = start + slope * t;
+        }
+        return series;
+    }
+
+    static double[] weekly(int weeks) {
+        double[] series = new double[weeks * WEEK.length];
+        for (int t = 0; t < series.length; t++) {
+            series[t] = WEEK[t % WEEK.length];
+        }
+        return series;
+    }
+
+    // units on every interval-th day, nothing in between
+    static double[] intermittent(int days, int interval, double units) {
+        double[] series = new double[days];
+        for (int t = interval - 1; t < days; t += interval) {
+            series[t] = units;
+        }
+        return series;
+    }
+}
@@ -0,0 +1,86 @@
+package com.internship.project.service.forecast;
+
+import com.internship.project.service.ForecastModelService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs ForecastBacktest against a generated dataset (about 10M daily rows by default) and fails
+ * if accuracy or throughput regress.
+ * Run: {@code mvn -Ptools spring-boot:test-run -Dspring-boot.run.arguments="backtest --skus=10000"}.
+ */
+public class ForecastBacktestRunner {
+
+    /**
+     * Generate daily sales series with a mix of steady, trending, weekly-seasonal and intermittent demand.
+     * skus * days is the number of daily rows, e.g. 55,556 SKUs over 180 days is about 10M rows.
+     */
+    public static List<double[]> syntheticDataset(int skus, int days, long seed) {
+        List<double[]> series = new ArrayList<>(skus);
+        for (int sku = 0; sku < skus; sku++) {
+            Random random = new Random(seed + sku);
+            double[] sales = new double[days];
+            double base = 1 + random.nextDouble() * 20;
+            double trend = (random.nextDouble() - 0.5) * base / days;
+            double seasonality = random.nextDouble() * 0.5;
+            double intermittency = sku % 4 == 3 ? 0.7 + random.nextDouble() * 0.25 : 0.0;
+
+            for (int day = 0; day < days; day++) {
+                if (random.nextDouble() < intermittency) {
+                    continue;
+                }
+                double weekly = 1 + seasonality * Math.sin(2 * Math.PI * (day % 7) / 7);
+                double mean = Math.max((base + trend * day) * weekly, 0.0);
+                sales[day] = Math.max(Math.round(mean + random.nextGaussian() * Math.sqrt(mean + 1)), 0);
+            }
+            series.add(sales);
+        }
+        return series;
+    }
+
+    /**
+     * Arguments (all optional): --skus= --days= --train-days= --window-days= --seed= --max-mape= --min-skus-per-sec=
+     */
+    public static void main(String[] args) {
+        int skus = 55_556;
+        int days = 180;
+        int trainDays = 90;
+        int windowDays = 14;
+        long seed = 42;
+        double maxMape = 60.0;
+        double minSkusPerSecond = 10_000;
+
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            switch (parts[0]) {
+                case "skus" -> skus = Integer.parseInt(parts[1]);
+                case "days" -> days = Integer.parseInt(parts[1]);
+                case "train-days" -> trainDays = Integer.parseInt(parts[1]);
+                case "window-days" -> windowDays = Integer.parseInt(parts[1]);
+                case "seed" -> seed = Long.parseLong(parts[1]);
+                case "max-mape" -> maxMape = Double.parseDouble(parts[1]);
+                case "min-skus-per-sec" -> minSkusPerSecond = Double.parseDouble(parts[1]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        System.out.println("Generating " + ((long) skus * days) + " synthetic daily rows (" + skus + " SKUs x " + days + " days)");
+        List<double[]> dataset = syntheticDataset(skus, days, seed);
+
+        ForecastBacktest.Result result = new ForecastBacktest(ForecastModelService.createSelector(), trainDays, windowDays)
+                .run(dataset);
+        System.out.println("Backtest result: " + result);
+
+        if (result.mape() > maxMape || result.skusPerSecond() < minSkusPerSecond) {
+            System.err.println("Backtest failed: MAPE " + result.mape() + "% (max " + maxMape + "%), "
+                    + result.skusPerSecond() + " SKUs/sec (min " + minSkusPerSecond + ")");
+            System.exit(1);
+        }
+        System.out.println("Backtest passed");
+    }
+}
@@ -0,0 +1,77 @@
+package com.internship.project.service.forecast;
+
+import com.internship.project.service.ForecastModelService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForecastModelSelectorTest {
+
+    // The candidates and 14-day holdout used for the nightly refit
+    private final ForecastModelSelector selector = ForecastModelService.createSelector();
+
+    @Test
+    void flatSeriesPicksAModelWithNoHoldoutError() {
+        ForecastModelSelector.Fit fit = selector.select(DemandSeries.flat(90, 5), 7);
+
+        // SES and Holt-Winters are both exact; the first candidate wins the tie
+        assertEquals("SES", fit.model());
+        assertEquals(0.0, fit.holdoutMae(), 1e-9);
+        assertArrayEquals(DemandSeries.flat(7, 5), fit.projection(), 1e-9);
+    }
+
+    @Test
+    void trendingSeriesPicksHoltWinters() {
+        ForecastModelSelector.Fit fit = selector.select(DemandSeries.trending(90, 10, 0.5), 7);
+
+        assertEquals("HOLT_WINTERS", fit.model());
+        assertTrue(fit.holdoutMae() < 1.0);
+        assertTrue(fit.projection()[6] > fit.projection()[0]);
+    }
+
+    @Test
+    void weeklySeasonalSeriesPicksHoltWinters() {
+        ForecastModelSelector.Fit fit = selector.select(DemandSeries.weekly(13), 7);
+
+        assertEquals("HOLT_WINTERS", fit.model());
+        assertArrayEquals(DemandSeries.WEEK, fit.projection(), 1e-6);
+    }
+
+    @Test
+    void intermittentSeriesPicksCroston() {
+        ForecastModelSelector.Fit fit = selector.select(DemandSeries.intermittent(90, 5, 10), 7);
+
+        assertEquals("CROSTON_SBA", fit.model());
+    }
+
+    @Test
+    void holdoutErrorIsTheMeanAbsoluteErrorOfTheWinner() {
+        // A level shift inside the holdout: SES trained on 4s forecasts 4 against 4s then 10s
+        double[] history = new double[42];
+        java.util.Arrays.fill(history, 0, 35, 4);
+        java.util.Arrays.fill(history, 35, 42, 10);
+        ForecastModelSelector single = new ForecastModelSelector(List.of(new SimpleExponentialSmoothing(0.3)), 14);
+
+        assertEquals(3.0, single.select(history, 1).holdoutMae(), 1e-9);
+    }
+
+    @Test
+    void tooShortForAHoldoutUsesTheFirstCandidate() {
+        ForecastModelSelector.Fit fit = selector.select(DemandSeries.trending(20, 1, 1), 3);
+
+        assertEquals("SES", fit.model());
+        assertEquals(0.0, fit.holdoutMae());
+    }
+
+    @Test
+    void replaysOnlyTheFirstLengthDays() {
+        double[] history = DemandSeries.weekly(20);
+        ForecastModelSelector.Fit cut = selector.select(history, 91, 7);
+
+        assertArrayEquals(selector.select(DemandSeries.weekly(13), 7).projection(), cut.projection(), 1e-9);
+    }
+}
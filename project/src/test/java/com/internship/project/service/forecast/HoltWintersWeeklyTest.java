@@ -0,0 +1,64 @@
+package com.internship.project.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoltWintersWeeklyTest {
+
+    private final HoltWintersWeekly model = new HoltWintersWeekly(0.2, 0.05, 0.1);
+
+    @Test
+    void flatSeriesProjectsTheSameLevel() {
+        assertArrayEquals(DemandSeries.flat(14, 8.0), model.forecast(DemandSeries.flat(56, 8.0), 14), 1e-9);
+    }
+
+    @Test
+    void trendingSeriesIsExtrapolated() {
+        double[] history = DemandSeries.trending(56, 10, 1);
+        double[] projection = model.forecast(history, 7);
+        double ses = new SimpleExponentialSmoothing(0.3).forecast(history, 1)[0];
+
+        // The true path is 66..72; part of the first weeks' slope is read as season, so it is not exact
+        for (int k = 0; k < 7; k++) {
+            assertEquals(66.0 + k, projection[k], 2.5);
+        }
+        assertTrue(projection[6] - projection[0] > 5.0);
+        assertTrue(Math.abs(projection[0] - 66.0) < Math.abs(ses - 66.0));
+    }
+
+    @Test
+    void weeklySeasonalSeriesKeepsItsDayOfWeekPattern() {
+        double[] history = DemandSeries.weekly(8);
+        double[] projection = model.forecast(history, 14);
+
+        // The history is whole weeks, so the projection starts on the pattern's first day again
+        for (int k = 0; k < 14; k++) {
+            assertEquals(DemandSeries.WEEK[k % 7], projection[k], 1e-6);
+        }
+    }
+
+    @Test
+    void seasonStaysAlignedWhenHistoryEndsMidWeek() {
+        double[] history = DemandSeries.weekly(8);
+        double[] projection = model.forecast(history, 52, 3);
+
+        // 52 days end on the pattern's fourth day, so the next three are days 3, 4 and 5
+        assertEquals(DemandSeries.WEEK[3], projection[0], 1e-6);
+        assertEquals(DemandSeries.WEEK[4], projection[1], 1e-6);
+        assertEquals(DemandSeries.WEEK[5], projection[2], 1e-6);
+    }
+
+    @Test
+    void shortHistoryFallsBackToTheMean() {
+        double[] history = {2, 4, 6, 8, 10, 12, 14, 16, 18, 20};
+        assertArrayEquals(DemandSeries.flat(3, 11.0), model.forecast(history, 3), 1e-9);
+    }
+
+    @Test
+    void emptyHistoryProjectsZero() {
+        assertArrayEquals(new double[2], model.forecast(new double[0], 2), 1e-9);
+    }
+}
@@ -0,0 +1,51 @@
+package com.internship.project.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimpleExponentialSmoothingTest {
+
+    private final SimpleExponentialSmoothing model = new SimpleExponentialSmoothing(0.3);
+
+    @Test
+    void flatSeriesProjectsTheSameLevel() {
+        assertArrayEquals(DemandSeries.flat(7, 5.0), model.forecast(DemandSeries.flat(60, 5.0), 7), 1e-9);
+    }
+
+    @Test
+    void levelFollowsTheSmoothingRecurrence() {
+        // 10, then 20: level = 0.3 * 20 + 0.7 * 10
+        assertEquals(13.0, model.forecast(new double[]{10, 20}, 1)[0], 1e-9);
+    }
+
+    @Test
+    void trendingSeriesLagsBehindTheLastValue() {
+        double[] history = DemandSeries.trending(60, 10, 1);
+        double[] projection = model.forecast(history, 5);
+
+        // A flat projection: about (1 - alpha) / alpha days of slope behind the last observation
+        assertEquals(projection[0], projection[4], 1e-9);
+        assertEquals(history[59] - 7.0 / 3.0, projection[0], 0.01);
+    }
+
+    @Test
+    void usesOnlyTheFirstLengthDays() {
+        double[] history = {4, 4, 4, 100, 100};
+        assertEquals(4.0, model.forecast(history, 3, 1)[0], 1e-9);
+    }
+
+    @Test
+    void emptyHistoryProjectsZero() {
+        assertArrayEquals(new double[3], model.forecast(new double[0], 3), 1e-9);
+    }
+
+    @Test
+    void projectionIsNeverNegative() {
+        for (double value : model.forecast(new double[]{-5, -5}, 3)) {
+            assertTrue(value >= 0);
+        }
+    }
+}